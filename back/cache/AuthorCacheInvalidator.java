@@ -0,0 +1,43 @@
+package com.skill.websockets.cache;
+
+import com.skill.websockets.model.User;
+
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Listener JPA de User (Hibernate lo obtiene del contenedor de Spring) que invalida AuthorSummaryCache.
+ *
+ * Se invalida al hacer flush y otra vez tras el commit: entre ambos momentos otra petición
+ * podría haber vuelto a cachear los datos anteriores, que aún son los confirmados.
+ */
+@Component
+public class AuthorCacheInvalidator {
+
+    private final AuthorSummaryCache authorSummaryCache;
+
+    @Autowired
+    public AuthorCacheInvalidator(@Lazy AuthorSummaryCache authorSummaryCache) {
+        this.authorSummaryCache = authorSummaryCache;
+    }
+
+    @PostUpdate
+    @PostRemove
+    public void onUserChanged(User user) {
+        Long userId = user.getId();
+        authorSummaryCache.invalidate(userId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    authorSummaryCache.invalidate(userId);
+                }
+            });
+        }
+    }
+}
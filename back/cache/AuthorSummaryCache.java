@@ -0,0 +1,72 @@
+package com.skill.websockets.cache;
+
+import com.skill.websockets.dto.AuthorSummary;
+import com.skill.websockets.dto.UserDTO;
+import com.skill.websockets.repository.UserRepository;
+import com.skill.websockets.repository.projection.AuthorRow;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Caché id -> AuthorSummary para construir los autores de posts y comentarios
+ * sin inicializar un proxy de User por cada uno.
+ *
+ * Los autores que faltan se cargan todos juntos con una consulta IN.
+ * AuthorCacheInvalidator elimina la entrada cuando se actualiza o borra un usuario.
+ */
+@Component
+public class AuthorSummaryCache {
+
+    private final BoundedCache<Long, AuthorSummary> cache;
+    private final UserRepository userRepository;
+
+    @Autowired
+    public AuthorSummaryCache(CacheRegistry cacheRegistry,
+                              UserRepository userRepository,
+                              @Value("${app.cache.authors.maximum-size:20000}") int maximumSize,
+                              @Value("${app.cache.authors.ttl-seconds:1800}") long ttlSeconds) {
+        this.cache = cacheRegistry.create("authors", maximumSize, Duration.ofSeconds(ttlSeconds));
+        this.userRepository = userRepository;
+    }
+
+    /**
+     * Devuelve el UserDTO de cada autor solicitado que exista (userId -> UserDTO).
+     */
+    public Map<Long, UserDTO> resolve(Collection<Long> userIds) {
+        Map<Long, UserDTO> authors = new HashMap<>();
+        if (userIds == null || userIds.isEmpty()) {
+            return authors;
+        }
+        cache.getAll(new HashSet<>(userIds), this::loadAll)
+                .forEach((id, summary) -> authors.put(id, summary.toUserDTO()));
+        return authors;
+    }
+
+    public UserDTO resolve(Long userId) {
+        if (userId == null) {
+            return null;
+        }
+        AuthorSummary summary = cache.get(userId, id -> loadAll(List.of(id)).get(id));
+        return summary != null ? summary.toUserDTO() : null;
+    }
+
+    public void invalidate(Long userId) {
+        cache.invalidate(userId);
+    }
+
+    private Map<Long, AuthorSummary> loadAll(List<Long> userIds) {
+        return userRepository.findAuthorRowsByIdIn(userIds).stream()
+                .collect(Collectors.toMap(AuthorRow::id, AuthorSummary::from, (a, b) -> a));
+    }
+}
@@ -0,0 +1,212 @@
+package com.skill.websockets.cache;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Caché en memoria acotada por tamaño (LRU) y por tiempo desde la escritura
+ * (con expireAfterWrite cero las entradas no caducan y solo se desalojan por tamaño).
+ *
+ * Está dividida en segmentos con su propio candado, de modo que lecturas y escrituras
+ * de claves distintas rara vez compiten. Cada carga registra un testigo para su clave; invalidar
+ * esa clave lo retira, y el valor cargado solo se guarda si su testigo sigue vigente (comprobación
+ * y escritura atómicas bajo el candado del segmento). Así una invalidación descarta únicamente
+ * las cargas en curso de su propia clave y nunca se vuelve a cachear un dato obsoleto.
+ * Se crea siempre a través de CacheRegistry, que expone sus estadísticas.
+ */
+public class BoundedCache<K, V> {
+
+    private static final int SEGMENTS = 16;
+
+    private final String name;
+    private final long expireAfterWriteNanos;
+    private final Segment<K, V>[] segments;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    @SuppressWarnings("unchecked")
+    BoundedCache(String name, int maximumSize, Duration expireAfterWrite) {
+        this.name = name;
+        this.expireAfterWriteNanos = expireAfterWrite.toNanos();
+        int segmentCapacity = Math.max(1, maximumSize / SEGMENTS);
+        this.segments = new Segment[SEGMENTS];
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments[i] = new Segment<>(segmentCapacity, expireAfterWriteNanos > 0, evictions);
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Devuelve el valor cacheado o null si no existe o ha caducado.
+     */
+    public V getIfPresent(K key) {
+        V value = segmentFor(key).get(key, System.nanoTime());
+        if (value != null) {
+            hits.increment();
+        } else {
+            misses.increment();
+        }
+        return value;
+    }
+
+    /**
+     * Devuelve el valor cacheado o lo carga con el loader. Un loader que devuelve null no se cachea.
+     */
+    public V get(K key, Function<K, V> loader) {
+        V value = getIfPresent(key);
+        if (value != null) {
+            return value;
+        }
+        Segment<K, V> segment = segmentFor(key);
+        Object token = segment.beginLoad(key);
+        try {
+            value = loader.apply(key);
+        } finally {
+            segment.completeLoad(key, token, value, System.nanoTime() + expireAfterWriteNanos);
+        }
+        return value;
+    }
+
+    /**
+     * Versión por lotes: las claves que faltan se cargan con una sola llamada al loader.
+     * El resultado solo contiene las claves con valor.
+     */
+    public Map<K, V> getAll(Collection<K> keys, Function<List<K>, Map<K, V>> loader) {
+        Map<K, V> result = new HashMap<>();
+        List<K> missing = new ArrayList<>();
+        for (K key : keys) {
+            V value = getIfPresent(key);
+            if (value != null) {
+                result.put(key, value);
+            } else {
+                missing.add(key);
+            }
+        }
+        if (!missing.isEmpty()) {
+            Map<K, Object> tokens = new HashMap<>();
+            missing.forEach(key -> tokens.put(key, segmentFor(key).beginLoad(key)));
+            Map<K, V> loaded = Map.of();
+            try {
+                loaded = loader.apply(missing);
+            } finally {
+                long expiresAtNanos = System.nanoTime() + expireAfterWriteNanos;
+                for (K key : missing) {
+                    V value = loaded.get(key);
+                    segmentFor(key).completeLoad(key, tokens.get(key), value, expiresAtNanos);
+                    if (value != null) {
+                        result.put(key, value);
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    public void put(K key, V value) {
+        segmentFor(key).put(key, value, System.nanoTime() + expireAfterWriteNanos);
+    }
+
+    public void invalidate(K key) {
+        segmentFor(key).remove(key);
+    }
+
+    public void invalidateAll() {
+        for (Segment<K, V> segment : segments) {
+            segment.clear();
+        }
+    }
+
+    public CacheStats stats() {
+        long size = 0;
+        for (Segment<K, V> segment : segments) {
+            size += segment.size();
+        }
+        return new CacheStats(name, size, hits.sum(), misses.sum(), evictions.sum());
+    }
+
+    private Segment<K, V> segmentFor(K key) {
+        int h = key.hashCode();
+        h ^= (h >>> 16);
+        return segments[h & (SEGMENTS - 1)];
+    }
+
+    private record Entry<V>(V value, long expiresAtNanos) {
+    }
+
+    // Segmento LRU: LinkedHashMap en orden de acceso protegido por su propio monitor
+    private static final class Segment<K, V> {
+        private final LinkedHashMap<K, Entry<V>> map;
+        private final boolean expires;
+        // Testigo de la última carga en curso de cada clave; solo contiene cargas sin terminar
+        private final Map<K, Object> loads = new HashMap<>();
+
+        Segment(int capacity, boolean expires, LongAdder evictions) {
+            this.expires = expires;
+            this.map = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                    if (size() > capacity) {
+                        evictions.increment();
+                        return true;
+                    }
+                    return false;
+                }
+            };
+        }
+
+        synchronized V get(K key, long now) {
+            Entry<V> entry = map.get(key);
+            if (entry == null) {
+                return null;
+            }
+            if (expires && entry.expiresAtNanos() - now <= 0) {
+                map.remove(key);
+                return null;
+            }
+            return entry.value();
+        }
+
+        synchronized void put(K key, V value, long expiresAtNanos) {
+            map.put(key, new Entry<>(value, expiresAtNanos));
+        }
+
+        synchronized Object beginLoad(K key) {
+            Object token = new Object();
+            loads.put(key, token);
+            return token;
+        }
+
+        // Guarda el valor solo si ninguna invalidación ni carga posterior de la clave retiró el testigo
+        synchronized void completeLoad(K key, Object token, V value, long expiresAtNanos) {
+            if (loads.remove(key, token) && value != null) {
+                map.put(key, new Entry<>(value, expiresAtNanos));
+            }
+        }
+
+        synchronized void remove(K key) {
+            map.remove(key);
+            loads.remove(key);
+        }
+
+        synchronized void clear() {
+            map.clear();
+            loads.clear();
+        }
+
+        synchronized int size() {
+            return map.size();
+        }
+    }
+}
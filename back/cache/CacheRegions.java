@@ -0,0 +1,19 @@
+package com.skill.websockets.cache;
+
+/**
+ * Nombres de las regiones de la caché de segundo nivel de Hibernate.
+ * Las entidades los usan en @Cache y SecondLevelCacheConfig dimensiona cada región.
+ */
+public final class CacheRegions {
+
+    public static final String USERS = "usuarios";
+    public static final String REACTION_TYPES = "tipo_reaccion";
+    public static final String TAGS = "etiquetas";
+
+    // Regiones internas de Hibernate para la caché de consultas
+    public static final String QUERY_RESULTS = "default-query-results-region";
+    public static final String UPDATE_TIMESTAMPS = "default-update-timestamps-region";
+
+    private CacheRegions() {
+    }
+}
@@ -0,0 +1,26 @@
+package com.skill.websockets.cache;
+
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Crea las cachés en memoria de la aplicación y centraliza sus métricas.
+ */
+@Component
+public class CacheRegistry {
+
+    private final List<BoundedCache<?, ?>> caches = new CopyOnWriteArrayList<>();
+
+    public <K, V> BoundedCache<K, V> create(String name, int maximumSize, Duration expireAfterWrite) {
+        BoundedCache<K, V> cache = new BoundedCache<>(name, maximumSize, expireAfterWrite);
+        caches.add(cache);
+        return cache;
+    }
+
+    public List<CacheStats> stats() {
+        return caches.stream().map(BoundedCache::stats).toList();
+    }
+}
@@ -0,0 +1,12 @@
+package com.skill.websockets.cache;
+
+/**
+ * Instantánea de las métricas de una BoundedCache.
+ */
+public record CacheStats(String name, long size, long hits, long misses, long evictions) {
+
+    public double getHitRate() {
+        long requests = hits + misses;
+        return requests == 0 ? 0.0 : (double) hits / requests;
+    }
+}
@@ -0,0 +1,13 @@
+package com.skill.websockets.cache;
+
+/**
+ * Instantánea de las métricas de una región de la caché de segundo nivel de Hibernate.
+ * Hibernate no cuenta desalojos por región; en su lugar se expone el número de inserciones.
+ */
+public record HibernateRegionStats(String name, long size, long hits, long misses, long puts) {
+
+    public double getHitRate() {
+        long requests = hits + misses;
+        return requests == 0 ? 0.0 : (double) hits / requests;
+    }
+}
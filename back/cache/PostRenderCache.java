@@ -0,0 +1,57 @@
+package com.skill.websockets.cache;
+
+import com.skill.websockets.dto.PostDTO;
+import com.skill.websockets.event.PostChangedEvent;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Caché de las representaciones de posts que no dependen del usuario que las pide
+ * (autor, contenido, etiquetas, conteos y vista previa de comentarios, sin userReaction).
+ *
+ * Los valores cacheados se comparten entre peticiones y no deben modificarse:
+ * PostService los copia antes de añadir los datos del usuario actual.
+ * Se invalida post a post con PostChangedEvent, una vez confirmada la transacción.
+ */
+@Component
+public class PostRenderCache {
+
+    private final BoundedCache<Long, PostDTO> cache;
+
+    @Autowired
+    public PostRenderCache(CacheRegistry cacheRegistry,
+                           @Value("${app.cache.posts.maximum-size:5000}") int maximumSize,
+                           @Value("${app.cache.posts.ttl-seconds:600}") long ttlSeconds) {
+        this.cache = cacheRegistry.create("posts", maximumSize, Duration.ofSeconds(ttlSeconds));
+    }
+
+    // Consulta sin cargar ni alterar la caché (lo usa la exportación en streaming para no desalojar posts calientes)
+    public PostDTO getIfPresent(Long postId) {
+        return cache.getIfPresent(postId);
+    }
+
+    public PostDTO get(Long postId, Function<Long, PostDTO> loader) {
+        return cache.get(postId, loader);
+    }
+
+    public Map<Long, PostDTO> getAll(Collection<Long> postIds, Function<List<Long>, Map<Long, PostDTO>> loader) {
+        return cache.getAll(postIds, loader);
+    }
+
+    // Antes que PostVersionTracker: la versión del feed no debe avanzar mientras la caché aún sirve el contenido anterior
+    @TransactionalEventListener(fallbackExecution = true)
+    @Order(0)
+    public void onPostChanged(PostChangedEvent event) {
+        cache.invalidate(event.postId());
+    }
+}
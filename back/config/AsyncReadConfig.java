@@ -0,0 +1,37 @@
+package com.skill.websockets.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.Executor;
+
+/**
+ * Ejecutor de la API de lectura asíncrona (ReadApiController).
+ *
+ * Las peticiones se aceptan en el hilo del servlet y se resuelven en un pool pequeño y acotado,
+ * del tamaño del pool de conexiones, con una cola limitada: en un pico (p. ej. todos los clientes
+ * reconectando tras un despliegue) los hilos del servlet quedan libres y el exceso recibe 503
+ * en lugar de quedarse bloqueado esperando una conexión.
+ *
+ * Se publica como Executor y se inyecta por su nombre: no es el ejecutor de @Async ni el de la
+ * asincronía de Spring MVC. El tiempo máximo de cada lectura lo aplica ReadApiController por petición,
+ * así que no afecta a otras respuestas asíncronas como GET /api/posts/stream.
+ */
+@Configuration
+public class AsyncReadConfig {
+
+    @Bean(name = "readExecutor")
+    public Executor readExecutor(@Value("${app.read.pool-size:8}") int poolSize,
+                                 @Value("${app.read.queue-capacity:1000}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("read-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.initialize();
+        return executor;
+    }
+}
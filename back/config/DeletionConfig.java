@@ -0,0 +1,29 @@
+package com.skill.websockets.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * Ejecutor de los borrados de posts con hilos grandes (ver PostDeletionService).
+ *
+ * Pocos hilos y cola acotada: cada borrado ya es un puñado de sentencias en bloque y no conviene que
+ * varios compitan por las mismas tablas. Si la cola se llena, la petición recibe 503 y puede reintentarse.
+ */
+@Configuration
+public class DeletionConfig {
+
+    @Bean(name = "deletionExecutor")
+    public ThreadPoolTaskExecutor deletionExecutor(@Value("${app.posts.delete.pool-size:2}") int poolSize,
+                                                   @Value("${app.posts.delete.queue-capacity:100}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("delete-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.initialize();
+        return executor;
+    }
+}
@@ -0,0 +1,13 @@
+package com.skill.websockets.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Habilita las tareas periódicas (@Scheduled) de la aplicación,
+ * como la reconciliación de reaction_counts.
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -0,0 +1,83 @@
+package com.skill.websockets.config;
+
+import com.skill.websockets.cache.CacheRegions;
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.util.OptionalLong;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Caché de segundo nivel de Hibernate (JCache con Caffeine) para User, ReactionType y Tag,
+ * además de la caché de consultas que usan findByNombreEtiqueta/findByNombreReaccion.
+ *
+ * Cada región se crea aquí con tamaño máximo y caducidad explícitos; Hibernate falla al arrancar
+ * si una entidad cacheada no tiene su región (missing_cache_strategy = fail).
+ * Solo se activa si hibernate-jcache y caffeine-jcache están en el classpath.
+ */
+@Configuration
+@ConditionalOnClass(name = {
+        "org.hibernate.cache.jcache.internal.JCacheRegionFactory",
+        "com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider"
+})
+@ConditionalOnProperty(name = "app.cache.second-level.enabled", havingValue = "true", matchIfMissing = true)
+public class SecondLevelCacheConfig {
+
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager(
+            @Value("${app.cache.second-level.users.maximum-size:10000}") long usersMaximumSize,
+            @Value("${app.cache.second-level.users.ttl-seconds:900}") long usersTtlSeconds,
+            @Value("${app.cache.second-level.reaction-types.maximum-size:100}") long reactionTypesMaximumSize,
+            @Value("${app.cache.second-level.tags.maximum-size:5000}") long tagsMaximumSize,
+            @Value("${app.cache.second-level.tags.ttl-seconds:3600}") long tagsTtlSeconds,
+            @Value("${app.cache.second-level.query-results.maximum-size:2000}") long queryResultsMaximumSize,
+            @Value("${app.cache.second-level.query-results.ttl-seconds:600}") long queryResultsTtlSeconds) {
+        CacheManager cacheManager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName()).getCacheManager();
+
+        createRegion(cacheManager, CacheRegions.USERS, usersMaximumSize, usersTtlSeconds);
+        // Los tipos de reacción son un catálogo fijo: sin caducidad
+        createRegion(cacheManager, CacheRegions.REACTION_TYPES, reactionTypesMaximumSize, 0);
+        createRegion(cacheManager, CacheRegions.TAGS, tagsMaximumSize, tagsTtlSeconds);
+        createRegion(cacheManager, CacheRegions.QUERY_RESULTS, queryResultsMaximumSize, queryResultsTtlSeconds);
+        // Las marcas de tiempo invalidan la caché de consultas: nunca deben desalojarse antes que sus resultados
+        createRegion(cacheManager, CacheRegions.UPDATE_TIMESTAMPS, 0, 0);
+
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheCustomizer(CacheManager hibernateCacheManager) {
+        return properties -> {
+            properties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, true);
+            properties.put(AvailableSettings.USE_QUERY_CACHE, true);
+            properties.put(AvailableSettings.CACHE_REGION_FACTORY, "jcache");
+            properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+            properties.put(ConfigSettings.MISSING_CACHE_STRATEGY, "fail");
+            properties.put(AvailableSettings.GENERATE_STATISTICS, true);
+        };
+    }
+
+    // maximumSize o ttlSeconds a 0 significan "sin límite"
+    private void createRegion(CacheManager cacheManager, String region, long maximumSize, long ttlSeconds) {
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        if (maximumSize > 0) {
+            configuration.setMaximumSize(OptionalLong.of(maximumSize));
+        }
+        if (ttlSeconds > 0) {
+            configuration.setExpireAfterWrite(OptionalLong.of(TimeUnit.SECONDS.toNanos(ttlSeconds)));
+        }
+        configuration.setStatisticsEnabled(true);
+        cacheManager.createCache(region, configuration);
+    }
+}
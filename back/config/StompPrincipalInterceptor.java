@@ -0,0 +1,41 @@
+package com.skill.websockets.config;
+
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+
+import java.security.Principal;
+
+/**
+ * Asocia la sesión STOMP al usuario indicado en la cabecera `userId` del frame CONNECT.
+ * Con ese principal funcionan los destinos de usuario (/user/queue/...): convertAndSendToUser(userId, ...)
+ * llega a todas las sesiones abiertas de ese usuario y a ninguna otra.
+ * Las sesiones sin userId siguen siendo anónimas y solo reciben los tópicos generales.
+ */
+public class StompPrincipalInterceptor implements ChannelInterceptor {
+
+    public static final String USER_ID_HEADER = "userId";
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+        if (accessor != null && StompCommand.CONNECT.equals(accessor.getCommand())) {
+            String userId = accessor.getFirstNativeHeader(USER_ID_HEADER);
+            if (userId != null && userId.matches("\\d+")) {
+                accessor.setUser(new StompPrincipal(userId));
+            }
+        }
+        return message;
+    }
+
+    // Principal mínimo: el nombre es el ID del usuario
+    public record StompPrincipal(String userId) implements Principal {
+        @Override
+        public String getName() {
+            return userId;
+        }
+    }
+}
@@ -1,18 +1,36 @@
 package com.skill.websockets.config; // Asegúrate de que el paquete sea el correcto
 
+import com.skill.websockets.ratelimit.WriteRateLimitInterceptor;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
 @Configuration
 public class WebConfig implements WebMvcConfigurer {
 
+    private final WriteRateLimitInterceptor writeRateLimitInterceptor;
+
+    @Autowired
+    public WebConfig(WriteRateLimitInterceptor writeRateLimitInterceptor) {
+        this.writeRateLimitInterceptor = writeRateLimitInterceptor;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        // Límites por usuario y admisión global de escrituras (429 antes de tocar la base de datos)
+        registry.addInterceptor(writeRateLimitInterceptor)
+                .addPathPatterns("/api/reactions/**", "/api/comments/**");
+    }
+
     @Override
     public void addCorsMappings(CorsRegistry registry) {
         registry.addMapping("/**") // Aplica CORS a todas las rutas de la API
                 .allowedOrigins("http://localhost:5173") // Permite solicitudes desde tu frontend
                 .allowedMethods("GET", "POST", "PUT", "DELETE", "OPTIONS") // Métodos HTTP permitidos
                 .allowedHeaders("*") // Permite todos los encabezados
+                .exposedHeaders("ETag", "Retry-After") // Permite al frontend leer el ETag de los posts y del feed, y cuándo reintentar tras un 429
                 .allowCredentials(true); // Permite el envío de credenciales (cookies, encabezados de autorización)
     }
 }
\ No newline at end of file
@@ -1,6 +1,7 @@
 package com.skill.websockets.config;
 
 import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
@@ -22,4 +23,10 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
         // Los clientes se conectarán directamente a ws://localhost:8080/ws
         registry.addEndpoint("/ws").setAllowedOriginPatterns("*");
     }
+
+    @Override
+    public void configureClientInboundChannel(ChannelRegistration registration) {
+        // Identifica al usuario de cada sesión para los destinos /user/queue/...
+        registration.interceptors(new StompPrincipalInterceptor());
+    }
 }
\ No newline at end of file
@@ -0,0 +1,65 @@
+package com.skill.websockets.controller;
+
+import com.skill.websockets.cache.CacheRegions;
+import com.skill.websockets.cache.CacheRegistry;
+import com.skill.websockets.cache.CacheStats;
+import com.skill.websockets.cache.HibernateRegionStats;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/cache")
+public class CacheController {
+
+    private final CacheRegistry cacheRegistry;
+    private final SessionFactory sessionFactory;
+
+    @Autowired
+    public CacheController(CacheRegistry cacheRegistry, EntityManagerFactory entityManagerFactory) {
+        this.cacheRegistry = cacheRegistry;
+        this.sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+    }
+
+    /**
+     * GET /api/cache/stats - Tamaño, aciertos, fallos y desalojos de cada caché en memoria
+     */
+    @GetMapping("/stats")
+    public ResponseEntity<List<CacheStats>> getStats() {
+        return ResponseEntity.ok(cacheRegistry.stats());
+    }
+
+    /**
+     * GET /api/cache/stats/hibernate - Tamaño, aciertos, fallos e inserciones de las regiones
+     * de la caché de segundo nivel. Lista vacía si la caché de segundo nivel no está activa.
+     */
+    @GetMapping("/stats/hibernate")
+    public ResponseEntity<List<HibernateRegionStats>> getHibernateStats() {
+        List<HibernateRegionStats> stats = new ArrayList<>();
+        if (!sessionFactory.getSessionFactoryOptions().isSecondLevelCacheEnabled()) {
+            return ResponseEntity.ok(stats);
+        }
+        Statistics statistics = sessionFactory.getStatistics();
+        for (String region : List.of(CacheRegions.USERS, CacheRegions.REACTION_TYPES, CacheRegions.TAGS)) {
+            CacheRegionStatistics regionStats = statistics.getDomainDataRegionStatistics(region);
+            stats.add(new HibernateRegionStats(region, regionStats.getElementCountInMemory(),
+                    regionStats.getHitCount(), regionStats.getMissCount(), regionStats.getPutCount()));
+        }
+        CacheRegionStatistics queryStats = statistics.getQueryRegionStatistics(CacheRegions.QUERY_RESULTS);
+        if (queryStats != null) {
+            stats.add(new HibernateRegionStats(CacheRegions.QUERY_RESULTS, queryStats.getElementCountInMemory(),
+                    queryStats.getHitCount(), queryStats.getMissCount(), queryStats.getPutCount()));
+        }
+        return ResponseEntity.ok(stats);
+    }
+}
@@ -0,0 +1,127 @@
+package com.skill.websockets.controller;
+
+import com.skill.websockets.dto.CommandAckDTO;
+import com.skill.websockets.dto.CommentCommandDTO;
+import com.skill.websockets.dto.ReactionCommandDTO;
+import com.skill.websockets.model.Comment;
+import com.skill.websockets.ratelimit.WriteAction;
+import com.skill.websockets.ratelimit.WriteRateLimiter;
+import com.skill.websockets.service.CommentService;
+import com.skill.websockets.service.IdempotencyStore;
+import com.skill.websockets.service.ReactionService;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.messaging.handler.annotation.MessageMapping;
+import org.springframework.messaging.simp.annotation.SendToUser;
+import org.springframework.stereotype.Controller;
+import jakarta.persistence.EntityNotFoundException;
+
+import java.security.Principal;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * Comandos de escritura por STOMP (SEND a /app/...), sobre la conexión que el cliente ya tiene abierta.
+ * Ejecutan la misma lógica que los endpoints REST, con el usuario de la sesión (StompPrincipalInterceptor),
+ * y se confirman con un CommandAckDTO en /user/queue/acks. Cada comando lleva un requestId:
+ * reenviarlo devuelve la confirmación original sin aplicarlo otra vez (IdempotencyStore).
+ */
+@Controller
+public class CommandController {
+
+    private static final Logger log = LoggerFactory.getLogger(CommandController.class);
+
+    private final ReactionService reactionService;
+    private final CommentService commentService;
+    private final IdempotencyStore idempotencyStore;
+    private final WriteRateLimiter writeRateLimiter;
+
+    @Autowired
+    public CommandController(ReactionService reactionService,
+                             CommentService commentService,
+                             IdempotencyStore idempotencyStore,
+                             WriteRateLimiter writeRateLimiter) {
+        this.reactionService = reactionService;
+        this.commentService = commentService;
+        this.idempotencyStore = idempotencyStore;
+        this.writeRateLimiter = writeRateLimiter;
+    }
+
+    // Alterna una reacción (mismo comportamiento que POST /api/reactions); result = reacción resultante o null
+    @MessageMapping("/reactions/toggle")
+    @SendToUser(destinations = "/queue/acks", broadcast = false)
+    public CommandAckDTO toggleReaction(ReactionCommandDTO command, Principal principal) {
+        if (command.getTargetId() == null || command.getTargetType() == null || command.getReactionTypeId() == null) {
+            return CommandAckDTO.of(command.getRequestId(), CommandAckDTO.Status.INVALID, "Faltan targetId, targetType o reactionTypeId");
+        }
+        return run(principal, command.getRequestId(), WriteAction.REACTION,
+                userId -> reactionService.createOrUpdateReaction(userId, command.getTargetId(),
+                        command.getTargetType(), command.getReactionTypeId()),
+                (userId, reaction) -> reaction != null ? reaction.getReactionType().getNombreReaccion() : null);
+    }
+
+    // Crea un comentario o respuesta (mismo comportamiento que POST /api/comments); result = CommentDTO creado
+    @MessageMapping("/comments/create")
+    @SendToUser(destinations = "/queue/acks", broadcast = false)
+    public CommandAckDTO createComment(CommentCommandDTO command, Principal principal) {
+        if (command.getPostId() == null || command.getContenido() == null || command.getContenido().isBlank()) {
+            return CommandAckDTO.of(command.getRequestId(), CommandAckDTO.Status.INVALID, "Faltan postId o contenido");
+        }
+        return run(principal, command.getRequestId(), WriteAction.COMMENT, userId -> {
+            Comment comment = new Comment();
+            comment.setContenido(command.getContenido());
+            return commentService.createComment(comment, userId, command.getPostId(), command.getParentCommentId());
+        }, (userId, savedComment) -> commentService.getCommentById(savedComment.getId(), userId).orElse(null));
+    }
+
+    /**
+     * Usuario de la sesión -> idempotencia -> límite de escrituras -> escritura, traduciendo las excepciones a estados.
+     *
+     * Una vez confirmada la escritura la respuesta es siempre OK (y se guarda en IdempotencyStore): si falla
+     * la construcción del resultado, la confirmación va sin él en lugar de como ERROR, que el cliente
+     * reintentaría aplicando el comando dos veces.
+     */
+    private <T> CommandAckDTO run(Principal principal, String requestId, WriteAction action,
+                                  Function<Long, T> write, BiFunction<Long, T, Object> result) {
+        if (principal == null) {
+            return CommandAckDTO.of(requestId, CommandAckDTO.Status.UNAUTHORIZED, "La sesión no tiene usuario");
+        }
+        if (requestId == null || requestId.isBlank()) {
+            return CommandAckDTO.of(null, CommandAckDTO.Status.INVALID, "Falta requestId");
+        }
+        Long userId = Long.valueOf(principal.getName());
+
+        return idempotencyStore.execute(userId, requestId, () -> {
+            WriteRateLimiter.Decision decision = writeRateLimiter.tryAcquire(action, "u:" + userId);
+            if (!decision.allowed()) {
+                CommandAckDTO ack = CommandAckDTO.of(requestId, CommandAckDTO.Status.RATE_LIMITED, "Demasiadas escrituras seguidas");
+                ack.setRetryAfterSeconds(decision.retryAfterSeconds());
+                return ack;
+            }
+            T written;
+            try {
+                written = write.apply(userId);
+            } catch (EntityNotFoundException | IllegalArgumentException e) {
+                return CommandAckDTO.of(requestId, CommandAckDTO.Status.INVALID, e.getMessage());
+            } catch (DataIntegrityViolationException e) {
+                return CommandAckDTO.of(requestId, CommandAckDTO.Status.CONFLICT, "Conflicto al guardar");
+            } catch (RuntimeException e) {
+                log.warn("Error ejecutando el comando {} del usuario {}", requestId, userId, e);
+                return CommandAckDTO.of(requestId, CommandAckDTO.Status.ERROR, "Error inesperado");
+            } finally {
+                writeRateLimiter.release();
+            }
+
+            CommandAckDTO ack = CommandAckDTO.of(requestId, CommandAckDTO.Status.OK, null);
+            try {
+                ack.setResult(result.apply(userId, written));
+            } catch (RuntimeException e) {
+                log.warn("Comando {} del usuario {} aplicado, pero no se pudo construir su resultado", requestId, userId, e);
+            }
+            return ack;
+        });
+    }
+}
@@ -3,6 +3,7 @@ package com.skill.websockets.controller;
 
 import com.skill.websockets.model.Comment; // Sigue siendo necesario para @RequestBody en create
 import com.skill.websockets.dto.CommentDTO; // Importa CommentDTO
+import com.skill.websockets.dto.CursorPageDTO;
 import com.skill.websockets.service.CommentService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
@@ -10,7 +11,6 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import jakarta.persistence.EntityNotFoundException;
 
-import java.util.List;
 import java.util.Optional;
 
 @RestController
@@ -40,33 +40,43 @@ public class CommentController {
             CommentDTO savedCommentDTO = commentService.getCommentById(savedComment.getId(), userId)
                     .orElseThrow(() -> new RuntimeException("Error al recuperar el CommentDTO después de la creación"));
             return new ResponseEntity<>(savedCommentDTO, HttpStatus.CREATED);
-        } catch (EntityNotFoundException e) {
+        } catch (EntityNotFoundException | IllegalArgumentException e) {
+            // IllegalArgumentException: la respuesta superaría la profundidad máxima del hilo
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(null);
         }
     }
 
-    // GET: Obtener comentarios de un post específico (ahora devuelve DTOs)
-    // currentUserId es opcional para obtener la reacción del usuario y respuestas recursivas
+    // GET: Obtener comentarios de un post específico, paginados por cursor (orden fechaComentario, id)
+    // Cada página trae comentarios de nivel superior con todas sus respuestas; nextCursor pide la siguiente.
+    // currentUserId es opcional para obtener la reacción del usuario
     @GetMapping("/byPost/{postId}")
-    public ResponseEntity<List<CommentDTO>> getCommentsByPostId(@PathVariable Long postId,
-                                                                @RequestParam(value = "currentUserId", required = false) Long currentUserId) {
-        List<CommentDTO> comments = commentService.getCommentsByPostId(postId, currentUserId);
-        if (comments.isEmpty()) {
-            return ResponseEntity.ok(List.of()); // Devuelve lista vacía en lugar de 404 si no hay comentarios
+    public ResponseEntity<CursorPageDTO<CommentDTO>> getCommentsByPostId(@PathVariable Long postId,
+                                                                        @RequestParam(value = "cursor", required = false) String cursor,
+                                                                        @RequestParam(value = "limit", defaultValue = "20") int limit,
+                                                                        @RequestParam(value = "currentUserId", required = false) Long currentUserId) {
+        try {
+            // Devuelve una página vacía en lugar de 404 si no hay comentarios
+            return ResponseEntity.ok(commentService.getCommentsPageByPostId(postId, cursor, limit, currentUserId));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
         }
-        return ResponseEntity.ok(comments);
     }
 
-    // GET: Obtener respuestas a un comentario específico (ahora devuelve DTOs)
-    // currentUserId es opcional para obtener la reacción del usuario y respuestas recursivas
+    // GET: Obtener respuestas a un comentario específico, paginadas por cursor (orden fechaComentario, id)
+    // depth indica cuántos niveles de respuestas se incluyen por debajo del comentario (1 = solo las directas)
+    // currentUserId es opcional para obtener la reacción del usuario
     @GetMapping("/byParent/{parentCommentId}")
-    public ResponseEntity<List<CommentDTO>> getRepliesByParentCommentId(@PathVariable Long parentCommentId,
-                                                                        @RequestParam(value = "currentUserId", required = false) Long currentUserId) {
+    public ResponseEntity<CursorPageDTO<CommentDTO>> getRepliesByParentCommentId(@PathVariable Long parentCommentId,
+                                                                                @RequestParam(value = "cursor", required = false) String cursor,
+                                                                                @RequestParam(value = "limit", defaultValue = "20") int limit,
+                                                                                @RequestParam(value = "depth", defaultValue = "1") int depth,
+                                                                                @RequestParam(value = "currentUserId", required = false) Long currentUserId) {
         try {
-            List<CommentDTO> replies = commentService.getRepliesByParentCommentId(parentCommentId, currentUserId);
-            return ResponseEntity.ok(replies);
+            return ResponseEntity.ok(commentService.getRepliesByParentCommentId(parentCommentId, cursor, limit, depth, currentUserId));
         } catch (EntityNotFoundException e) {
             return ResponseEntity.notFound().build();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
         }
     }
 
@@ -0,0 +1,61 @@
+package com.skill.websockets.controller;
+
+import com.skill.websockets.dto.CursorPageDTO;
+import com.skill.websockets.dto.NotificationDTO;
+import com.skill.websockets.service.NotificationService;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/notifications")
+public class NotificationController {
+
+    private final NotificationService notificationService;
+
+    @Autowired
+    public NotificationController(NotificationService notificationService) {
+        this.notificationService = notificationService;
+    }
+
+    /**
+     * GET /api/notifications?userId={userId}&cursor={cursor}&limit={limit} - Historial de la bandeja del usuario,
+     * de la notificación más reciente a la más antigua. Como mucho 50 por página.
+     */
+    @GetMapping
+    public ResponseEntity<CursorPageDTO<NotificationDTO>> getNotifications(@RequestParam("userId") Long userId,
+                                                                         @RequestParam(value = "cursor", required = false) String cursor,
+                                                                         @RequestParam(value = "limit", defaultValue = "20") int limit) {
+        if (limit < 1) {
+            return ResponseEntity.badRequest().build();
+        }
+        try {
+            return ResponseEntity.ok(notificationService.getNotifications(userId, cursor,
+                    Math.min(limit, NotificationService.MAX_PAGE_SIZE)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * GET /api/notifications/unread-count?userId={userId} - Número de notificaciones sin leer
+     */
+    @GetMapping("/unread-count")
+    public ResponseEntity<Map<String, Integer>> getUnreadCount(@RequestParam("userId") Long userId) {
+        return ResponseEntity.ok(Map.of("unread", notificationService.getUnreadCount(userId)));
+    }
+
+    /**
+     * POST /api/notifications/read?userId={userId}&upToId={upToId} - Marca como leídas las notificaciones
+     * hasta upToId (todas si no se indica)
+     */
+    @PostMapping("/read")
+    public ResponseEntity<Void> markRead(@RequestParam("userId") Long userId,
+                                         @RequestParam(value = "upToId", required = false) Long upToId) {
+        notificationService.markRead(userId, upToId);
+        return ResponseEntity.noContent().build();
+    }
+}
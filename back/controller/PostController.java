@@ -2,25 +2,48 @@ package com.skill.websockets.controller;
 
 import com.skill.websockets.model.Post; // Sigue siendo necesario para @RequestBody en create/update
 import com.skill.websockets.dto.PostDTO; // Importa PostDTO
+import com.skill.websockets.dto.CursorPageDTO;
+import com.skill.websockets.service.PostDeletionService;
 import com.skill.websockets.service.PostService; // Importa PostService
+import com.skill.websockets.service.PostVersionTracker;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import jakarta.persistence.EntityNotFoundException;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.RejectedExecutionException;
 
 @RestController
 @RequestMapping("/api/posts")
 public class PostController {
 
     private final PostService postService;
+    private final PostDeletionService postDeletionService;
+    private final PostVersionTracker postVersionTracker;
+    private final ObjectMapper objectMapper;
+
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+    private static final int MAX_TRENDING_PAGE_SIZE = 100;
+    private static final int MAX_SEARCH_PAGE_SIZE = 50;
 
     @Autowired
-    public PostController(PostService postService) {
+    public PostController(PostService postService, PostDeletionService postDeletionService,
+                          PostVersionTracker postVersionTracker, ObjectMapper objectMapper) {
         this.postService = postService;
+        this.postDeletionService = postDeletionService;
+        this.postVersionTracker = postVersionTracker;
+        this.objectMapper = objectMapper;
     }
 
     /**
@@ -28,29 +51,129 @@ public class PostController {
      * Permite especificar un currentUserId para personalizar las reacciones del usuario.
      *
      * @param currentUserId ID del usuario actual (opcional), para obtener su reacción a cada post.
-     * @return ResponseEntity con una lista de PostDTOs.
+     * @param includeComments Si es false, cada post lleva solo commentCount y los comentarios se piden aparte.
+     * @param ifNoneMatch ETag de la copia que ya tiene el cliente (opcional).
+     * @return ResponseEntity con una lista de PostDTOs, o 304 si la copia del cliente sigue vigente.
      */
     @GetMapping
-    public ResponseEntity<List<PostDTO>> getAllPosts(@RequestParam(value = "currentUserId", required = false) Long currentUserId) {
+    public ResponseEntity<List<PostDTO>> getAllPosts(@RequestParam(value = "currentUserId", required = false) Long currentUserId,
+                                                     @RequestParam(value = "includeComments", defaultValue = "true") boolean includeComments,
+                                                     @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        // La versión se lee antes de construir el feed: si cambia mientras tanto, el cliente solo pedirá de nuevo
+        String etag = "\"feed-" + postVersionTracker.getFeedVersion() + viewerSuffix(currentUserId) + "-c" + (includeComments ? 1 : 0) + "\"";
+        if (etagMatches(ifNoneMatch, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+
         // El PostService ya devuelve List<PostDTO> y maneja la conversión y reacciones.
-        List<PostDTO> posts = postService.getAllPosts(currentUserId);
+        List<PostDTO> posts = postService.getAllPosts(currentUserId, includeComments);
+        return ResponseEntity.ok().eTag(etag).cacheControl(CacheControl.noCache()).body(posts);
+    }
+
+    /**
+     * Exporta todos los posts como NDJSON (un PostDTO por línea), escribiendo y vaciando el buffer
+     * a medida que cada post está listo. A diferencia de GET /api/posts no construye la lista completa
+     * en memoria, así que sirve para feeds grandes.
+     *
+     * @param currentUserId ID del usuario actual (opcional), para obtener su reacción a cada post.
+     * @param includeComments Si es false, cada post lleva solo commentCount.
+     * @return ResponseEntity con el cuerpo en streaming.
+     */
+    @GetMapping(value = "/stream", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> streamAllPosts(@RequestParam(value = "currentUserId", required = false) Long currentUserId,
+                                                                @RequestParam(value = "includeComments", defaultValue = "true") boolean includeComments) {
+        StreamingResponseBody body = outputStream ->
+                postService.streamAllPosts(currentUserId, includeComments, post -> {
+                    try {
+                        outputStream.write(objectMapper.writeValueAsBytes(post));
+                        outputStream.write('\n');
+                        outputStream.flush();
+                    } catch (JsonProcessingException e) {
+                        throw new IllegalStateException("No se pudo serializar el post " + post.getId(), e);
+                    } catch (IOException e) {
+                        // El cliente cerró la conexión: se corta el recorrido y se cierra el cursor
+                        throw new UncheckedIOException(e);
+                    }
+                });
+        return ResponseEntity.ok().contentType(NDJSON).body(body);
+    }
+
+    /**
+     * Obtiene los posts en tendencia (interacciones recientes ponderadas por antigüedad), de mayor a menor puntuación.
+     * Cada post lleva solo commentCount; los comentarios se piden aparte.
+     *
+     * @param offset Posición del primer post de la página.
+     * @param limit Número máximo de posts (hasta 100).
+     * @param currentUserId ID del usuario actual (opcional), para obtener su reacción a cada post.
+     * @return ResponseEntity con la página de PostDTOs, o 400 si la paginación no es válida.
+     */
+    @GetMapping("/trending")
+    public ResponseEntity<List<PostDTO>> getTrendingPosts(@RequestParam(value = "offset", defaultValue = "0") int offset,
+                                                          @RequestParam(value = "limit", defaultValue = "20") int limit,
+                                                          @RequestParam(value = "currentUserId", required = false) Long currentUserId) {
+        if (offset < 0 || limit < 1) {
+            return ResponseEntity.badRequest().build();
+        }
+        List<PostDTO> posts = postService.getTrendingPosts(offset, Math.min(limit, MAX_TRENDING_PAGE_SIZE), currentUserId);
         return ResponseEntity.ok(posts);
     }
 
+    /**
+     * Busca posts por texto en título, contenido y comentarios (sin distinguir mayúsculas ni tildes),
+     * ordenados por relevancia. Cada post lleva solo commentCount.
+     *
+     * @param query Texto a buscar.
+     * @param cursor Cursor devuelto en la página anterior (opcional).
+     * @param limit Número máximo de posts (hasta 50).
+     * @param currentUserId ID del usuario actual (opcional), para obtener su reacción a cada post.
+     * @return ResponseEntity con la página de resultados, o 400 si la consulta o el cursor no son válidos.
+     */
+    @GetMapping("/search")
+    public ResponseEntity<CursorPageDTO<PostDTO>> searchPosts(@RequestParam("q") String query,
+                                                              @RequestParam(value = "cursor", required = false) String cursor,
+                                                              @RequestParam(value = "limit", defaultValue = "20") int limit,
+                                                              @RequestParam(value = "currentUserId", required = false) Long currentUserId) {
+        if (query.isBlank() || limit < 1) {
+            return ResponseEntity.badRequest().build();
+        }
+        try {
+            return ResponseEntity.ok(postService.searchPosts(query, cursor, Math.min(limit, MAX_SEARCH_PAGE_SIZE), currentUserId));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     /**
      * Obtiene un post específico por su ID, convertido a PostDTO.
      * Permite especificar un currentUserId para personalizar la reacción del usuario.
      *
      * @param id ID del post.
      * @param currentUserId ID del usuario actual (opcional), para obtener su reacción al post.
-     * @return ResponseEntity con el PostDTO si se encuentra.
+     * @param ifNoneMatch ETag de la copia que ya tiene el cliente (opcional).
+     * @return ResponseEntity con el PostDTO si se encuentra, o 304 si la copia del cliente sigue vigente.
      */
     @GetMapping("/{id}")
     public ResponseEntity<PostDTO> getPostById(@PathVariable Long id,
-                                               @RequestParam(value = "currentUserId", required = false) Long currentUserId) {
-        // El PostService ya devuelve Optional<PostDTO>
+                                               @RequestParam(value = "currentUserId", required = false) Long currentUserId,
+                                               @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        // Comprobación barata de la versión antes de construir nada
+        if (ifNoneMatch != null) {
+            Optional<Long> version = postVersionTracker.getPostVersion(id);
+            if (version.isEmpty()) {
+                return ResponseEntity.notFound().build();
+            }
+            String currentEtag = postEtag(id, version.get(), currentUserId);
+            if (etagMatches(ifNoneMatch, currentEtag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(currentEtag).build();
+            }
+        }
+
+        // El PostService ya devuelve Optional<PostDTO>. El ETag sale de la versión con la que se construyó el DTO.
         Optional<PostDTO> post = postService.getPostById(id, currentUserId);
-        return post.map(ResponseEntity::ok)
+        return post.map(dto -> ResponseEntity.ok()
+                        .eTag(postEtag(id, dto.getVersion(), currentUserId))
+                        .cacheControl(CacheControl.noCache())
+                        .body(dto))
                 .orElse(ResponseEntity.notFound().build());
     }
 
@@ -129,18 +252,51 @@ public class PostController {
     }
 
     /**
-     * Elimina un post por su ID.
+     * Elimina un post por su ID, con sus comentarios y todas las reacciones.
      *
      * @param id ID del post a eliminar.
-     * @return ResponseEntity con estado 204 No Content si la eliminación fue exitosa.
+     * @return 204 No Content si ya se eliminó, 202 Accepted si el hilo es grande y se elimina en segundo plano
+     *         (el final se anuncia por /topic/posts/deleted) o 503 si la cola de borrados está llena.
      */
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deletePost(@PathVariable Long id) {
         try {
-            postService.deletePost(id);
-            return ResponseEntity.noContent().build();
+            PostDeletionService.Outcome outcome = postDeletionService.deletePost(id);
+            return outcome == PostDeletionService.Outcome.SCHEDULED
+                    ? ResponseEntity.accepted().build()
+                    : ResponseEntity.noContent().build();
         } catch (EntityNotFoundException e) {
             return ResponseEntity.notFound().build();
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+    }
+
+    // ========== ETAGS ==========
+
+    static String postEtag(Long postId, Long version, Long currentUserId) {
+        return "\"post-" + postId + "-v" + version + viewerSuffix(currentUserId) + "\"";
+    }
+
+    // La respuesta incluye la reacción del usuario actual, así que el ETag depende de él
+    static String viewerSuffix(Long currentUserId) {
+        return currentUserId != null ? "-u" + currentUserId : "-anon";
+    }
+
+    // Compara con la cabecera If-None-Match, que puede traer varios ETags, "*" o prefijos débiles (W/)
+    static boolean etagMatches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || ifNoneMatch.isBlank()) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String trimmed = candidate.trim();
+            if (trimmed.startsWith("W/")) {
+                trimmed = trimmed.substring(2);
+            }
+            if (trimmed.equals("*") || trimmed.equals(etag)) {
+                return true;
+            }
         }
+        return false;
     }
-}
\ No newline at end of file
+}
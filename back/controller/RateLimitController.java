@@ -0,0 +1,30 @@
+package com.skill.websockets.controller;
+
+import com.skill.websockets.ratelimit.RateLimitStats;
+import com.skill.websockets.ratelimit.WriteRateLimiter;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/rate-limit")
+public class RateLimitController {
+
+    private final WriteRateLimiter writeRateLimiter;
+
+    @Autowired
+    public RateLimitController(WriteRateLimiter writeRateLimiter) {
+        this.writeRateLimiter = writeRateLimiter;
+    }
+
+    /**
+     * GET /api/rate-limit/stats - Escrituras admitidas y rechazadas (por usuario, tasa global o exceso de simultáneas)
+     */
+    @GetMapping("/stats")
+    public ResponseEntity<RateLimitStats> getStats() {
+        return ResponseEntity.ok(writeRateLimiter.stats());
+    }
+}
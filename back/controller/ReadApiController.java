@@ -0,0 +1,142 @@
+package com.skill.websockets.controller;
+
+import com.skill.websockets.dto.PostDTO;
+import com.skill.websockets.model.TargetType;
+import com.skill.websockets.service.PostService;
+import com.skill.websockets.service.PostVersionTracker;
+import com.skill.websockets.service.ReactionService;
+import com.skill.websockets.service.ReadCoalescer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * API de lectura asíncrona para los endpoints más consultados (feed, post, conteos y reacciones del usuario).
+ *
+ * Devuelve los mismos datos que PostController/ReactionController, pero cada petición libera el hilo
+ * del servlet y se resuelve en el readExecutor (ver AsyncReadConfig). Las peticiones idénticas simultáneas
+ * se calculan una sola vez (ReadCoalescer) y, si el ejecutor está saturado o la lectura supera
+ * app.read.timeout-ms, se responde 503.
+ */
+@RestController
+@RequestMapping("/api/read")
+public class ReadApiController {
+
+    // Máximo de targets por consulta de conteos o reacciones
+    private static final int MAX_TARGETS = 500;
+
+    private final PostService postService;
+    private final ReactionService reactionService;
+    private final PostVersionTracker postVersionTracker;
+    private final ReadCoalescer readCoalescer;
+    private final long timeoutMs;
+
+    @Autowired
+    public ReadApiController(PostService postService,
+                             ReactionService reactionService,
+                             PostVersionTracker postVersionTracker,
+                             ReadCoalescer readCoalescer,
+                             @Value("${app.read.timeout-ms:10000}") long timeoutMs) {
+        this.postService = postService;
+        this.reactionService = reactionService;
+        this.postVersionTracker = postVersionTracker;
+        this.readCoalescer = readCoalescer;
+        this.timeoutMs = timeoutMs;
+    }
+
+    /**
+     * Feed completo, con el mismo ETag que GET /api/posts: si la copia del cliente sigue vigente
+     * se responde 304 sin pasar por el ejecutor.
+     */
+    @GetMapping("/posts")
+    public CompletableFuture<ResponseEntity<List<PostDTO>>> getAllPosts(@RequestParam(value = "currentUserId", required = false) Long currentUserId,
+                                                                        @RequestParam(value = "includeComments", defaultValue = "true") boolean includeComments,
+                                                                        @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        String feedVersion = postVersionTracker.getFeedVersion();
+        String etag = "\"feed-" + feedVersion + PostController.viewerSuffix(currentUserId) + "-c" + (includeComments ? 1 : 0) + "\"";
+        if (PostController.etagMatches(ifNoneMatch, etag)) {
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build());
+        }
+
+        // La versión forma parte de la clave: una petición no se une a un cálculo empezado antes del último cambio
+        String key = "feed|" + feedVersion + "|" + currentUserId + "|" + includeComments;
+        return handle(readCoalescer.submit(key, () -> postService.getAllPosts(currentUserId, includeComments))
+                .thenApply(posts -> ResponseEntity.ok().eTag(etag).cacheControl(CacheControl.noCache()).body(posts)));
+    }
+
+    @GetMapping("/posts/{id}")
+    public CompletableFuture<ResponseEntity<PostDTO>> getPostById(@PathVariable Long id,
+                                                                  @RequestParam(value = "currentUserId", required = false) Long currentUserId,
+                                                                  @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        Optional<Long> version = postVersionTracker.getPostVersion(id);
+        if (ifNoneMatch != null) {
+            if (version.isEmpty()) {
+                return CompletableFuture.completedFuture(ResponseEntity.notFound().build());
+            }
+            String currentEtag = PostController.postEtag(id, version.get(), currentUserId);
+            if (PostController.etagMatches(ifNoneMatch, currentEtag)) {
+                return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(currentEtag).build());
+            }
+        }
+
+        // Como en el feed, la versión del post evita unirse a una lectura empezada antes de su último cambio
+        String key = "post|" + id + "|" + version.orElse(null) + "|" + currentUserId;
+        return handle(readCoalescer.submit(key, () -> postService.getPostById(id, currentUserId))
+                .thenApply(post -> post.map(dto -> ResponseEntity.ok()
+                                .eTag(PostController.postEtag(id, dto.getVersion(), currentUserId))
+                                .cacheControl(CacheControl.noCache())
+                                .body(dto))
+                        .orElse(ResponseEntity.notFound().build())));
+    }
+
+    // GET: Conteos de reacciones de varios targets del mismo tipo (targetId -> tipo -> conteo)
+    @GetMapping("/reactions/counts")
+    public CompletableFuture<ResponseEntity<Map<Long, Map<String, Long>>>> getReactionCounts(@RequestParam List<Long> targetIds,
+                                                                                             @RequestParam TargetType targetType) {
+        if (targetIds.isEmpty() || targetIds.size() > MAX_TARGETS) {
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().build());
+        }
+        String key = "counts|" + targetType + "|" + new TreeSet<>(targetIds);
+        return handle(readCoalescer.submit(key, () -> reactionService.getReactionsCountForTargets(targetIds, targetType))
+                .thenApply(ResponseEntity::ok));
+    }
+
+    // GET: Reacciones de un usuario a varios targets del mismo tipo (los que no tienen reacción no aparecen)
+    @GetMapping("/reactions/user")
+    public CompletableFuture<ResponseEntity<Map<Long, String>>> getUserReactions(@RequestParam Long userId,
+                                                                                 @RequestParam List<Long> targetIds,
+                                                                                 @RequestParam TargetType targetType) {
+        if (targetIds.isEmpty() || targetIds.size() > MAX_TARGETS) {
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().build());
+        }
+        String key = "user-reactions|" + userId + "|" + targetType + "|" + new TreeSet<>(targetIds);
+        return handle(readCoalescer.submit(key, () -> reactionService.getUserReactionsForTargets(userId, targetIds, targetType))
+                .thenApply(ResponseEntity::ok));
+    }
+
+    // Ejecutor saturado o lectura demasiado lenta -> 503 (el cliente puede reintentar); cualquier otro error -> 500.
+    // El límite de tiempo se aplica al futuro de esta petición, no al cálculo compartido del ReadCoalescer.
+    private <T> CompletableFuture<ResponseEntity<T>> handle(CompletableFuture<ResponseEntity<T>> response) {
+        return response.orTimeout(timeoutMs, TimeUnit.MILLISECONDS).exceptionally(e -> {
+            Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+            if (cause instanceof TaskRejectedException || cause instanceof TimeoutException) {
+                return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+            }
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        });
+    }
+}
@@ -5,6 +5,10 @@ import com.skill.websockets.model.Post;
 import com.skill.websockets.service.TagService;
 import com.skill.websockets.dto.PostDTO;
 import com.skill.websockets.service.PostService;
+import com.skill.websockets.dto.TagSuggestionDTO;
+import com.skill.websockets.dto.TagUsageDTO;
+import com.skill.websockets.service.TagStatisticsService;
+import com.skill.websockets.search.TagAutocompleteService;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
@@ -21,11 +25,18 @@ public class TagController {
 
     private final TagService tagService;
     private final PostService postService;
+    private final TagAutocompleteService tagAutocompleteService;
+    private final TagStatisticsService tagStatisticsService;
+
+    private static final int MAX_POPULAR_PAGE_SIZE = 100;
 
     @Autowired
-    public TagController(TagService tagService, PostService postService) {
+    public TagController(TagService tagService, PostService postService, TagAutocompleteService tagAutocompleteService,
+                         TagStatisticsService tagStatisticsService) {
         this.tagService = tagService;
         this.postService = postService;
+        this.tagAutocompleteService = tagAutocompleteService;
+        this.tagStatisticsService = tagStatisticsService;
     }
 
     // ========== ENDPOINTS PARA TAGS ==========
@@ -63,6 +74,47 @@ public class TagController {
                 .orElse(ResponseEntity.notFound().build());
     }
 
+    /**
+     * GET /api/tags/autocomplete?prefix={prefix}&limit={limit} - Etiquetas que empiezan por el prefijo
+     * (sin distinguir mayúsculas ni tildes), las más usadas primero. Como mucho 20.
+     */
+    @GetMapping("/tags/autocomplete")
+    public ResponseEntity<List<TagSuggestionDTO>> autocompleteTags(@RequestParam String prefix,
+                                                                   @RequestParam(defaultValue = "10") int limit) {
+        if (limit < 1) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(tagAutocompleteService.suggest(prefix, limit));
+    }
+
+    /**
+     * GET /api/tags/popular?offset={offset}&limit={limit} - Etiquetas de más a menos usada, con su número de posts
+     */
+    @GetMapping("/tags/popular")
+    public ResponseEntity<List<TagUsageDTO>> getPopularTags(@RequestParam(defaultValue = "0") int offset,
+                                                            @RequestParam(defaultValue = "20") int limit) {
+        if (offset < 0 || limit < 1) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(tagStatisticsService.getPopularTags(offset, Math.min(limit, MAX_POPULAR_PAGE_SIZE)));
+    }
+
+    /**
+     * GET /api/tags/{id}/related?limit={limit} - Etiquetas que más aparecen junto a esta, con el número de posts
+     * que comparten. Como mucho 20.
+     */
+    @GetMapping("/tags/{id}/related")
+    public ResponseEntity<List<TagUsageDTO>> getRelatedTags(@PathVariable Long id,
+                                                            @RequestParam(defaultValue = "10") int limit) {
+        if (limit < 1) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (!tagStatisticsService.hasTag(id)) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(tagStatisticsService.getRelatedTags(id, limit));
+    }
+
     /**
      * POST /api/tags - Crea una nueva etiqueta
      * Body: { "nombreEtiqueta": "nueva-etiqueta" }
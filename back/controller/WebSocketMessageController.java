@@ -1,10 +1,17 @@
 package com.skill.websockets.controller;
 
 import com.skill.websockets.dto.CommentDTO; // Asegúrate de que esta importación sea correcta
+import com.skill.websockets.dto.NotificationDTO;
+import com.skill.websockets.dto.PostDeletedNotificationDTO;
 import com.skill.websockets.dto.ReactionNotificationDTO; // ¡NUEVA IMPORTACIÓN: Tu DTO de notificación de reacción!
+import com.skill.websockets.dto.ReplayRequestDTO;
+import com.skill.websockets.dto.ReplayResponseDTO;
 import com.skill.websockets.model.TargetType; // Asegúrate de que esta importación sea correcta
+import com.skill.websockets.service.EventReplayBuffer;
 
+import org.springframework.messaging.handler.annotation.MessageMapping;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.annotation.SendToUser;
 import org.springframework.stereotype.Controller;
 import org.springframework.beans.factory.annotation.Autowired;
 
@@ -13,11 +20,36 @@ import java.util.Map;
 @Controller
 public class WebSocketMessageController {
 
+    // Cabeceras STOMP de cada evento: secuencia dentro del destino y epoch del buffer de reenvío
+    public static final String SEQ_HEADER = "seq";
+    public static final String EPOCH_HEADER = "epoch";
+
     private final SimpMessagingTemplate messagingTemplate;
+    private final EventReplayBuffer eventReplayBuffer;
 
     @Autowired
-    public WebSocketMessageController(SimpMessagingTemplate messagingTemplate) {
+    public WebSocketMessageController(SimpMessagingTemplate messagingTemplate, EventReplayBuffer eventReplayBuffer) {
         this.messagingTemplate = messagingTemplate;
+        this.eventReplayBuffer = eventReplayBuffer;
+    }
+
+    /**
+     * Reenvía a un cliente que reconecta los eventos publicados desde las secuencias que indica.
+     * Si alguno ya salió del buffer (o el servidor se reinició) responde resync = true y el cliente recarga.
+     */
+    @MessageMapping("/events/replay")
+    @SendToUser(destinations = "/queue/replay", broadcast = false)
+    public ReplayResponseDTO replayEvents(ReplayRequestDTO request) {
+        Map<String, Long> lastSeq = request.getLastSeq() != null ? request.getLastSeq() : Map.of();
+        EventReplayBuffer.Replay replay = eventReplayBuffer.replaySince(request.getEpoch(), lastSeq);
+        return new ReplayResponseDTO(eventReplayBuffer.getEpoch(), replay.resync(), replay.events(), replay.latestSeq());
+    }
+
+    // Publica un evento numerado y lo guarda para posibles reenvíos
+    private void publish(String destination, Object payload) {
+        eventReplayBuffer.append(destination, payload, seq ->
+                messagingTemplate.convertAndSend(destination, payload,
+                        Map.of(SEQ_HEADER, String.valueOf(seq), EPOCH_HEADER, eventReplayBuffer.getEpoch())));
     }
 
     /**
@@ -32,34 +64,63 @@ public class WebSocketMessageController {
         // Revisar si tu frontend se suscribe a /topic/comments/new como en usePosts.ts
         // Si tu frontend se suscribe a '/topic/comments/new', entonces el destino debería ser ese:
         String destination = "/topic/comments/new"; // Revisa esto con la suscripción real de tu frontend
-        messagingTemplate.convertAndSend(destination, commentDTO);
+        publish(destination, commentDTO);
     }
 
     /**
      * Notifica a los suscriptores sobre un cambio en las reacciones de un post o comentario.
-     * CAMBIO IMPORTANTE: Ya no enviamos userReaction específica, solo los conteos generales.
-     * Cada cliente deberá consultar su propia reacción individualmente.
+     * El tópico general solo lleva los conteos: la reacción de los demás usuarios no cambia, así que no
+     * necesitan consultar nada. El usuario que reaccionó recibe además su propio estado por
+     * /user/queue/reactions (en todas sus sesiones), con userReaction ya resuelto.
      *
      * @param targetId      El ID del post o comentario afectado (Long).
      * @param targetType    El tipo de objetivo (POST o COMMENT).
      * @param reactionCounts Un mapa con los conteos de cada tipo de reacción.
+     * @param actorUserId   El usuario que reaccionó.
+     * @param actorReaction Su reacción tras el cambio, o null si la quitó.
      */
-    public void notifyReactionChange(Long targetId, TargetType targetType, Map<String, Long> reactionCounts) {
+    public void notifyReactionChange(Long targetId, TargetType targetType, Map<String, Long> reactionCounts,
+                                     Long actorUserId, String actorReaction) {
         // Definimos un tópico general para todas las notificaciones de reacciones.
         // Esto simplifica la suscripción en el frontend, que solo necesita escuchar un canal.
         String destination = "/topic/reactions/new"; // Tópico general
 
-        // Creamos una instancia de nuestro DTO para enviar la notificación
-        // CAMBIO: userReaction ahora siempre es null porque cada cliente debe consultar la suya
+        // Creamos una instancia de nuestro DTO para enviar la notificación (sin userReaction: es de cada usuario)
         ReactionNotificationDTO notification = new ReactionNotificationDTO(
                 String.valueOf(targetId), // Convertimos Long a String, ya que el frontend espera String para IDs
                 targetType,
                 reactionCounts,
-                null // ¡CAMBIO CLAVE! Ya no enviamos userReaction específica
+                null
         );
 
         // Enviamos el DTO al tópico general de reacciones
-        messagingTemplate.convertAndSend(destination, notification);
+        publish(destination, notification);
+
+        // Estado personal, solo para el usuario que reaccionó
+        ReactionNotificationDTO ownNotification = new ReactionNotificationDTO(
+                String.valueOf(targetId), targetType, reactionCounts, actorReaction);
+        messagingTemplate.convertAndSendToUser(String.valueOf(actorUserId), "/queue/reactions", ownNotification);
+    }
+
+    /**
+     * Envía una notificación de su bandeja a un usuario concreto (todas sus sesiones), por /user/queue/notifications.
+     *
+     * @param recipientUserId El usuario destinatario.
+     * @param notification    La notificación ya construida.
+     */
+    public void notifyUser(Long recipientUserId, NotificationDTO notification) {
+        messagingTemplate.convertAndSendToUser(String.valueOf(recipientUserId), "/queue/notifications", notification);
+    }
+
+    /**
+     * Notifica a los suscriptores que un post se ha eliminado (con todos sus comentarios).
+     * Se publica numerado, así que un cliente que reconecta también recibe los borrados que se perdió.
+     *
+     * @param postId          El ID del post eliminado.
+     * @param deletedComments Los comentarios eliminados con él.
+     */
+    public void notifyPostDeleted(Long postId, int deletedComments) {
+        publish("/topic/posts/deleted", new PostDeletedNotificationDTO(String.valueOf(postId), deletedComments));
     }
 
     // Los métodos notifyUpdatedReactionToPost y notifyNewReactionToComment/notifyUpdatedReactionToComment
@@ -0,0 +1,52 @@
+package com.skill.websockets.datagen;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Acumula filas para un INSERT parametrizado y las envía en lotes JDBC de batchSize filas
+ * (un único executeBatch por lote). No es seguro para hilos: cada tarea del generador usa los suyos.
+ *
+ * Los `parents` son las inserciones de las tablas a las que apuntan sus claves foráneas: antes de enviar
+ * un lote se envían las filas pendientes de los padres, así que nunca llega una fila antes que su padre.
+ */
+final class BatchInserter {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String sql;
+    private final int batchSize;
+    private final List<BatchInserter> parents;
+    private final List<Object[]> pending;
+    private long inserted;
+
+    BatchInserter(JdbcTemplate jdbcTemplate, String sql, int batchSize, BatchInserter... parents) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.sql = sql;
+        this.batchSize = batchSize;
+        this.parents = List.of(parents);
+        this.pending = new ArrayList<>(batchSize);
+    }
+
+    void add(Object... row) {
+        pending.add(row);
+        if (pending.size() >= batchSize) {
+            flush();
+        }
+    }
+
+    void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        parents.forEach(BatchInserter::flush);
+        jdbcTemplate.batchUpdate(sql, pending);
+        inserted += pending.size();
+        pending.clear();
+    }
+
+    long inserted() {
+        return inserted;
+    }
+}
@@ -0,0 +1,60 @@
+package com.skill.websockets.datagen;
+
+import java.util.SplittableRandom;
+
+/**
+ * Texto sintético para posts, comentarios y etiquetas. Las palabras se eligen con una distribución de Zipf,
+ * así que unas pocas se repiten muchísimo y la mayoría aparece poco, como en texto real
+ * (lo que importa para el índice de búsqueda).
+ */
+final class SampleText {
+
+    static final String[] TAG_WORDS = {
+            "java", "spring", "react", "typescript", "websockets", "sql", "docker", "kubernetes", "rendimiento",
+            "seguridad", "testing", "arquitectura", "microservicios", "frontend", "backend", "devops", "cloud",
+            "datos", "python", "linux", "git", "api", "rest", "graphql", "cache", "concurrencia", "jvm", "kafka",
+            "redis", "postgres", "mysql", "diseño", "ux", "carrera", "empleo", "liderazgo", "producto", "startups",
+            "ia", "machine-learning", "algoritmos", "open-source", "mobile", "android", "ios", "css", "html",
+            "node", "go", "rust"
+    };
+
+    private static final String[] WORDS = {
+            "el", "proyecto", "equipo", "código", "sistema", "datos", "usuarios", "rendimiento", "servidor",
+            "consulta", "aplicación", "cliente", "error", "solución", "problema", "versión", "despliegue",
+            "mejora", "prueba", "diseño", "arquitectura", "servicio", "memoria", "latencia", "índice", "caché",
+            "base", "tabla", "hilo", "evento", "mensaje", "conexión", "petición", "respuesta", "experiencia",
+            "idea", "semana", "trabajo", "empresa", "producto", "cambio", "resultado", "migración", "pipeline",
+            "componente", "interfaz", "estado", "modelo", "métrica", "alerta", "incidente", "tráfico",
+            "escalado", "contenedor", "cola", "transacción", "bloqueo", "lectura", "escritura", "búsqueda"
+    };
+
+    private static final ZipfDistribution WORD_DISTRIBUTION = new ZipfDistribution(WORDS.length, 1.0);
+
+    private SampleText() {
+    }
+
+    static String sentence(SplittableRandom random, int minWords, int maxWords) {
+        int length = minWords + random.nextInt(maxWords - minWords + 1);
+        StringBuilder text = new StringBuilder(length * 10);
+        for (int i = 0; i < length; i++) {
+            String word = WORDS[WORD_DISTRIBUTION.sample(random)];
+            if (i == 0) {
+                text.append(Character.toUpperCase(word.charAt(0))).append(word, 1, word.length());
+            } else {
+                text.append(' ').append(word);
+            }
+        }
+        return text.append('.').toString();
+    }
+
+    static String paragraph(SplittableRandom random, int sentences) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < sentences; i++) {
+            if (i > 0) {
+                text.append(' ');
+            }
+            text.append(sentence(random, 6, 18));
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,481 @@
+package com.skill.websockets.datagen;
+
+import com.skill.websockets.model.TargetType;
+import com.skill.websockets.service.CommentPaths;
+import com.skill.websockets.service.ShardedReactionCounter;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Generador de datos sintéticos a escala de producción. Solo existe con el perfil "datagen"
+ * (p. ej. --spring.profiles.active=datagen) y se ejecuta una vez al arrancar, antes de ApplicationReadyEvent,
+ * así que los índices en memoria (tendencias, búsqueda, etiquetas) se construyen ya sobre los datos generados.
+ *
+ * Escribe directamente con INSERT por lotes JDBC, sin pasar por JPA ni por los servicios, y rellena también las
+ * columnas desnormalizadas (numero_comentarios, numero_respuestas, ruta/profundidad y reaction_counts en el shard 0).
+ * La actividad sigue distribuciones de Zipf: pocos usuarios publican y reaccionan mucho, pocos posts concentran
+ * casi todos los comentarios y reacciones, y las etiquetas más usadas dominan. Los hilos se anidan respondiendo
+ * a menudo al último comentario, lo que produce cadenas profundas (hasta max-depth).
+ *
+ * El trabajo se reparte en bloques de posts que se insertan en paralelo, cada uno en su transacción y con su
+ * propio generador aleatorio derivado de la semilla y del número de bloque: con la misma semilla, la misma
+ * configuración y la misma fecha final, el resultado es idéntico sea cual sea el orden de los hilos.
+ * Los IDs se asignan explícitamente a continuación de los existentes, así que se puede ejecutar sobre una base
+ * de datos con datos. En MySQL conviene añadir rewriteBatchedStatements=true a la URL de conexión.
+ */
+@Component
+@Profile("datagen")
+public class SyntheticDataGenerator implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(SyntheticDataGenerator.class);
+
+    private static final String[] DEFAULT_REACTION_TYPES = {
+            "Me gusta", "Me encanta", "Celebrar", "Interesante", "De acuerdo", "Hacer gracias"
+    };
+    // No es un hash válido: las cuentas generadas no permiten iniciar sesión
+    private static final String PASSWORD_HASH = "datagen-sin-credenciales";
+    private static final double REACTION_TYPE_EXPONENT = 1.5;
+    private static final long SECONDS_PER_DAY = 86_400;
+    private static final double COMMENT_GAP_SECONDS = 900;
+    private static final double REACTION_GAP_SECONDS = 6 * 3_600;
+
+    // Fases del generador: cada una deriva sus propias semillas
+    private static final long PLAN_PHASE = 1;
+    private static final long TAGS_PHASE = 2;
+    private static final long USERS_PHASE = 3;
+    private static final long POSTS_PHASE = 4;
+
+    private static final String INSERT_USER = "INSERT INTO usuarios (id, email, password_hash, nombre_usuario, rol, " +
+            "fecha_registro, cuenta_verificada) VALUES (?, ?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_TAG = "INSERT INTO etiquetas (id, nombre_etiqueta) VALUES (?, ?)";
+    private static final String INSERT_POST = "INSERT INTO posts (id, id_usuario, titulo, contenido, fecha_publicacion, " +
+            "numero_comentarios, version) VALUES (?, ?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_POST_TAG = "INSERT INTO post_etiquetas (id_post, id_etiqueta) VALUES (?, ?)";
+    private static final String INSERT_COMMENT = "INSERT INTO comentarios (id, id_usuario, id_post, contenido, " +
+            "id_comentario_padre, fecha_comentario, numero_respuestas, ruta, profundidad) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_REACTION = "INSERT INTO reacciones (id_usuario, target_id, target_type, " +
+            "id_tipo_reaccion, fecha_reaccion) VALUES (?, ?, ?, ?, ?)";
+    private static final String INSERT_REACTION_COUNT = "INSERT INTO reaction_counts (target_id, target_type, " +
+            "id_tipo_reaccion, shard, count) VALUES (?, ?, ?, ?, ?)";
+
+    @FunctionalInterface
+    private interface ChunkTask {
+        void run(int chunk, int from, int to);
+    }
+
+    // Inserciones de un bloque de posts, con sus comentarios, etiquetas y reacciones
+    private final class PostWriters {
+        final BatchInserter posts = new BatchInserter(jdbcTemplate, INSERT_POST, batchSize);
+        // Las etiquetas y los comentarios apuntan a posts: un lote suyo envía antes los posts pendientes
+        final BatchInserter postTags = new BatchInserter(jdbcTemplate, INSERT_POST_TAG, batchSize, posts);
+        final BatchInserter comments = new BatchInserter(jdbcTemplate, INSERT_COMMENT, batchSize, posts);
+        final BatchInserter reactions = new BatchInserter(jdbcTemplate, INSERT_REACTION, batchSize);
+        final BatchInserter reactionCounts = new BatchInserter(jdbcTemplate, INSERT_REACTION_COUNT, batchSize);
+
+        // En orden de dependencias: cada fila referencia solo filas de inserciones anteriores
+        void flush() {
+            posts.flush();
+            postTags.flush();
+            comments.flush();
+            reactions.flush();
+            reactionCounts.flush();
+        }
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final long seed;
+    private final int userCount;
+    private final int postCount;
+    private final int tagCount;
+    private final long commentTotal;
+    private final long reactionTotal;
+    private final double postReactionShare;
+    private final int maxTagsPerPost;
+    private final int maxCommentsPerPost;
+    private final double replyProbability;
+    private final int maxDepth;
+    private final double exponent;
+    private final int days;
+    private final String until;
+    private final int batchSize;
+    private final int chunkSize;
+    private final int threads;
+
+    private final AtomicLong insertedComments = new AtomicLong();
+    private final AtomicLong insertedReactions = new AtomicLong();
+
+    // Estado de una ejecución, fijado antes de lanzar los bloques en paralelo
+    private long userBase;
+    private long tagBase;
+    private long postBase;
+    private long commentBase;
+    private List<Long> reactionTypeIds;
+    private ZipfDistribution userActivity;
+    private ZipfDistribution tagPopularity;
+    private ZipfDistribution postPopularity;
+    private ZipfDistribution reactionTypes;
+    private int[] popularityRank;
+    private long[] commentOffsets;
+    private LocalDateTime windowStart;
+
+    @Autowired
+    public SyntheticDataGenerator(JdbcTemplate jdbcTemplate,
+                                  PlatformTransactionManager transactionManager,
+                                  @Value("${app.datagen.seed:42}") long seed,
+                                  @Value("${app.datagen.users:50000}") int userCount,
+                                  @Value("${app.datagen.posts:200000}") int postCount,
+                                  @Value("${app.datagen.tags:5000}") int tagCount,
+                                  @Value("${app.datagen.comments:2000000}") long commentTotal,
+                                  @Value("${app.datagen.reactions:5000000}") long reactionTotal,
+                                  @Value("${app.datagen.post-reaction-share:0.5}") double postReactionShare,
+                                  @Value("${app.datagen.max-tags-per-post:5}") int maxTagsPerPost,
+                                  @Value("${app.datagen.max-comments-per-post:50000}") int maxCommentsPerPost,
+                                  @Value("${app.datagen.reply-probability:0.6}") double replyProbability,
+                                  @Value("${app.datagen.max-depth:20}") int maxDepth,
+                                  @Value("${app.datagen.zipf-exponent:1.1}") double exponent,
+                                  @Value("${app.datagen.days:365}") int days,
+                                  @Value("${app.datagen.until:}") String until,
+                                  @Value("${app.datagen.batch-size:1000}") int batchSize,
+                                  @Value("${app.datagen.posts-per-chunk:1000}") int chunkSize,
+                                  @Value("${app.datagen.threads:0}") int threads) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.seed = seed;
+        this.userCount = userCount;
+        this.postCount = postCount;
+        this.tagCount = tagCount;
+        this.commentTotal = commentTotal;
+        this.reactionTotal = reactionTotal;
+        this.postReactionShare = postReactionShare;
+        this.maxTagsPerPost = maxTagsPerPost;
+        this.maxCommentsPerPost = maxCommentsPerPost;
+        this.replyProbability = replyProbability;
+        this.maxDepth = Math.min(maxDepth, CommentPaths.MAX_DEPTH);
+        this.exponent = exponent;
+        this.days = days;
+        this.until = until;
+        this.batchSize = batchSize;
+        this.chunkSize = chunkSize;
+        // 0 = un hilo por núcleo
+        this.threads = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (userCount <= 0) {
+            throw new IllegalArgumentException("app.datagen.users debe ser mayor que 0");
+        }
+        long started = System.nanoTime();
+        log.info("Generando datos sintéticos (semilla {}): {} usuarios, {} posts, {} etiquetas, ~{} comentarios, " +
+                "~{} reacciones, {} hilos", seed, userCount, postCount, tagCount, commentTotal, reactionTotal, threads);
+
+        userBase = nextId("usuarios");
+        tagBase = nextId("etiquetas");
+        postBase = nextId("posts");
+        commentBase = nextId("comentarios");
+        reactionTypeIds = ensureReactionTypes();
+        LocalDateTime end = until.isBlank() ? LocalDate.now().atStartOfDay() : LocalDateTime.parse(until);
+        windowStart = end.minusDays(days);
+
+        userActivity = new ZipfDistribution(userCount, exponent);
+        tagPopularity = tagCount > 0 ? new ZipfDistribution(tagCount, exponent) : null;
+        reactionTypes = new ZipfDistribution(reactionTypeIds.size(), REACTION_TYPE_EXPONENT);
+        planPosts();
+
+        transactionTemplate.executeWithoutResult(status -> generateTags());
+        runChunks("usuarios", userCount, chunkSize * 10, this::generateUsers);
+        runChunks("posts", postCount, chunkSize, this::generatePosts);
+        restartIdentities();
+
+        log.info("Datos sintéticos generados en {} s: {} usuarios, {} posts, {} etiquetas, {} comentarios, {} reacciones",
+                (System.nanoTime() - started) / 1_000_000_000, userCount, postCount, tagCount,
+                insertedComments.get(), insertedReactions.get());
+    }
+
+    /**
+     * Decide de antemano qué posts son populares (una permutación de rangos de Zipf, para que la popularidad
+     * no dependa de la fecha) y cuántos comentarios tendrá cada uno. Con los totales acumulados, cada bloque
+     * conoce los IDs de sus comentarios sin coordinarse con los demás.
+     */
+    private void planPosts() {
+        SplittableRandom random = randomFor(PLAN_PHASE, 0);
+        popularityRank = new int[postCount];
+        for (int i = 0; i < postCount; i++) {
+            popularityRank[i] = i + 1;
+        }
+        for (int i = postCount - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int swap = popularityRank[i];
+            popularityRank[i] = popularityRank[j];
+            popularityRank[j] = swap;
+        }
+
+        postPopularity = postCount > 0 ? new ZipfDistribution(postCount, exponent) : null;
+        commentOffsets = new long[postCount + 1];
+        for (int i = 0; i < postCount; i++) {
+            double expected = commentTotal * postPopularity.weight(popularityRank[i]);
+            int comments = Math.min(maxCommentsPerPost, roundRandomly(expected, random));
+            commentOffsets[i + 1] = commentOffsets[i] + comments;
+        }
+    }
+
+    private void generateTags() {
+        Set<String> existing = new HashSet<>(jdbcTemplate.queryForList("SELECT nombre_etiqueta FROM etiquetas", String.class));
+        BatchInserter tags = new BatchInserter(jdbcTemplate, INSERT_TAG, batchSize);
+        for (int i = 0; i < tagCount; i++) {
+            long id = tagBase + i;
+            String word = SampleText.TAG_WORDS[i % SampleText.TAG_WORDS.length];
+            String name = i < SampleText.TAG_WORDS.length && !existing.contains(word) ? word : word + "-" + id;
+            tags.add(id, name);
+        }
+        tags.flush();
+    }
+
+    private void generateUsers(int chunk, int from, int to) {
+        SplittableRandom random = randomFor(USERS_PHASE, chunk);
+        BatchInserter users = new BatchInserter(jdbcTemplate, INSERT_USER, batchSize);
+        for (int i = from; i < to; i++) {
+            long id = userBase + i;
+            // Registrados durante el año anterior a la ventana de publicaciones
+            LocalDateTime registered = windowStart.minusSeconds(random.nextLong(365 * SECONDS_PER_DAY));
+            users.add(id, "usuario" + id + "@datagen.local", PASSWORD_HASH, "usuario_" + id, "USER",
+                    Timestamp.valueOf(registered), random.nextInt(20) == 0);
+        }
+        users.flush();
+    }
+
+    private void generatePosts(int chunk, int from, int to) {
+        SplittableRandom random = randomFor(POSTS_PHASE, chunk);
+        PostWriters writers = new PostWriters();
+        long windowSeconds = days * SECONDS_PER_DAY;
+        for (int i = from; i < to; i++) {
+            long postId = postBase + i;
+            // Los IDs crecen con la fecha, como en los datos reales
+            long publishedAt = (long) (windowSeconds * (i + random.nextDouble()) / postCount);
+            int commentCount = (int) (commentOffsets[i + 1] - commentOffsets[i]);
+            writers.posts.add(postId, userId(random), title(random), SampleText.paragraph(random, 1 + random.nextInt(4)),
+                    timestamp(publishedAt), commentCount, 0L);
+
+            for (long tagId : pickTags(random)) {
+                writers.postTags.add(postId, tagId);
+            }
+
+            double postWeight = postPopularity.weight(popularityRank[i]);
+            addReactions(writers, random, postId, TargetType.POST, publishedAt, windowSeconds,
+                    roundRandomly(reactionTotal * postReactionShare * postWeight, random));
+            generateThread(writers, random, postId, commentBase + commentOffsets[i], commentCount, publishedAt,
+                    windowSeconds, reactionTotal * (1 - postReactionShare) * postWeight);
+        }
+        writers.flush();
+        insertedComments.addAndGet(writers.comments.inserted());
+        insertedReactions.addAndGet(writers.reactions.inserted());
+    }
+
+    /**
+     * Árbol de comentarios de un post. Cada comentario responde con probabilidad replyProbability a otro anterior:
+     * la mitad de las veces al último (cadenas largas) y si no a uno cualquiera. Se construye entero antes de
+     * insertarlo para conocer numero_respuestas; las reacciones del post se reparten con Zipf por orden de llegada.
+     */
+    private void generateThread(PostWriters writers, SplittableRandom random, long postId, long firstCommentId,
+                                int commentCount, long publishedAt, long windowSeconds, double reactionBudget) {
+        if (commentCount == 0) {
+            return;
+        }
+        int[] parent = new int[commentCount];
+        int[] depth = new int[commentCount];
+        int[] replies = new int[commentCount];
+        for (int k = 0; k < commentCount; k++) {
+            parent[k] = -1;
+            if (k > 0 && random.nextDouble() < replyProbability) {
+                int candidate = random.nextBoolean() ? k - 1 : random.nextInt(k);
+                if (depth[candidate] < maxDepth) {
+                    parent[k] = candidate;
+                    depth[k] = depth[candidate] + 1;
+                    replies[candidate]++;
+                }
+            }
+        }
+
+        ZipfDistribution commentPopularity = new ZipfDistribution(commentCount, exponent);
+        String[] paths = new String[commentCount];
+        double meanGap = Math.min(COMMENT_GAP_SECONDS, (double) (windowSeconds - publishedAt) / (commentCount + 1));
+        long commentedAt = publishedAt;
+        for (int k = 0; k < commentCount; k++) {
+            long commentId = firstCommentId + k;
+            commentedAt = Math.min(windowSeconds, commentedAt + exponentialGap(random, meanGap));
+            paths[k] = CommentPaths.childPath(parent[k] >= 0 ? paths[parent[k]] : CommentPaths.postPath(postId), commentId);
+            writers.comments.add(commentId, userId(random), postId, SampleText.sentence(random, 4, 25),
+                    parent[k] >= 0 ? firstCommentId + parent[k] : null, timestamp(commentedAt), replies[k],
+                    paths[k], depth[k]);
+            addReactions(writers, random, commentId, TargetType.COMMENT, commentedAt, windowSeconds,
+                    roundRandomly(reactionBudget * commentPopularity.weight(k + 1), random));
+        }
+    }
+
+    // Reacciones de usuarios distintos sobre un target y su fila de reaction_counts (shard 0) por tipo
+    private void addReactions(PostWriters writers, SplittableRandom random, long targetId, TargetType targetType,
+                              long createdAt, long windowSeconds, int count) {
+        if (count == 0) {
+            return;
+        }
+        long[] perType = new long[reactionTypeIds.size()];
+        for (int userIndex : pickReactors(random, Math.min(count, userCount))) {
+            int type = reactionTypes.sample(random);
+            perType[type]++;
+            long reactedAt = Math.min(windowSeconds, createdAt + exponentialGap(random, REACTION_GAP_SECONDS));
+            writers.reactions.add(userBase + userIndex, targetId, targetType.name(), reactionTypeIds.get(type),
+                    timestamp(reactedAt));
+        }
+        for (int type = 0; type < perType.length; type++) {
+            if (perType[type] > 0) {
+                writers.reactionCounts.add(targetId, targetType.name(), reactionTypeIds.get(type),
+                        ShardedReactionCounter.PRIMARY_SHARD, perType[type]);
+            }
+        }
+    }
+
+    // Los usuarios activos reaccionan más. Con muchas colisiones (targets que casi todos han reaccionado)
+    // se aceptan algunas reacciones menos de las pedidas en lugar de reintentar sin fin.
+    private Set<Integer> pickReactors(SplittableRandom random, int count) {
+        Set<Integer> reactors = new LinkedHashSet<>();
+        for (int attempts = count * 4; reactors.size() < count && attempts > 0; attempts--) {
+            reactors.add(userActivity.sample(random));
+        }
+        return reactors;
+    }
+
+    private Set<Long> pickTags(SplittableRandom random) {
+        Set<Long> tagIds = new LinkedHashSet<>();
+        if (tagPopularity == null) {
+            return tagIds;
+        }
+        int wanted = 1 + random.nextInt(maxTagsPerPost);
+        for (int attempts = wanted * 4; tagIds.size() < wanted && attempts > 0; attempts--) {
+            tagIds.add(tagBase + tagPopularity.sample(random));
+        }
+        return tagIds;
+    }
+
+    private long userId(SplittableRandom random) {
+        return userBase + userActivity.sample(random);
+    }
+
+    private static String title(SplittableRandom random) {
+        String sentence = SampleText.sentence(random, 3, 8);
+        return sentence.substring(0, sentence.length() - 1);
+    }
+
+    private Timestamp timestamp(long secondsIntoWindow) {
+        return Timestamp.valueOf(windowStart.plusSeconds(secondsIntoWindow));
+    }
+
+    private static long exponentialGap(SplittableRandom random, double mean) {
+        return (long) (-mean * Math.log(1 - random.nextDouble()));
+    }
+
+    // Redondea hacia arriba con probabilidad igual a la parte decimal: el total esperado se conserva
+    private static int roundRandomly(double expected, SplittableRandom random) {
+        long floor = (long) expected;
+        return (int) Math.min(Integer.MAX_VALUE, floor + (random.nextDouble() < expected - floor ? 1 : 0));
+    }
+
+    private SplittableRandom randomFor(long phase, int chunk) {
+        return new SplittableRandom(seed ^ (phase << 56) ^ (chunk * 0x9E3779B97F4A7C15L));
+    }
+
+    /**
+     * Ejecuta la tarea por bloques de chunkSize elementos en un pool de `threads` hilos, cada bloque en su transacción.
+     * Si un bloque falla se cancelan los pendientes; los bloques ya confirmados permanecen.
+     */
+    private void runChunks(String label, int total, int chunkSize, ChunkTask task) {
+        int chunks = (total + chunkSize - 1) / chunkSize;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        AtomicInteger completed = new AtomicInteger();
+        try {
+            List<Future<?>> futures = new ArrayList<>(chunks);
+            for (int chunk = 0; chunk < chunks; chunk++) {
+                int index = chunk;
+                int from = chunk * chunkSize;
+                int to = Math.min(total, from + chunkSize);
+                futures.add(executor.submit(() -> {
+                    transactionTemplate.executeWithoutResult(status -> task.run(index, from, to));
+                    int done = completed.incrementAndGet();
+                    if (done % Math.max(1, chunks / 10) == 0 || done == chunks) {
+                        log.info("Generación de {}: {}/{} bloques", label, done, chunks);
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Error generando " + label, e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Generación de " + label + " interrumpida", e);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private List<Long> ensureReactionTypes() {
+        List<Long> ids = jdbcTemplate.queryForList("SELECT id FROM tipo_reaccion ORDER BY id", Long.class);
+        if (!ids.isEmpty()) {
+            return ids;
+        }
+        for (String name : DEFAULT_REACTION_TYPES) {
+            jdbcTemplate.update("INSERT INTO tipo_reaccion (nombre_reaccion) VALUES (?)", name);
+        }
+        return jdbcTemplate.queryForList("SELECT id FROM tipo_reaccion ORDER BY id", Long.class);
+    }
+
+    private long nextId(String table) {
+        Long max = jdbcTemplate.queryForObject("SELECT MAX(id) FROM " + table, Long.class);
+        return max != null ? max + 1 : 1;
+    }
+
+    /**
+     * Avanza las columnas IDENTITY más allá de los IDs insertados explícitamente, para que las altas normales
+     * de la aplicación no colisionen. MySQL/MariaDB lo hacen solas al insertar IDs explícitos.
+     */
+    private void restartIdentities() {
+        String database = jdbcTemplate.execute(
+                (ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName());
+        for (String table : List.of("usuarios", "etiquetas", "posts", "comentarios")) {
+            long next = nextId(table);
+            if ("H2".equalsIgnoreCase(database)) {
+                jdbcTemplate.execute("ALTER TABLE " + table + " ALTER COLUMN id RESTART WITH " + next);
+            } else if ("PostgreSQL".equalsIgnoreCase(database)) {
+                jdbcTemplate.queryForObject("SELECT setval(pg_get_serial_sequence(?, 'id'), ?)", Long.class, table, next - 1);
+            }
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.skill.websockets.datagen;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Distribución de Zipf sobre los rangos 1..n: el rango r tiene peso proporcional a 1 / r^exponent.
+ * Con exponentes cercanos a 1, unos pocos elementos concentran la mayor parte de la actividad,
+ * como ocurre con los usuarios, posts y etiquetas reales.
+ *
+ * Precalcula la función de distribución acumulada (n doubles) y muestrea con búsqueda binaria.
+ * Es inmutable, así que se comparte entre hilos; la aleatoriedad la aporta el generador de cada llamada.
+ */
+final class ZipfDistribution {
+
+    private final double[] cumulative;
+
+    ZipfDistribution(int n, double exponent) {
+        if (n <= 0) {
+            throw new IllegalArgumentException("La distribución necesita al menos un elemento");
+        }
+        this.cumulative = new double[n];
+        double sum = 0;
+        for (int rank = 1; rank <= n; rank++) {
+            sum += Math.pow(rank, -exponent);
+            cumulative[rank - 1] = sum;
+        }
+        for (int i = 0; i < n; i++) {
+            cumulative[i] /= sum;
+        }
+    }
+
+    int size() {
+        return cumulative.length;
+    }
+
+    // Probabilidad del rango indicado (empezando en 1)
+    double weight(int rank) {
+        return rank == 1 ? cumulative[0] : cumulative[rank - 1] - cumulative[rank - 2];
+    }
+
+    // Índice muestreado en [0, n): el índice 0 es el rango 1, el más probable
+    int sample(SplittableRandom random) {
+        int index = Arrays.binarySearch(cumulative, random.nextDouble());
+        int position = index >= 0 ? index : -index - 1;
+        return Math.min(position, cumulative.length - 1);
+    }
+}
@@ -0,0 +1,3 @@
+-- Rutas de comentarios con el prefijo del post y sin separador (ver CommentPaths).
+-- Las rutas del formato anterior se vacían; CommentPathBackfill las recalcula al arrancar.
+UPDATE comentarios SET ruta = NULL, profundidad = NULL;
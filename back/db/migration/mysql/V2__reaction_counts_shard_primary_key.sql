@@ -0,0 +1,14 @@
+-- Clave primaria de reaction_counts con la columna shard (ver ReactionCount y ShardedReactionCounter).
+-- ddl-auto ya ha añadido la columna (DEFAULT 0), pero no cambia claves primarias.
+ALTER TABLE reaction_counts DROP PRIMARY KEY,
+    ADD PRIMARY KEY (target_id, target_type, id_tipo_reaccion, shard);
+
+-- Índice de la primera versión de los shards: ShardedReactionCounter ya no consulta por shard en cada plegado.
+-- MySQL no admite DROP INDEX IF EXISTS.
+SET @drop_shard_index = (
+    SELECT IF(COUNT(*) > 0, 'DROP INDEX idx_reaction_counts_shard ON reaction_counts', 'DO 0')
+    FROM information_schema.statistics
+    WHERE table_schema = DATABASE() AND table_name = 'reaction_counts' AND index_name = 'idx_reaction_counts_shard');
+PREPARE drop_shard_index FROM @drop_shard_index;
+EXECUTE drop_shard_index;
+DEALLOCATE PREPARE drop_shard_index;
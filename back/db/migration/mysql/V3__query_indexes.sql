@@ -0,0 +1,80 @@
+-- Índices de las consultas frecuentes de los repositorios (los mismos que declaran las entidades con @Index).
+-- Las claves primarias compuestas no sirven para esto: Hibernate elige el orden de sus columnas.
+-- MySQL no admite CREATE INDEX IF NOT EXISTS: cada índice se crea solo si no existe ya.
+
+SET @create_index = IF((SELECT COUNT(*) FROM information_schema.statistics
+        WHERE table_schema = DATABASE() AND table_name = 'reacciones' AND index_name = 'idx_reacciones_target_tipo') = 0,
+    'CREATE INDEX idx_reacciones_target_tipo ON reacciones (target_id, target_type, id_tipo_reaccion)', 'DO 0');
+PREPARE create_index FROM @create_index;
+EXECUTE create_index;
+DEALLOCATE PREPARE create_index;
+
+SET @create_index = IF((SELECT COUNT(*) FROM information_schema.statistics
+        WHERE table_schema = DATABASE() AND table_name = 'reacciones' AND index_name = 'idx_reacciones_usuario_target') = 0,
+    'CREATE INDEX idx_reacciones_usuario_target ON reacciones (id_usuario, target_type, target_id)', 'DO 0');
+PREPARE create_index FROM @create_index;
+EXECUTE create_index;
+DEALLOCATE PREPARE create_index;
+
+SET @create_index = IF((SELECT COUNT(*) FROM information_schema.statistics
+        WHERE table_schema = DATABASE() AND table_name = 'reacciones' AND index_name = 'idx_reacciones_tipo_fecha') = 0,
+    'CREATE INDEX idx_reacciones_tipo_fecha ON reacciones (target_type, fecha_reaccion)', 'DO 0');
+PREPARE create_index FROM @create_index;
+EXECUTE create_index;
+DEALLOCATE PREPARE create_index;
+
+SET @create_index = IF((SELECT COUNT(*) FROM information_schema.statistics
+        WHERE table_schema = DATABASE() AND table_name = 'comentarios' AND index_name = 'idx_comentarios_post_padre_fecha') = 0,
+    'CREATE INDEX idx_comentarios_post_padre_fecha ON comentarios (id_post, id_comentario_padre, fecha_comentario, id)', 'DO 0');
+PREPARE create_index FROM @create_index;
+EXECUTE create_index;
+DEALLOCATE PREPARE create_index;
+
+SET @create_index = IF((SELECT COUNT(*) FROM information_schema.statistics
+        WHERE table_schema = DATABASE() AND table_name = 'comentarios' AND index_name = 'idx_comentarios_padre_fecha') = 0,
+    'CREATE INDEX idx_comentarios_padre_fecha ON comentarios (id_comentario_padre, fecha_comentario, id)', 'DO 0');
+PREPARE create_index FROM @create_index;
+EXECUTE create_index;
+DEALLOCATE PREPARE create_index;
+
+SET @create_index = IF((SELECT COUNT(*) FROM information_schema.statistics
+        WHERE table_schema = DATABASE() AND table_name = 'comentarios' AND index_name = 'idx_comentarios_post_fecha') = 0,
+    'CREATE INDEX idx_comentarios_post_fecha ON comentarios (id_post, fecha_comentario, id)', 'DO 0');
+PREPARE create_index FROM @create_index;
+EXECUTE create_index;
+DEALLOCATE PREPARE create_index;
+
+SET @create_index = IF((SELECT COUNT(*) FROM information_schema.statistics
+        WHERE table_schema = DATABASE() AND table_name = 'comentarios' AND index_name = 'idx_comentarios_fecha') = 0,
+    'CREATE INDEX idx_comentarios_fecha ON comentarios (fecha_comentario)', 'DO 0');
+PREPARE create_index FROM @create_index;
+EXECUTE create_index;
+DEALLOCATE PREPARE create_index;
+
+SET @create_index = IF((SELECT COUNT(*) FROM information_schema.statistics
+        WHERE table_schema = DATABASE() AND table_name = 'posts' AND index_name = 'idx_posts_usuario') = 0,
+    'CREATE INDEX idx_posts_usuario ON posts (id_usuario, id)', 'DO 0');
+PREPARE create_index FROM @create_index;
+EXECUTE create_index;
+DEALLOCATE PREPARE create_index;
+
+SET @create_index = IF((SELECT COUNT(*) FROM information_schema.statistics
+        WHERE table_schema = DATABASE() AND table_name = 'posts' AND index_name = 'idx_posts_fecha') = 0,
+    'CREATE INDEX idx_posts_fecha ON posts (fecha_publicacion, id)', 'DO 0');
+PREPARE create_index FROM @create_index;
+EXECUTE create_index;
+DEALLOCATE PREPARE create_index;
+
+SET @create_index = IF((SELECT COUNT(*) FROM information_schema.statistics
+        WHERE table_schema = DATABASE() AND table_name = 'post_etiquetas' AND index_name = 'idx_post_etiquetas_etiqueta') = 0,
+    'CREATE INDEX idx_post_etiquetas_etiqueta ON post_etiquetas (id_etiqueta, id_post)', 'DO 0');
+PREPARE create_index FROM @create_index;
+EXECUTE create_index;
+DEALLOCATE PREPARE create_index;
+
+SET @create_index = IF((SELECT COUNT(*) FROM information_schema.statistics
+        WHERE table_schema = DATABASE() AND table_name = 'reaction_counts' AND index_name = 'idx_reaction_counts_target') = 0,
+    'CREATE INDEX idx_reaction_counts_target ON reaction_counts (target_id, target_type, id_tipo_reaccion)', 'DO 0');
+PREPARE create_index FROM @create_index;
+EXECUTE create_index;
+DEALLOCATE PREPARE create_index;
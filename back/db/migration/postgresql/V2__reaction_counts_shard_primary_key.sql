@@ -0,0 +1,7 @@
+-- Clave primaria de reaction_counts con la columna shard (ver ReactionCount y ShardedReactionCounter).
+-- ddl-auto ya ha añadido la columna (DEFAULT 0), pero no cambia claves primarias.
+ALTER TABLE reaction_counts DROP CONSTRAINT IF EXISTS reaction_counts_pkey;
+ALTER TABLE reaction_counts ADD PRIMARY KEY (target_id, target_type, id_tipo_reaccion, shard);
+
+-- Índice de la primera versión de los shards: ShardedReactionCounter ya no consulta por shard en cada plegado.
+DROP INDEX IF EXISTS idx_reaction_counts_shard;
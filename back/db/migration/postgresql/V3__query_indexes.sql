@@ -0,0 +1,14 @@
+-- Índices de las consultas frecuentes de los repositorios (los mismos que declaran las entidades con @Index).
+-- Las claves primarias compuestas no sirven para esto: Hibernate elige el orden de sus columnas.
+
+CREATE INDEX IF NOT EXISTS idx_reacciones_target_tipo ON reacciones (target_id, target_type, id_tipo_reaccion);
+CREATE INDEX IF NOT EXISTS idx_reacciones_usuario_target ON reacciones (id_usuario, target_type, target_id);
+CREATE INDEX IF NOT EXISTS idx_reacciones_tipo_fecha ON reacciones (target_type, fecha_reaccion);
+CREATE INDEX IF NOT EXISTS idx_comentarios_post_padre_fecha ON comentarios (id_post, id_comentario_padre, fecha_comentario, id);
+CREATE INDEX IF NOT EXISTS idx_comentarios_padre_fecha ON comentarios (id_comentario_padre, fecha_comentario, id);
+CREATE INDEX IF NOT EXISTS idx_comentarios_post_fecha ON comentarios (id_post, fecha_comentario, id);
+CREATE INDEX IF NOT EXISTS idx_comentarios_fecha ON comentarios (fecha_comentario);
+CREATE INDEX IF NOT EXISTS idx_posts_usuario ON posts (id_usuario, id);
+CREATE INDEX IF NOT EXISTS idx_posts_fecha ON posts (fecha_publicacion, id);
+CREATE INDEX IF NOT EXISTS idx_post_etiquetas_etiqueta ON post_etiquetas (id_etiqueta, id_post);
+CREATE INDEX IF NOT EXISTS idx_reaction_counts_target ON reaction_counts (target_id, target_type, id_tipo_reaccion);
@@ -0,0 +1,24 @@
+package com.skill.websockets.dto;
+
+import com.skill.websockets.model.User;
+import com.skill.websockets.repository.projection.AuthorRow;
+
+/**
+ * Resumen inmutable de un autor, lo que necesitan PostDTO y CommentDTO.
+ * Es lo que guarda AuthorSummaryCache.
+ */
+public record AuthorSummary(Long id, String name, String avatar, String title, Boolean verified) {
+
+    public static AuthorSummary from(User user) {
+        return new AuthorSummary(user.getId(), user.getNombreUsuario(), user.getAvatarUrl(),
+                user.getRol(), user.getCuentaVerificada());
+    }
+
+    public static AuthorSummary from(AuthorRow row) {
+        return new AuthorSummary(row.id(), row.nombreUsuario(), row.avatarUrl(), row.rol(), row.cuentaVerificada());
+    }
+
+    public UserDTO toUserDTO() {
+        return new UserDTO(id != null ? id.toString() : null, name, avatar, title, verified);
+    }
+}
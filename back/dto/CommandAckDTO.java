@@ -0,0 +1,49 @@
+package com.skill.websockets.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+/**
+ * Confirmación de un comando STOMP, enviada solo al usuario que lo envió (/user/queue/acks).
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CommandAckDTO {
+
+    public enum Status {
+        OK,           // Aplicado
+        INVALID,      // Datos incorrectos o entidades inexistentes
+        CONFLICT,     // Restricción de integridad
+        RATE_LIMITED, // Límite de escrituras alcanzado; reintentar tras retryAfterSeconds
+        UNAUTHORIZED, // La sesión STOMP no tiene usuario (falta la cabecera userId en CONNECT)
+        ERROR         // Error inesperado; puede reintentarse con el mismo requestId
+    }
+
+    private String requestId;
+    private Status status;
+
+    // true si el comando ya se había procesado con este requestId y se devuelve la confirmación original
+    private boolean duplicate;
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String message;
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Long retryAfterSeconds;
+
+    // Resultado del comando: la reacción resultante (o null si se quitó) o el CommentDTO creado
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Object result;
+
+    public static CommandAckDTO of(String requestId, Status status, String message) {
+        return new CommandAckDTO(requestId, status, false, message, null, null);
+    }
+
+    // Copia marcada como duplicada, para reenvíos del mismo requestId
+    public CommandAckDTO asDuplicate() {
+        return new CommandAckDTO(requestId, status, true, message, retryAfterSeconds, result);
+    }
+}
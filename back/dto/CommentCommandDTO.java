@@ -0,0 +1,19 @@
+package com.skill.websockets.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+/**
+ * Comando STOMP /app/comments/create: misma semántica que POST /api/comments.
+ * requestId es la clave de idempotencia elegida por el cliente.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CommentCommandDTO {
+    private String requestId;
+    private Long postId;
+    private Long parentCommentId;
+    private String contenido;
+}
@@ -7,6 +7,7 @@ import lombok.AllArgsConstructor;
 import com.fasterxml.jackson.annotation.JsonInclude;
 
 import com.skill.websockets.model.Comment;
+import com.skill.websockets.repository.projection.CommentRow;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -39,12 +40,44 @@ public class CommentDTO {
     @JsonInclude(JsonInclude.Include.NON_EMPTY)
     private List<CommentDTO> replies;
 
+    // Número de respuestas directas, disponible aunque no se envíen las respuestas
+    private Integer replyCount;
+
+    // Copia superficial, usada para añadir los datos del usuario actual sin tocar el DTO cacheado
+    public CommentDTO(CommentDTO source) {
+        this.id = source.id;
+        this.author = source.author;
+        this.content = source.content;
+        this.createdAt = source.createdAt;
+        this.reactions = source.reactions;
+        this.userReaction = source.userReaction;
+        this.parentCommentId = source.parentCommentId;
+        this.replies = source.replies;
+        this.replyCount = source.replyCount;
+    }
+
+    // Construcción desde la proyección de solo lectura (ruta del feed)
+    public CommentDTO(CommentRow row, UserDTO author) {
+        this.id = row.id().toString();
+        this.author = author;
+        this.content = row.contenido();
+        this.createdAt = row.fechaComentario();
+        this.parentCommentId = row.parentCommentId() != null ? row.parentCommentId().toString() : null;
+        this.replyCount = row.replyCount();
+    }
+
     public CommentDTO(Comment comment) {
+        this(comment, comment != null ? new UserDTO(comment.getUser()) : null);
+    }
+
+    // Variante con el autor ya resuelto (AuthorSummaryCache): no inicializa el proxy de User
+    public CommentDTO(Comment comment, UserDTO author) {
         if (comment != null) {
             this.id = comment.getId() != null ? comment.getId().toString() : null;
-            this.author = new UserDTO(comment.getUser());
+            this.author = author;
             this.content = comment.getContenido();
             this.createdAt = comment.getFechaComentario();
+            this.replyCount = comment.getReplyCount();
             this.parentCommentId = comment.getParentComment() != null ? comment.getParentComment().getId().toString() : null;
         }
     }
@@ -0,0 +1,28 @@
+package com.skill.websockets.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.skill.websockets.model.NotificationType;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Notificación de la bandeja de un usuario: quién hizo qué sobre cuál de sus posts o comentarios.
+ * Es lo que se envía por /user/queue/notifications y lo que devuelve GET /api/notifications.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class NotificationDTO {
+    private String id;
+    private NotificationType type;
+    private UserDTO actor;
+    private String postId;
+    private String commentId; // Comentario nuevo, o comentario que recibió la reacción
+    private String reaction;
+    private LocalDateTime createdAt;
+    private boolean read;
+}
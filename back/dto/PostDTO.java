@@ -8,6 +8,7 @@ import com.fasterxml.jackson.annotation.JsonInclude;
 
 import com.skill.websockets.model.Post;
 import com.skill.websockets.model.Tag;
+import com.skill.websockets.repository.projection.PostRow;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -35,12 +36,48 @@ public class PostDTO {
     @JsonInclude(JsonInclude.Include.NON_EMPTY)
     private List<CommentDTO> comments;
 
+    // Total de comentarios (incluidas respuestas), disponible aunque no se envíe el árbol
+    private Integer commentCount;
+
+    // Versión del post con la que se construyó esta representación (ver PostController, ETags)
+    private Long version;
+
+    // Copia superficial, usada para añadir los datos del usuario actual sin tocar el DTO cacheado
+    public PostDTO(PostDTO source) {
+        this.id = source.id;
+        this.author = source.author;
+        this.content = source.content;
+        this.tags = source.tags;
+        this.createdAt = source.createdAt;
+        this.reactions = source.reactions;
+        this.userReaction = source.userReaction;
+        this.comments = source.comments;
+        this.commentCount = source.commentCount;
+        this.version = source.version;
+    }
+
+    // Construcción desde la proyección de solo lectura (ruta del feed)
+    public PostDTO(PostRow row, UserDTO author, List<String> tags) {
+        this.id = row.id().toString();
+        this.author = author;
+        this.content = row.contenido();
+        this.createdAt = row.fechaPublicacion();
+        this.commentCount = row.commentCount();
+        this.tags = tags != null ? tags : List.of();
+    }
+
     public PostDTO(Post post) {
+        this(post, post != null ? new UserDTO(post.getUser()) : null);
+    }
+
+    // Variante con el autor ya resuelto (AuthorSummaryCache): no inicializa el proxy de User
+    public PostDTO(Post post, UserDTO author) {
         if (post != null) {
             this.id = post.getId() != null ? post.getId().toString() : null;
-            this.author = new UserDTO(post.getUser());
+            this.author = author;
             this.content = post.getContenido();
             this.createdAt = post.getFechaPublicacion();
+            this.commentCount = post.getCommentCount();
 
             if (post.getTags() != null && !post.getTags().isEmpty()) {
                 this.tags = post.getTags().stream()
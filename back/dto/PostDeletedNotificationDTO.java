@@ -0,0 +1,16 @@
+package com.skill.websockets.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Aviso de /topic/posts/deleted: el post ya no existe y los clientes deben quitarlo del feed.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PostDeletedNotificationDTO {
+    private String postId; // String para flexibilidad en JS, como el resto de IDs
+    private int deletedComments; // Comentarios (incluidas respuestas) eliminados con el post
+}
@@ -0,0 +1,20 @@
+package com.skill.websockets.dto;
+
+import com.skill.websockets.model.TargetType;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+/**
+ * Comando STOMP /app/reactions/toggle: misma semántica que POST /api/reactions.
+ * requestId es la clave de idempotencia elegida por el cliente: reenviar el mismo comando no vuelve a aplicarlo.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReactionCommandDTO {
+    private String requestId;
+    private Long targetId;
+    private TargetType targetType;
+    private Long reactionTypeId;
+}
@@ -0,0 +1,20 @@
+package com.skill.websockets.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.util.Map;
+
+/**
+ * Petición de reenvío de un cliente que reconecta (STOMP /app/events/replay).
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReplayRequestDTO {
+    // Epoch recibido en las cabeceras de los eventos anteriores
+    private String epoch;
+    // Destino -> última secuencia recibida (ej. {"/topic/reactions/new": 42})
+    private Map<String, Long> lastSeq;
+}
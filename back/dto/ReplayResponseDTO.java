@@ -0,0 +1,24 @@
+package com.skill.websockets.dto;
+
+import com.skill.websockets.service.EventReplayBuffer;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Respuesta de reenvío (/user/queue/replay): los eventos perdidos en orden, o resync = true
+ * si el cliente debe recargar los datos porque ya no están en el buffer.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReplayResponseDTO {
+    private String epoch;
+    private boolean resync;
+    private List<EventReplayBuffer.BufferedEvent> events;
+    // Última secuencia de cada destino, para que el cliente continúe desde ahí tras resincronizar
+    private Map<String, Long> latestSeq;
+}
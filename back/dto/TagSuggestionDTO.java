@@ -0,0 +1,17 @@
+package com.skill.websockets.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+/**
+ * Sugerencia de autocompletado de etiquetas: la etiqueta y en cuántos posts aparece.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TagSuggestionDTO {
+    private Long id;
+    private String nombreEtiqueta;
+    private long postCount;
+}
@@ -0,0 +1,18 @@
+package com.skill.websockets.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+/**
+ * Uso de una etiqueta: en el listado por popularidad, cuántos posts la llevan;
+ * en las etiquetas relacionadas, cuántos posts la comparten con la etiqueta consultada.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TagUsageDTO {
+    private Long id;
+    private String nombreEtiqueta;
+    private long postCount;
+}
@@ -0,0 +1,11 @@
+package com.skill.websockets.event;
+
+/**
+ * Se publica al crear un comentario. Lo consume el índice de búsqueda.
+ *
+ * @param commentId ID del comentario.
+ * @param postId    ID del post al que pertenece.
+ * @param contenido Texto del comentario.
+ */
+public record CommentCreatedEvent(Long commentId, Long postId, String contenido) {
+}
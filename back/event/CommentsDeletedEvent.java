@@ -0,0 +1,12 @@
+package com.skill.websockets.event;
+
+import java.util.List;
+
+/**
+ * Se publica al eliminar un comentario, con los IDs de todo el subárbol borrado en cascada.
+ *
+ * @param postId     ID del post al que pertenecían.
+ * @param commentIds IDs de los comentarios eliminados.
+ */
+public record CommentsDeletedEvent(Long postId, List<Long> commentIds) {
+}
@@ -0,0 +1,18 @@
+package com.skill.websockets.event;
+
+import com.skill.websockets.model.NotificationType;
+
+/**
+ * Se publica cuando un usuario interactúa con el contenido de otro (comenta, responde o reacciona).
+ * Lo consume NotificationService para llenar la bandeja del destinatario.
+ *
+ * @param recipientUserId Autor del post o comentario afectado.
+ * @param actorUserId     Usuario que interactuó.
+ * @param type            Tipo de interacción.
+ * @param postId          Post afectado.
+ * @param commentId       Comentario nuevo o que recibió la reacción (null si la interacción es con el post).
+ * @param reaction        Nombre de la reacción (solo en reacciones).
+ */
+public record InteractionEvent(Long recipientUserId, Long actorUserId, NotificationType type,
+                               Long postId, Long commentId, String reaction) {
+}
@@ -0,0 +1,10 @@
+package com.skill.websockets.event;
+
+/**
+ * Se publica cuando cambia cualquier dato que forma parte de la representación de un post:
+ * el propio post, sus etiquetas, sus comentarios o las reacciones al post o a sus comentarios.
+ *
+ * @param postId ID del post afectado.
+ */
+public record PostChangedEvent(Long postId) {
+}
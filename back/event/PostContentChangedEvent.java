@@ -0,0 +1,11 @@
+package com.skill.websockets.event;
+
+/**
+ * Se publica cuando se crea un post o cambia su texto. Lo consume el índice de búsqueda.
+ *
+ * @param postId    ID del post.
+ * @param titulo    Título actual.
+ * @param contenido Contenido actual.
+ */
+public record PostContentChangedEvent(Long postId, String titulo, String contenido) {
+}
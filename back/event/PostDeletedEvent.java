@@ -0,0 +1,9 @@
+package com.skill.websockets.event;
+
+/**
+ * Se publica cuando se elimina un post, para que las estructuras en memoria que lo referencian lo descarten.
+ *
+ * @param postId ID del post eliminado.
+ */
+public record PostDeletedEvent(Long postId) {
+}
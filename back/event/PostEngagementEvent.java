@@ -0,0 +1,21 @@
+package com.skill.websockets.event;
+
+import java.time.LocalDateTime;
+
+/**
+ * Se publica cuando cambia la interacción con un post: una reacción al post o a uno de sus comentarios,
+ * o un comentario nuevo o eliminado. Lo consume el ranking de tendencias.
+ *
+ * @param postId ID del post afectado.
+ * @param kind   Tipo de interacción.
+ * @param delta  Interacciones añadidas (positivo) o retiradas (negativo).
+ * @param occurredAt Cuándo se produjo la interacción; en las retiradas, la fecha de la original,
+ *                   para descontar exactamente lo que sumó.
+ */
+public record PostEngagementEvent(Long postId, Kind kind, int delta, LocalDateTime occurredAt) {
+
+    public enum Kind {
+        REACTION,
+        COMMENT
+    }
+}
@@ -0,0 +1,14 @@
+package com.skill.websockets.event;
+
+import java.util.Set;
+
+/**
+ * Se publica cuando cambia el conjunto de etiquetas de un post (también al eliminar el post,
+ * con currentTagIds vacío). Lo consumen las estadísticas de etiquetas y el autocompletado.
+ *
+ * @param postId         ID del post.
+ * @param previousTagIds Etiquetas antes del cambio.
+ * @param currentTagIds  Etiquetas después del cambio.
+ */
+public record PostTagsChangedEvent(Long postId, Set<Long> previousTagIds, Set<Long> currentTagIds) {
+}
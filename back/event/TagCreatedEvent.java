@@ -0,0 +1,10 @@
+package com.skill.websockets.event;
+
+/**
+ * Se publica al crear una etiqueta. Lo consume el índice de autocompletado.
+ *
+ * @param tagId          ID de la etiqueta.
+ * @param nombreEtiqueta Nombre de la etiqueta.
+ */
+public record TagCreatedEvent(Long tagId, String nombreEtiqueta) {
+}
@@ -0,0 +1,9 @@
+package com.skill.websockets.event;
+
+/**
+ * Se publica al eliminar una etiqueta.
+ *
+ * @param tagId ID de la etiqueta eliminada.
+ */
+public record TagDeletedEvent(Long tagId) {
+}
@@ -8,13 +8,24 @@ import lombok.AllArgsConstructor;
 import lombok.EqualsAndHashCode;
 import lombok.ToString;
 import com.fasterxml.jackson.annotation.JsonIgnore; // <-- MANTENEMOS ESTA IMPORTACIÓN
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.DynamicUpdate;
 
 import java.time.LocalDateTime;
 import java.util.HashSet;
 import java.util.Set;
 
 @Entity
-@Table(name = "comentarios")
+@DynamicUpdate // Solo actualiza columnas modificadas: no pisa los contadores que se mantienen con UPDATE atómicos
+// Índices de las consultas calientes de CommentRepository: páginas de nivel superior y de respuestas
+// (filtro + orden fecha_comentario, id sin ordenar en memoria), comentarios por post y arranque de tendencias
+@Table(name = "comentarios", indexes = {
+        @Index(name = "idx_comentarios_ruta", columnList = "ruta"),
+        @Index(name = "idx_comentarios_post_padre_fecha", columnList = "id_post, id_comentario_padre, fecha_comentario, id"),
+        @Index(name = "idx_comentarios_padre_fecha", columnList = "id_comentario_padre, fecha_comentario, id"),
+        @Index(name = "idx_comentarios_post_fecha", columnList = "id_post, fecha_comentario, id"),
+        @Index(name = "idx_comentarios_fecha", columnList = "fecha_comentario")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -55,6 +66,21 @@ public class Comment {
     @Column(name = "ultima_actualizacion")
     private LocalDateTime ultimaActualizacion;
 
+    // Número de respuestas directas. Lo mantiene CommentService con actualizaciones atómicas.
+    @Column(name = "numero_respuestas", nullable = false)
+    @ColumnDefault("0")
+    private Integer replyCount = 0;
+
+    // Ruta materializada: el post y los IDs desde la raíz hasta este comentario en segmentos de ancho fijo
+    // (ver CommentPaths). Un subárbol completo es un rango de rutas con el mismo prefijo.
+    // Solo usa 0-9 y a-z, así que el orden no depende de la intercalación de la columna.
+    @Column(name = "ruta", length = 512)
+    private String ruta;
+
+    // Nivel en el hilo: 0 para comentarios de nivel superior
+    @Column(name = "profundidad")
+    private Integer profundidad;
+
     // *** IMPORTANTE: NO AGREGAMOS EL Set<Reaction> reactions AQUÍ ***
     // La lógica de reacciones se manejará en el DTO o en el servicio.
 
@@ -0,0 +1,52 @@
+package com.skill.websockets.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Notificación guardada en la bandeja de un usuario. Solo se persiste con app.notifications.persist = true;
+ * si no, las bandejas viven únicamente en memoria (ver NotificationService).
+ * Los IDs de post, comentario y usuarios son columnas simples: una notificación no impide borrar lo que menciona.
+ */
+@Entity
+@Table(name = "notificaciones", indexes = {
+        @Index(name = "idx_notificaciones_destinatario", columnList = "id_destinatario, id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class Notification {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "id_destinatario", nullable = false)
+    private Long recipientId;
+
+    @Column(name = "id_actor", nullable = false)
+    private Long actorId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "tipo", nullable = false, length = 32)
+    private NotificationType tipo;
+
+    @Column(name = "id_post")
+    private Long postId;
+
+    @Column(name = "id_comentario")
+    private Long commentId;
+
+    @Column(name = "reaccion")
+    private String reaccion;
+
+    @Column(name = "fecha", nullable = false)
+    private LocalDateTime fecha;
+
+    @Column(name = "leida", nullable = false)
+    private boolean leida;
+}
@@ -0,0 +1,8 @@
+package com.skill.websockets.model;
+
+public enum NotificationType {
+    COMMENT_ON_POST,
+    REPLY_TO_COMMENT,
+    REACTION_TO_POST,
+    REACTION_TO_COMMENT
+}
@@ -7,13 +7,20 @@ import lombok.AllArgsConstructor;
 import lombok.EqualsAndHashCode;
 import lombok.ToString;
 import com.fasterxml.jackson.annotation.JsonIgnore; // <-- IMPORTANTE: Añade esta línea
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.DynamicUpdate;
 
 import java.time.LocalDateTime;
 import java.util.HashSet;
 import java.util.Set;
 
 @Entity
-@Table(name = "posts")
+@DynamicUpdate // Solo actualiza columnas modificadas: no pisa los contadores que se mantienen con UPDATE atómicos
+// Posts de un usuario (por ID) y recorrido del feed por fecha con desempate por ID
+@Table(name = "posts", indexes = {
+        @Index(name = "idx_posts_usuario", columnList = "id_usuario, id"),
+        @Index(name = "idx_posts_fecha", columnList = "fecha_publicacion, id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -42,11 +49,19 @@ public class Post {
     @Column(name = "ultima_actualizacion")
     private LocalDateTime ultimaActualizacion;
 
+    // Total de comentarios del post (incluye respuestas). Lo mantiene CommentService con
+    // actualizaciones atómicas, así el feed puede mostrar el número sin cargar el árbol.
+    @Column(name = "numero_comentarios", nullable = false)
+    @ColumnDefault("0")
+    private Integer commentCount = 0;
+
     @ManyToMany(cascade = {CascadeType.PERSIST, CascadeType.MERGE})
     @JoinTable(
             name = "post_etiquetas",
             joinColumns = @JoinColumn(name = "id_post"),
-            inverseJoinColumns = @JoinColumn(name = "id_etiqueta")
+            inverseJoinColumns = @JoinColumn(name = "id_etiqueta"),
+            // Posts de una etiqueta (conteos y co-ocurrencias); la clave primaria empieza por id_post
+            indexes = @Index(name = "idx_post_etiquetas_etiqueta", columnList = "id_etiqueta, id_post")
     )
     @JsonIgnore // <-- Añade esta anotación (si no necesitas las tags en la respuesta del Post)
     private Set<Tag> tags = new HashSet<>();
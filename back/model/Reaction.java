@@ -10,7 +10,13 @@ import java.io.Serializable;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "reacciones")
+// La columna de la clave primaria compuesta la decide Hibernate, así que los accesos calientes tienen índice propio:
+// conteos por target y tipo, reacciones de un usuario a varios targets y arranque de tendencias por fecha
+@Table(name = "reacciones", indexes = {
+        @Index(name = "idx_reacciones_target_tipo", columnList = "target_id, target_type, id_tipo_reaccion"),
+        @Index(name = "idx_reacciones_usuario_target", columnList = "id_usuario, target_type, target_id"),
+        @Index(name = "idx_reacciones_tipo_fecha", columnList = "target_type, fecha_reaccion")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor // ESTE ES CRUCIAL PARA LA FORMA EN QUE LO CREO EN EL SERVICIO
@@ -0,0 +1,64 @@
+package com.skill.websockets.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+import org.hibernate.annotations.ColumnDefault;
+
+import java.io.Serializable;
+
+/**
+ * Conteo desnormalizado de reacciones por objetivo y tipo de reacción.
+ * Se mantiene en la misma transacción que las filas de `reacciones` (ver ReactionService)
+ * y se corrige periódicamente con ReactionCountReconciler.
+ *
+ * Un target con mucho tráfico reparte su conteo en varias filas (shards) para que los toggles
+ * concurrentes no esperen todos el lock de la misma fila; el valor real es la suma de sus shards
+ * (ver ShardedReactionCounter). Sin tráfico alto solo existe el shard 0.
+ *
+ * En una tabla creada antes de los shards, ddl-auto añade la columna `shard` (DEFAULT 0) pero no
+ * cambia la clave primaria, y mientras no la incluya ShardedReactionCounter no usa shards secundarios.
+ * La migración es db/migration/{mysql,postgresql}/V2__reaction_counts_shard_primary_key.sql
+ * (o app.reactions.hot-key.migrate-schema=true, al arrancar).
+ */
+@Entity
+@Table(name = "reaction_counts", indexes = {
+        // Lecturas por target (una o varias con IN), sin depender del orden de columnas de la clave primaria
+        @Index(name = "idx_reaction_counts_target", columnList = "target_id, target_type, id_tipo_reaccion")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode(exclude = "reactionType")
+@ToString(exclude = "reactionType")
+public class ReactionCount {
+
+    @EmbeddedId
+    private ReactionCountId id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @MapsId("reactionTypeId") // Mapea el reactionTypeId del ReactionCountId a la columna id_tipo_reaccion
+    @JoinColumn(name = "id_tipo_reaccion", nullable = false)
+    private ReactionType reactionType;
+
+    @Column(name = "count", nullable = false)
+    private Long count;
+
+    // Clase para la clave primaria compuesta
+    @Embeddable
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ReactionCountId implements Serializable {
+        private Long targetId;
+        @Enumerated(EnumType.STRING)
+        private TargetType targetType;
+        private Long reactionTypeId;
+        @Column(name = "shard", nullable = false)
+        @ColumnDefault("0")
+        private Integer shard;
+    }
+}
@@ -4,8 +4,13 @@ import jakarta.persistence.*;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
+import com.skill.websockets.cache.CacheRegions;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheRegions.REACTION_TYPES) // Caché de segundo nivel (ver SecondLevelCacheConfig)
 @Table(name = "tipo_reaccion")
 @Data
 @NoArgsConstructor
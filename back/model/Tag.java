@@ -6,11 +6,16 @@ import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
 import lombok.EqualsAndHashCode; // Para manejar la unicidad en colecciones
 import lombok.ToString;        // Para evitar bucles infinitos con relaciones bidireccionales
+import com.skill.websockets.cache.CacheRegions;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.util.HashSet;
 import java.util.Set;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheRegions.TAGS) // Caché de segundo nivel (ver SecondLevelCacheConfig)
 @Table(name = "etiquetas")
 @Data
 @NoArgsConstructor
@@ -8,13 +8,20 @@ import lombok.AllArgsConstructor;
 import lombok.EqualsAndHashCode;
 import lombok.ToString;
 import com.fasterxml.jackson.annotation.JsonIgnore; // Importa esta anotación
+import com.skill.websockets.cache.AuthorCacheInvalidator;
+import com.skill.websockets.cache.CacheRegions;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.time.LocalDateTime;
 import java.util.HashSet;
 import java.util.Set;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheRegions.USERS) // Caché de segundo nivel (ver SecondLevelCacheConfig)
 @Table(name = "usuarios")
+@EntityListeners(AuthorCacheInvalidator.class) // Invalida AuthorSummaryCache al actualizar o borrar
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
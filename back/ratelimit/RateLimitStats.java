@@ -0,0 +1,12 @@
+package com.skill.websockets.ratelimit;
+
+/**
+ * Métricas del limitador de escrituras: peticiones admitidas y rechazadas por motivo.
+ */
+public record RateLimitStats(long allowed,
+                             long rejectedPerUser,
+                             long rejectedGlobalRate,
+                             long rejectedInFlight,
+                             int inFlight,
+                             int trackedUsers) {
+}
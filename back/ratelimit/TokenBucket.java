@@ -0,0 +1,57 @@
+package com.skill.websockets.ratelimit;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Token bucket sin bloqueos: el estado (tokens y último relleno) es inmutable y se sustituye con CAS,
+ * así que peticiones concurrentes del mismo usuario nunca esperan un lock.
+ */
+final class TokenBucket {
+
+    private record State(double tokens, long refilledAtNanos) {
+    }
+
+    private final double capacity;
+    private final double tokensPerNanosecond;
+    private final AtomicReference<State> state;
+
+    TokenBucket(double capacity, double refillPerSecond, long nowNanos) {
+        this.capacity = capacity;
+        this.tokensPerNanosecond = refillPerSecond / 1_000_000_000d;
+        this.state = new AtomicReference<>(new State(capacity, nowNanos));
+    }
+
+    /**
+     * Consume un token si hay alguno disponible.
+     *
+     * @return 0 si se concedió; si no, los nanosegundos que faltan para el siguiente token.
+     */
+    long tryAcquire(long nowNanos) {
+        while (true) {
+            State current = state.get();
+            double refilled = Math.min(capacity,
+                    current.tokens() + Math.max(0, nowNanos - current.refilledAtNanos()) * tokensPerNanosecond);
+            if (refilled < 1) {
+                return (long) Math.ceil((1 - refilled) / tokensPerNanosecond);
+            }
+            if (state.compareAndSet(current, new State(refilled - 1, Math.max(nowNanos, current.refilledAtNanos())))) {
+                return 0;
+            }
+        }
+    }
+
+    // Devuelve un token concedido por tryAcquire cuya petición se rechazó después por otro límite
+    void refund() {
+        while (true) {
+            State current = state.get();
+            if (state.compareAndSet(current, new State(Math.min(capacity, current.tokens() + 1), current.refilledAtNanos()))) {
+                return;
+            }
+        }
+    }
+
+    // Sin uso desde hace más de idleNanos: ya estaría lleno, así que puede descartarse sin cambiar el resultado
+    boolean isIdle(long nowNanos, long idleNanos) {
+        return nowNanos - state.get().refilledAtNanos() > idleNanos;
+    }
+}
@@ -0,0 +1,9 @@
+package com.skill.websockets.ratelimit;
+
+/**
+ * Tipos de escritura con límite propio por usuario.
+ */
+public enum WriteAction {
+    REACTION,
+    COMMENT
+}
@@ -0,0 +1,105 @@
+package com.skill.websockets.ratelimit;
+
+import com.skill.websockets.cache.AuthorSummaryCache;
+import com.skill.websockets.cache.BoundedCache;
+import com.skill.websockets.cache.CacheRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.time.Duration;
+
+/**
+ * Aplica WriteRateLimiter a las escrituras de reacciones y comentarios antes de llegar al controlador.
+ * Las peticiones rechazadas reciben 429 con Retry-After y no tocan la base de datos.
+ */
+@Component
+public class WriteRateLimitInterceptor implements HandlerInterceptor {
+
+    private static final String ADMITTED_ATTRIBUTE = WriteRateLimitInterceptor.class.getName() + ".admitted";
+
+    private final WriteRateLimiter writeRateLimiter;
+    private final AuthorSummaryCache authorSummaryCache;
+    // IDs que no corresponden a ningún usuario: se recuerdan un tiempo para no consultar la base de datos
+    // en cada petición con un ID inventado. Un usuario recién creado con uno de ellos se limita por IP hasta que caduque.
+    private final BoundedCache<Long, Boolean> unknownUserIds;
+
+    @Autowired
+    public WriteRateLimitInterceptor(WriteRateLimiter writeRateLimiter,
+                                     AuthorSummaryCache authorSummaryCache,
+                                     CacheRegistry cacheRegistry,
+                                     @Value("${app.rate-limit.unknown-users.maximum-size:10000}") int unknownUsersMaximumSize,
+                                     @Value("${app.rate-limit.unknown-users.ttl-seconds:60}") long unknownUsersTtlSeconds) {
+        this.writeRateLimiter = writeRateLimiter;
+        this.authorSummaryCache = authorSummaryCache;
+        this.unknownUserIds = cacheRegistry.create("rate-limit-unknown-users", unknownUsersMaximumSize,
+                Duration.ofSeconds(unknownUsersTtlSeconds));
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        WriteAction action = actionFor(request);
+        if (action == null) {
+            return true;
+        }
+
+        WriteRateLimiter.Decision decision = writeRateLimiter.tryAcquire(action, () -> clientKey(request));
+        if (!decision.allowed()) {
+            response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(decision.retryAfterSeconds()));
+            return false;
+        }
+        request.setAttribute(ADMITTED_ATTRIBUTE, Boolean.TRUE);
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        if (request.getAttribute(ADMITTED_ATTRIBUTE) != null) {
+            request.removeAttribute(ADMITTED_ATTRIBUTE);
+            writeRateLimiter.release();
+        }
+    }
+
+    // Solo se limitan las escrituras; las lecturas y los OPTIONS de CORS pasan sin coste
+    private static WriteAction actionFor(HttpServletRequest request) {
+        String method = request.getMethod();
+        if ("GET".equals(method) || "HEAD".equals(method) || "OPTIONS".equals(method)) {
+            return null;
+        }
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        if (path.startsWith("/api/reactions")) {
+            return WriteAction.REACTION;
+        }
+        if (path.startsWith("/api/comments")) {
+            return WriteAction.COMMENT;
+        }
+        return null;
+    }
+
+    // Los endpoints de escritura reciben el usuario como parámetro. Si falta, no es un ID o no existe
+    // se limita por IP: inventar IDs no da buckets nuevos. Los usuarios activos se validan desde la caché
+    // y los IDs inexistentes desde unknownUserIds, así que solo la primera petición con cada uno llega a la base de datos.
+    private String clientKey(HttpServletRequest request) {
+        String userId = request.getParameter("userId");
+        if (userId != null && !userId.isBlank()) {
+            try {
+                Long id = Long.valueOf(userId.trim());
+                if (unknownUserIds.getIfPresent(id) == null) {
+                    if (authorSummaryCache.resolve(id) != null) {
+                        return "u:" + id;
+                    }
+                    unknownUserIds.put(id, Boolean.TRUE);
+                }
+            } catch (NumberFormatException e) {
+                // ID no válido: se limita por IP
+            }
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
+}
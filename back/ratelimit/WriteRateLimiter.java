@@ -0,0 +1,135 @@
+package com.skill.websockets.ratelimit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Control de admisión de escrituras (reacciones y comentarios), antes de tocar la base de datos:
+ *
+ * 1. Límite global de tasa y de escrituras simultáneas, para descartar carga con 429 en lugar de
+ *    dejar que se acumule en el pool de conexiones y suba la latencia de todos.
+ * 2. Límite por usuario y tipo de acción (token bucket), para que un usuario o script no pueda
+ *    provocar una ráfaga de toggles y difusiones.
+ *
+ * Con el global primero, en una saturación no se crean buckets ni se resuelve la clave del cliente.
+ * Un token solo se gasta si la escritura se admite: los de los límites ya superados se devuelven.
+ *
+ * Los buckets viven en un ConcurrentHashMap y se eliminan cuando llevan un tiempo sin usarse.
+ */
+@Component
+public class WriteRateLimiter {
+
+    /**
+     * Resultado de tryAcquire. Si allowed = false, retryAfterSeconds indica cuándo reintentar.
+     * Una admisión concedida debe cerrarse con release() al terminar la escritura.
+     */
+    public record Decision(boolean allowed, long retryAfterSeconds) {
+        static final Decision ALLOWED = new Decision(true, 0);
+    }
+
+    private final Map<WriteAction, ConcurrentMap<String, TokenBucket>> buckets = new EnumMap<>(WriteAction.class);
+    private final Map<WriteAction, double[]> limits = new EnumMap<>(WriteAction.class);
+    private final TokenBucket globalBucket;
+    private final int maxInFlight;
+    private final long idleNanos;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder allowed = new LongAdder();
+    private final LongAdder rejectedPerUser = new LongAdder();
+    private final LongAdder rejectedGlobalRate = new LongAdder();
+    private final LongAdder rejectedInFlight = new LongAdder();
+
+    public WriteRateLimiter(@Value("${app.rate-limit.reactions.capacity:10}") double reactionCapacity,
+                            @Value("${app.rate-limit.reactions.refill-per-second:5}") double reactionRefill,
+                            @Value("${app.rate-limit.comments.capacity:5}") double commentCapacity,
+                            @Value("${app.rate-limit.comments.refill-per-second:0.5}") double commentRefill,
+                            @Value("${app.rate-limit.global.capacity:1000}") double globalCapacity,
+                            @Value("${app.rate-limit.global.refill-per-second:500}") double globalRefill,
+                            @Value("${app.rate-limit.global.max-in-flight:64}") int maxInFlight,
+                            @Value("${app.rate-limit.idle-seconds:600}") long idleSeconds) {
+        limits.put(WriteAction.REACTION, new double[]{reactionCapacity, reactionRefill});
+        limits.put(WriteAction.COMMENT, new double[]{commentCapacity, commentRefill});
+        for (WriteAction action : WriteAction.values()) {
+            buckets.put(action, new ConcurrentHashMap<>());
+        }
+        this.globalBucket = new TokenBucket(globalCapacity, globalRefill, System.nanoTime());
+        this.maxInFlight = maxInFlight;
+        this.idleNanos = TimeUnit.SECONDS.toNanos(idleSeconds);
+    }
+
+    /**
+     * Decide si se admite una escritura de `clientKey` (el ID de usuario, o la IP si no lo hay).
+     */
+    public Decision tryAcquire(WriteAction action, String clientKey) {
+        return tryAcquire(action, () -> clientKey);
+    }
+
+    /**
+     * Igual, pero la clave del cliente solo se calcula si la escritura pasa los límites globales.
+     */
+    public Decision tryAcquire(WriteAction action, Supplier<String> clientKey) {
+        long now = System.nanoTime();
+
+        long globalWait = globalBucket.tryAcquire(now);
+        if (globalWait > 0) {
+            rejectedGlobalRate.increment();
+            return rejected(globalWait);
+        }
+
+        if (inFlight.incrementAndGet() > maxInFlight) {
+            inFlight.decrementAndGet();
+            globalBucket.refund();
+            rejectedInFlight.increment();
+            return new Decision(false, 1);
+        }
+
+        double[] limit = limits.get(action);
+        TokenBucket userBucket = buckets.get(action)
+                .computeIfAbsent(clientKey.get(), key -> new TokenBucket(limit[0], limit[1], now));
+        long userWait = userBucket.tryAcquire(now);
+        if (userWait > 0) {
+            // Un abusador no consume capacidad global
+            inFlight.decrementAndGet();
+            globalBucket.refund();
+            rejectedPerUser.increment();
+            return rejected(userWait);
+        }
+
+        allowed.increment();
+        return Decision.ALLOWED;
+    }
+
+    // Cierra una admisión concedida por tryAcquire
+    public void release() {
+        inFlight.decrementAndGet();
+    }
+
+    public RateLimitStats stats() {
+        int trackedUsers = buckets.values().stream().mapToInt(Map::size).sum();
+        return new RateLimitStats(allowed.sum(), rejectedPerUser.sum(), rejectedGlobalRate.sum(),
+                rejectedInFlight.sum(), inFlight.get(), trackedUsers);
+    }
+
+    // Elimina los buckets inactivos; si se borra uno justo cuando vuelve a usarse, se recrea lleno (igual que estaría)
+    @Scheduled(fixedDelayString = "${app.rate-limit.eviction-interval-ms:60000}")
+    public void evictIdleBuckets() {
+        long now = System.nanoTime();
+        for (ConcurrentMap<String, TokenBucket> userBuckets : buckets.values()) {
+            userBuckets.entrySet().removeIf(entry -> entry.getValue().isIdle(now, idleNanos));
+        }
+    }
+
+    private static Decision rejected(long waitNanos) {
+        return new Decision(false, Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos) + 1));
+    }
+}
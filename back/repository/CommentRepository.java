@@ -1,11 +1,19 @@
 package com.skill.websockets.repository;
 
 import com.skill.websockets.model.Comment;
+import com.skill.websockets.repository.projection.CommentRow;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface CommentRepository extends JpaRepository<Comment, Long> {
@@ -18,4 +26,170 @@ public interface CommentRepository extends JpaRepository<Comment, Long> {
 
     // Encontrar todas las respuestas a un comentario padre específico
     List<Comment> findByParentComment_IdOrderByFechaComentarioAsc(Long parentCommentId);
-}
\ No newline at end of file
+
+    // Todos los comentarios de varios posts como proyecciones de solo lectura, ordenados por fecha
+    @Query("SELECT new com.skill.websockets.repository.projection.CommentRow(" +
+            "c.id, c.post.id, pc.id, c.user.id, c.contenido, c.fechaComentario, c.replyCount) " +
+            "FROM Comment c LEFT JOIN c.parentComment pc " +
+            "WHERE c.post.id IN :postIds ORDER BY c.fechaComentario, c.id")
+    List<CommentRow> findCommentRowsByPostIdIn(@Param("postIds") Collection<Long> postIds);
+
+    /**
+     * Vista previa del feed: los primeros :limit comentarios de nivel superior de cada post
+     * (orden fechaComentario, id). La posición sale de ROW_NUMBER() por post en una sola pasada
+     * sobre los comentarios de nivel superior, en lugar de contar los anteriores fila a fila.
+     */
+    @Query("SELECT new com.skill.websockets.repository.projection.CommentRow(" +
+            "r.id, r.postId, CAST(NULL AS Long), r.authorId, r.contenido, r.fechaComentario, r.replyCount) " +
+            "FROM (SELECT c.id AS id, c.post.id AS postId, c.user.id AS authorId, c.contenido AS contenido, " +
+            "c.fechaComentario AS fechaComentario, c.replyCount AS replyCount, " +
+            "ROW_NUMBER() OVER (PARTITION BY c.post.id ORDER BY c.fechaComentario, c.id) AS posicion " +
+            "FROM Comment c WHERE c.post.id IN :postIds AND c.parentComment IS NULL) r " +
+            "WHERE r.posicion <= :limit " +
+            "ORDER BY r.fechaComentario, r.id")
+    List<CommentRow> findPreviewRowsByPostIdIn(@Param("postIds") Collection<Long> postIds, @Param("limit") long limit);
+
+    // Primera página de comentarios de nivel superior de un post (keyset: fechaComentario, id)
+    @Query("SELECT new com.skill.websockets.repository.projection.CommentRow(" +
+            "c.id, c.post.id, pc.id, c.user.id, c.contenido, c.fechaComentario, c.replyCount) " +
+            "FROM Comment c LEFT JOIN c.parentComment pc " +
+            "WHERE c.post.id = :postId AND pc IS NULL ORDER BY c.fechaComentario, c.id")
+    List<CommentRow> findFirstTopLevelRows(@Param("postId") Long postId, Pageable pageable);
+
+    // Páginas siguientes: comentarios de nivel superior posteriores al cursor (fechaComentario, id)
+    @Query("SELECT new com.skill.websockets.repository.projection.CommentRow(" +
+            "c.id, c.post.id, pc.id, c.user.id, c.contenido, c.fechaComentario, c.replyCount) " +
+            "FROM Comment c LEFT JOIN c.parentComment pc " +
+            "WHERE c.post.id = :postId AND pc IS NULL AND " +
+            "(c.fechaComentario > :afterFecha OR (c.fechaComentario = :afterFecha AND c.id > :afterId)) " +
+            "ORDER BY c.fechaComentario, c.id")
+    List<CommentRow> findTopLevelRowsAfter(@Param("postId") Long postId,
+                                           @Param("afterFecha") LocalDateTime afterFecha,
+                                           @Param("afterId") Long afterId,
+                                           Pageable pageable);
+
+    // Primera página de respuestas directas de un comentario (keyset: fechaComentario, id)
+    @Query("SELECT new com.skill.websockets.repository.projection.CommentRow(" +
+            "c.id, c.post.id, pc.id, c.user.id, c.contenido, c.fechaComentario, c.replyCount) " +
+            "FROM Comment c JOIN c.parentComment pc " +
+            "WHERE pc.id = :parentId ORDER BY c.fechaComentario, c.id")
+    List<CommentRow> findFirstReplyRows(@Param("parentId") Long parentId, Pageable pageable);
+
+    // Páginas siguientes de respuestas directas, posteriores al cursor (fechaComentario, id)
+    @Query("SELECT new com.skill.websockets.repository.projection.CommentRow(" +
+            "c.id, c.post.id, pc.id, c.user.id, c.contenido, c.fechaComentario, c.replyCount) " +
+            "FROM Comment c JOIN c.parentComment pc " +
+            "WHERE pc.id = :parentId AND " +
+            "(c.fechaComentario > :afterFecha OR (c.fechaComentario = :afterFecha AND c.id > :afterId)) " +
+            "ORDER BY c.fechaComentario, c.id")
+    List<CommentRow> findReplyRowsAfter(@Param("parentId") Long parentId,
+                                        @Param("afterFecha") LocalDateTime afterFecha,
+                                        @Param("afterId") Long afterId,
+                                        Pageable pageable);
+
+    /**
+     * Descendientes de varios comentarios del mismo nivel con una sola consulta de rango sobre `ruta`
+     * ([low, high) cubre todos los subárboles; el filtro por prefijo descarta los comentarios de en medio).
+     * Solo se devuelven los niveles entre minDepth y maxDepth, ordenados por fecha.
+     */
+    @Query("SELECT new com.skill.websockets.repository.projection.CommentRow(" +
+            "c.id, c.post.id, pc.id, c.user.id, c.contenido, c.fechaComentario, c.replyCount) " +
+            "FROM Comment c JOIN c.parentComment pc " +
+            "WHERE c.ruta > :low AND c.ruta < :high " +
+            "AND SUBSTRING(c.ruta, 1, :prefixLength) IN :prefixes " +
+            "AND c.profundidad BETWEEN :minDepth AND :maxDepth " +
+            "ORDER BY c.fechaComentario, c.id")
+    List<CommentRow> findSubtreeRows(@Param("low") String low,
+                                     @Param("high") String high,
+                                     @Param("prefixLength") int prefixLength,
+                                     @Param("prefixes") Collection<String> prefixes,
+                                     @Param("minDepth") int minDepth,
+                                     @Param("maxDepth") int maxDepth);
+
+    @Query("SELECT new com.skill.websockets.repository.projection.CommentRow(" +
+            "c.id, c.post.id, pc.id, c.user.id, c.contenido, c.fechaComentario, c.replyCount) " +
+            "FROM Comment c LEFT JOIN c.parentComment pc WHERE c.id = :commentId")
+    Optional<CommentRow> findCommentRowById(@Param("commentId") Long commentId);
+
+    // Vacío tanto si el comentario no existe como si aún no tiene ruta (ver CommentPathBackfill)
+    @Query("SELECT c.ruta FROM Comment c WHERE c.id = :commentId")
+    Optional<String> findRutaById(@Param("commentId") Long commentId);
+
+    // Respuestas directas de varios comentarios, ordenadas por fecha: recorrido por niveles de subárboles sin ruta
+    @Query("SELECT new com.skill.websockets.repository.projection.CommentRow(" +
+            "c.id, c.post.id, pc.id, c.user.id, c.contenido, c.fechaComentario, c.replyCount) " +
+            "FROM Comment c JOIN c.parentComment pc " +
+            "WHERE pc.id IN :parentIds ORDER BY c.fechaComentario, c.id")
+    List<CommentRow> findReplyRowsByParentIdIn(@Param("parentIds") Collection<Long> parentIds);
+
+    // IDs de un subárbol (el comentario incluido) por rango de rutas
+    @Query("SELECT c.id FROM Comment c WHERE c.ruta >= :low AND c.ruta < :high")
+    List<Long> findIdsByRutaRange(@Param("low") String low, @Param("high") String high);
+
+    // Relleno de rutas de comentarios anteriores a la columna (ver CommentPathBackfill)
+    @Query("SELECT c.id, c.post.id FROM Comment c WHERE c.ruta IS NULL AND c.parentComment IS NULL")
+    List<Object[]> findRootsWithoutPath(Pageable pageable);
+
+    @Query("SELECT c.id, pc.ruta FROM Comment c JOIN c.parentComment pc WHERE c.ruta IS NULL AND pc.ruta IS NOT NULL")
+    List<Object[]> findRepliesWithoutPath(Pageable pageable);
+
+    @Modifying
+    @Query("UPDATE Comment c SET c.ruta = :ruta, c.profundidad = :profundidad WHERE c.id = :commentId")
+    int setPath(@Param("commentId") Long commentId, @Param("ruta") String ruta, @Param("profundidad") int profundidad);
+
+    // ID del post al que pertenece un comentario, sin cargar la entidad
+    @Query("SELECT c.post.id FROM Comment c WHERE c.id = :commentId")
+    Optional<Long> findPostIdById(@Param("commentId") Long commentId);
+
+    // ID del autor de un comentario, sin cargar la entidad
+    @Query("SELECT c.user.id FROM Comment c WHERE c.id = :commentId")
+    Optional<Long> findAuthorIdById(@Param("commentId") Long commentId);
+
+    // Ajusta atómicamente el contador de respuestas de un comentario
+    @Modifying
+    @Query("UPDATE Comment c SET c.replyCount = c.replyCount + :delta WHERE c.id = :commentId")
+    int addToReplyCount(@Param("commentId") Long commentId, @Param("delta") int delta);
+
+    @Modifying
+    @Query("UPDATE Comment c SET c.replyCount = :replyCount WHERE c.id = :commentId")
+    int setReplyCount(@Param("commentId") Long commentId, @Param("replyCount") int replyCount);
+
+    // Conteos reales usados por la reconciliación de contadores
+    @Query("SELECT c.post.id, COUNT(c) FROM Comment c GROUP BY c.post.id")
+    List<Object[]> countCommentsGroupedByPost();
+
+    @Query("SELECT c.parentComment.id, COUNT(c) FROM Comment c WHERE c.parentComment IS NOT NULL GROUP BY c.parentComment.id")
+    List<Object[]> countRepliesGroupedByParent();
+
+    @Query("SELECT c.id, c.replyCount FROM Comment c WHERE c.replyCount <> 0")
+    List<Object[]> findNonZeroReplyCounts();
+
+    // Post y fecha de los comentarios recientes (arranque del ranking de tendencias)
+    @Query("SELECT c.post.id, c.fechaComentario FROM Comment c WHERE c.fechaComentario >= :since")
+    Stream<Object[]> streamPostCommentTimesSince(@Param("since") LocalDateTime since);
+
+    // ID, post y contenido de todos los comentarios, para construir el índice de búsqueda
+    @Query("SELECT c.id, c.post.id, c.contenido FROM Comment c")
+    Stream<Object[]> streamSearchableRows();
+
+    // ========== BORRADO EN BLOQUE (ver PostDeletionService y deleteComment) ==========
+    // Antes de borrar se anula id_comentario_padre: así el DELETE no depende del orden en que el motor
+    // compruebe esa clave foránea (MySQL la comprueba fila a fila)
+
+    @Modifying
+    @Query("UPDATE Comment c SET c.parentComment = NULL WHERE c.post.id = :postId AND c.parentComment IS NOT NULL")
+    int detachRepliesByPostId(@Param("postId") Long postId);
+
+    @Modifying
+    @Query("DELETE FROM Comment c WHERE c.post.id = :postId")
+    int deleteAllByPostId(@Param("postId") Long postId);
+
+    @Modifying
+    @Query("UPDATE Comment c SET c.parentComment = NULL " +
+            "WHERE c.ruta >= :low AND c.ruta < :high AND c.parentComment IS NOT NULL")
+    int detachRepliesByRutaRange(@Param("low") String low, @Param("high") String high);
+
+    @Modifying
+    @Query("DELETE FROM Comment c WHERE c.ruta >= :low AND c.ruta < :high")
+    int deleteByRutaRange(@Param("low") String low, @Param("high") String high);
+}
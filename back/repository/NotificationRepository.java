@@ -0,0 +1,25 @@
+package com.skill.websockets.repository;
+
+import com.skill.websockets.model.Notification;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface NotificationRepository extends JpaRepository<Notification, Long> {
+
+    // Las más recientes de un usuario (para rellenar su bandeja en memoria)
+    @Query("SELECT n FROM Notification n WHERE n.recipientId = :recipientId ORDER BY n.id DESC")
+    List<Notification> findLatestByRecipientId(@Param("recipientId") Long recipientId, Pageable pageable);
+
+    // Marca como leídas todas las notificaciones del usuario hasta la indicada
+    @Modifying
+    @Query("UPDATE Notification n SET n.leida = true " +
+            "WHERE n.recipientId = :recipientId AND n.id <= :upToId AND n.leida = false")
+    int markReadUpTo(@Param("recipientId") Long recipientId, @Param("upToId") Long upToId);
+}
@@ -1,17 +1,91 @@
 package com.skill.websockets.repository;
 
 import com.skill.websockets.model.Post;
+import com.skill.websockets.repository.projection.PostRow;
+import com.skill.websockets.repository.projection.PostTagRow;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
 @Repository
 public interface PostRepository extends JpaRepository<Post, Long> {
     List<Post> findByUser_Id(Long userId);
 
+    // Solo los IDs: el resto de la representación sale de PostRenderCache
+    @Query("SELECT p.id FROM Post p ORDER BY p.id")
+    List<Long> findAllIds();
+
+    @Query("SELECT p.id FROM Post p WHERE p.user.id = :userId ORDER BY p.id")
+    List<Long> findIdsByUserId(@Param("userId") Long userId);
+
+    // ========== PROYECCIONES DE SOLO LECTURA (sin entidades gestionadas) ==========
+
+    @Query("SELECT new com.skill.websockets.repository.projection.PostRow(" +
+            "p.id, p.user.id, p.contenido, p.fechaPublicacion, p.commentCount) " +
+            "FROM Post p WHERE p.id IN :postIds")
+    List<PostRow> findPostRowsByIdIn(@Param("postIds") Collection<Long> postIds);
+
+    @Query("SELECT new com.skill.websockets.repository.projection.PostTagRow(p.id, t.nombreEtiqueta) " +
+            "FROM Post p JOIN p.tags t WHERE p.id IN :postIds")
+    List<PostTagRow> findTagRowsByPostIdIn(@Param("postIds") Collection<Long> postIds);
+
+    // IDs de las etiquetas de un post
+    @Query("SELECT t.id FROM Post p JOIN p.tags t WHERE p.id = :postId")
+    Set<Long> findTagIdsByPostId(@Param("postId") Long postId);
+
+    // Recorre todos los posts con un cursor de base de datos. Debe consumirse dentro de una
+    // transacción y cerrarse al terminar.
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "200"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")
+    })
+    @Query("SELECT new com.skill.websockets.repository.projection.PostRow(" +
+            "p.id, p.user.id, p.contenido, p.fechaPublicacion, p.commentCount) " +
+            "FROM Post p ORDER BY p.id")
+    Stream<PostRow> streamAllPostRows();
+
+    // Ajusta atómicamente el contador de comentarios de un post
+    @Modifying
+    @Query("UPDATE Post p SET p.commentCount = p.commentCount + :delta WHERE p.id = :postId")
+    int addToCommentCount(@Param("postId") Long postId, @Param("delta") int delta);
+
+    @Modifying
+    @Query("UPDATE Post p SET p.commentCount = :commentCount WHERE p.id = :postId")
+    int setCommentCount(@Param("postId") Long postId, @Param("commentCount") int commentCount);
+
+    // Posts cuyo contador almacenado no es 0 (para la reconciliación de contadores)
+    @Query("SELECT p.id, p.commentCount FROM Post p WHERE p.commentCount <> 0")
+    List<Object[]> findNonZeroCommentCounts();
+
     // Puedes añadir métodos personalizados si los necesitas, por ejemplo:
     // List<Post> findByUserId(Long userId); // Encontrar posts por el ID de usuario
     // List<Post> findByTags_NombreEtiqueta(String tagName); // Encontrar posts por el nombre de la etiqueta
-}
\ No newline at end of file
+
+    // ID, título y contenido de todos los posts, para construir el índice de búsqueda
+    @Query("SELECT p.id, p.titulo, p.contenido FROM Post p")
+    Stream<Object[]> streamSearchableRows();
+
+    // Número de comentarios del post, sin cargar la entidad (decide si el borrado va en segundo plano)
+    @Query("SELECT p.commentCount FROM Post p WHERE p.id = :postId")
+    Optional<Integer> findCommentCountById(@Param("postId") Long postId);
+
+    // Carga el post bloqueando su fila hasta el final de la transacción: un comentario que llegue durante
+    // el borrado espera al commit y falla por la clave foránea en lugar de quedar huérfano
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p FROM Post p WHERE p.id = :postId")
+    Optional<Post> findByIdForUpdate(@Param("postId") Long postId);
+}
@@ -0,0 +1,82 @@
+package com.skill.websockets.repository;
+
+import com.skill.websockets.model.ReactionCount;
+import com.skill.websockets.model.TargetType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface ReactionCountRepository extends JpaRepository<ReactionCount, ReactionCount.ReactionCountId> {
+
+    // Suma (o resta) atómicamente un delta al shard indicado. Devuelve 0 si la fila todavía no existe.
+    @Modifying
+    @Query("UPDATE ReactionCount rc SET rc.count = rc.count + :delta " +
+            "WHERE rc.id.targetId = :targetId AND rc.id.targetType = :targetType " +
+            "AND rc.id.reactionTypeId = :reactionTypeId AND rc.id.shard = :shard")
+    int addToCount(@Param("targetId") Long targetId,
+                   @Param("targetType") TargetType targetType,
+                   @Param("reactionTypeId") Long reactionTypeId,
+                   @Param("shard") Integer shard,
+                   @Param("delta") long delta);
+
+    // Conteos por tipo para un único target, sumando sus shards (búsqueda por prefijo de la clave primaria)
+    @Query("SELECT rt.nombreReaccion, SUM(rc.count) " +
+            "FROM ReactionCount rc JOIN rc.reactionType rt " +
+            "WHERE rc.id.targetId = :targetId AND rc.id.targetType = :targetType " +
+            "GROUP BY rt.nombreReaccion")
+    List<Object[]> findCountsByTargetIdAndTargetType(@Param("targetId") Long targetId,
+                                                     @Param("targetType") TargetType targetType);
+
+    // Conteos por tipo para varios targets del mismo tipo en una sola consulta IN, sumando sus shards
+    @Query("SELECT rc.id.targetId, rt.nombreReaccion, SUM(rc.count) " +
+            "FROM ReactionCount rc JOIN rc.reactionType rt " +
+            "WHERE rc.id.targetType = :targetType AND rc.id.targetId IN :targetIds " +
+            "GROUP BY rc.id.targetId, rt.nombreReaccion")
+    List<Object[]> findCountsByTargetIdsAndTargetType(@Param("targetIds") Collection<Long> targetIds,
+                                                      @Param("targetType") TargetType targetType);
+
+    // Targets que tienen conteos repartidos fuera del shard 0. Recorre la tabla: solo se usa al arrancar
+    @Query("SELECT DISTINCT rc.id.targetId, rc.id.targetType FROM ReactionCount rc WHERE rc.id.shard > 0")
+    List<Object[]> findShardedTargets();
+
+    // Filas de los shards secundarios de un target: reactionTypeId, shard, count
+    @Query("SELECT rc.id.reactionTypeId, rc.id.shard, rc.count FROM ReactionCount rc " +
+            "WHERE rc.id.targetId = :targetId AND rc.id.targetType = :targetType AND rc.id.shard > 0")
+    List<Object[]> findSecondaryShardRows(@Param("targetId") Long targetId,
+                                          @Param("targetType") TargetType targetType);
+
+    // Borra un shard solo si su conteo no cambió desde que se leyó; devuelve 0 si otro toggle lo modificó
+    @Modifying
+    @Query("DELETE FROM ReactionCount rc " +
+            "WHERE rc.id.targetId = :targetId AND rc.id.targetType = :targetType " +
+            "AND rc.id.reactionTypeId = :reactionTypeId AND rc.id.shard = :shard AND rc.count = :expected")
+    int deleteShardIfCount(@Param("targetId") Long targetId,
+                           @Param("targetType") TargetType targetType,
+                           @Param("reactionTypeId") Long reactionTypeId,
+                           @Param("shard") Integer shard,
+                           @Param("expected") Long expected);
+
+    // ========== BORRADO EN BLOQUE (todos los shards de los targets eliminados) ==========
+
+    @Modifying
+    @Query("DELETE FROM ReactionCount rc WHERE rc.id.targetType = :targetType AND rc.id.targetId IN :targetIds")
+    int deleteByTargetIds(@Param("targetType") TargetType targetType, @Param("targetIds") Collection<Long> targetIds);
+
+    @Modifying
+    @Query("DELETE FROM ReactionCount rc WHERE rc.id.targetType = :commentType AND rc.id.targetId IN " +
+            "(SELECT c.id FROM Comment c WHERE c.post.id = :postId)")
+    int deleteCommentCountsByPostId(@Param("commentType") TargetType commentType, @Param("postId") Long postId);
+
+    @Modifying
+    @Query("DELETE FROM ReactionCount rc WHERE rc.id.targetType = :commentType AND rc.id.targetId IN " +
+            "(SELECT c.id FROM Comment c WHERE c.ruta >= :low AND c.ruta < :high)")
+    int deleteCommentCountsByRutaRange(@Param("commentType") TargetType commentType,
+                                       @Param("low") String low,
+                                       @Param("high") String high);
+}
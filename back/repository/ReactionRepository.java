@@ -4,12 +4,16 @@ package com.skill.websockets.repository;
 import com.skill.websockets.model.Reaction;
 import com.skill.websockets.model.TargetType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface ReactionRepository extends JpaRepository<Reaction, Reaction.ReactionId> {
@@ -26,6 +30,13 @@ public interface ReactionRepository extends JpaRepository<Reaction, Reaction.Rea
             "GROUP BY rt.nombreReaccion")
     List<Object[]> countReactionsByTargetIdAndTargetType(@Param("targetId") Long targetId, @Param("targetType") TargetType targetType);
 
+    // Conteo agregado de todas las reacciones por target y tipo. Solo lo usa la reconciliación
+    // de reaction_counts; las lecturas normales van contra ReactionCountRepository.
+    @Query("SELECT r.id.targetId, r.id.targetType, r.reactionType.id, COUNT(r) " +
+            "FROM Reaction r " +
+            "GROUP BY r.id.targetId, r.id.targetType, r.reactionType.id")
+    List<Object[]> countAllGroupedByTargetAndReactionType();
+
     // Consulta JPQL explícita para obtener el tipo de reacción de un usuario para un target
     // ¡CORREGIDO: Usando 'nombreReaccion' en lugar de 'nombreTipo'!
     @Query("SELECT r.reactionType.nombreReaccion FROM Reaction r " +
@@ -34,4 +45,44 @@ public interface ReactionRepository extends JpaRepository<Reaction, Reaction.Rea
             @Param("userId") Long userId,
             @Param("targetId") Long targetId,
             @Param("targetType") TargetType targetType);
-}
\ No newline at end of file
+
+    // Reacciones de un usuario a varios targets del mismo tipo, en una sola consulta IN
+    @Query("SELECT r.id.targetId, r.reactionType.nombreReaccion FROM Reaction r " +
+            "WHERE r.id.userId = :userId AND r.id.targetType = :targetType AND r.id.targetId IN :targetIds")
+    List<Object[]> findUserReactionTypesByUserIdAndTargetIds(
+            @Param("userId") Long userId,
+            @Param("targetIds") Collection<Long> targetIds,
+            @Param("targetType") TargetType targetType);
+
+    // Posts y fecha de las reacciones recientes a posts (arranque del ranking de tendencias)
+    @Query("SELECT r.id.targetId, r.fechaReaccion FROM Reaction r " +
+            "WHERE r.id.targetType = :postType AND r.fechaReaccion >= :since")
+    Stream<Object[]> streamPostReactionTimesSince(@Param("postType") TargetType postType,
+                                                  @Param("since") LocalDateTime since);
+
+    // Igual, para reacciones a comentarios: se atribuyen al post del comentario
+    @Query("SELECT c.post.id, r.fechaReaccion FROM Reaction r, Comment c " +
+            "WHERE r.id.targetType = :commentType AND c.id = r.id.targetId AND r.fechaReaccion >= :since")
+    Stream<Object[]> streamCommentReactionTimesSince(@Param("commentType") TargetType commentType,
+                                                     @Param("since") LocalDateTime since);
+
+    // ========== BORRADO EN BLOQUE (los targets no tienen clave foránea: hay que borrarlas explícitamente) ==========
+
+    @Modifying
+    @Query("DELETE FROM Reaction r WHERE r.id.targetType = :targetType AND r.id.targetId IN :targetIds")
+    int deleteByTargetIds(@Param("targetType") TargetType targetType, @Param("targetIds") Collection<Long> targetIds);
+
+    // Reacciones a todos los comentarios de un post
+    @Modifying
+    @Query("DELETE FROM Reaction r WHERE r.id.targetType = :commentType AND r.id.targetId IN " +
+            "(SELECT c.id FROM Comment c WHERE c.post.id = :postId)")
+    int deleteCommentReactionsByPostId(@Param("commentType") TargetType commentType, @Param("postId") Long postId);
+
+    // Reacciones a los comentarios de un subárbol (rango de rutas)
+    @Modifying
+    @Query("DELETE FROM Reaction r WHERE r.id.targetType = :commentType AND r.id.targetId IN " +
+            "(SELECT c.id FROM Comment c WHERE c.ruta >= :low AND c.ruta < :high)")
+    int deleteCommentReactionsByRutaRange(@Param("commentType") TargetType commentType,
+                                          @Param("low") String low,
+                                          @Param("high") String high);
+}
@@ -1,14 +1,24 @@
 package com.skill.websockets.repository;
 
 import com.skill.websockets.model.ReactionType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface ReactionTypeRepository extends JpaRepository<ReactionType, Long> {
 
-    // Método para encontrar un tipo de reacción por su nombre
+    // Método para encontrar un tipo de reacción por su nombre (resultado en la caché de consultas de Hibernate)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<ReactionType> findByNombreReaccion(String nombreReaccion);
+
+    // La lista completa se pide en cada lectura de conteos; es pequeña y casi nunca cambia
+    @Override
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    List<ReactionType> findAll();
 }
\ No newline at end of file
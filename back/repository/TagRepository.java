@@ -1,14 +1,29 @@
 package com.skill.websockets.repository;
 
 import com.skill.websockets.model.Tag;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface TagRepository extends JpaRepository<Tag, Long> {
 
-    // Método para encontrar una etiqueta por su nombre
+    // Método para encontrar una etiqueta por su nombre (resultado en la caché de consultas de Hibernate)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<Tag> findByNombreEtiqueta(String nombreEtiqueta);
-}
\ No newline at end of file
+
+    // ID, nombre y número de posts de cada etiqueta (solo al construir los índices en memoria)
+    @Query("SELECT t.id, t.nombreEtiqueta, COUNT(p) FROM Tag t LEFT JOIN t.posts p GROUP BY t.id, t.nombreEtiqueta")
+    List<Object[]> findAllWithPostCounts();
+
+    // Número de posts que comparten cada par de etiquetas (first < second; solo al arrancar)
+    @Query("SELECT a.id, b.id, COUNT(p) FROM Post p JOIN p.tags a JOIN p.tags b " +
+            "WHERE a.id < b.id GROUP BY a.id, b.id")
+    List<Object[]> countTagPairs();
+}
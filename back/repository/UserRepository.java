@@ -1,9 +1,14 @@
 package com.skill.websockets.repository;
 
 import com.skill.websockets.model.User;
+import com.skill.websockets.repository.projection.AuthorRow;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional; // Usaremos Optional para métodos que pueden no encontrar un resultado
 
 @Repository // Indica que esta interfaz es un componente de repositorio de Spring
@@ -15,4 +20,10 @@ public interface UserRepository extends JpaRepository<User, Long> {
 
     // Método personalizado para encontrar un usuario por su nombre de usuario
     Optional<User> findByNombreUsuario(String nombreUsuario);
+
+    // Datos de autor de varios usuarios en una consulta IN, sin cargar entidades gestionadas
+    @Query("SELECT new com.skill.websockets.repository.projection.AuthorRow(" +
+            "u.id, u.nombreUsuario, u.avatarUrl, u.rol, u.cuentaVerificada) " +
+            "FROM User u WHERE u.id IN :userIds")
+    List<AuthorRow> findAuthorRowsByIdIn(@Param("userIds") Collection<Long> userIds);
 }
\ No newline at end of file
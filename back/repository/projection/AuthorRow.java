@@ -0,0 +1,11 @@
+package com.skill.websockets.repository.projection;
+
+/**
+ * Columnas de `usuarios` que se muestran como autor de un post o comentario.
+ */
+public record AuthorRow(Long id,
+                        String nombreUsuario,
+                        String avatarUrl,
+                        String rol,
+                        Boolean cuentaVerificada) {
+}
@@ -0,0 +1,15 @@
+package com.skill.websockets.repository.projection;
+
+import java.time.LocalDateTime;
+
+/**
+ * Fila de solo lectura de `comentarios` para construir CommentDTO sin cargar entidades gestionadas.
+ */
+public record CommentRow(Long id,
+                         Long postId,
+                         Long parentCommentId,
+                         Long authorId,
+                         String contenido,
+                         LocalDateTime fechaComentario,
+                         Integer replyCount) {
+}
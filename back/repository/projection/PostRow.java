@@ -0,0 +1,13 @@
+package com.skill.websockets.repository.projection;
+
+import java.time.LocalDateTime;
+
+/**
+ * Fila de solo lectura de `posts` para construir PostDTO sin cargar entidades gestionadas.
+ */
+public record PostRow(Long id,
+                      Long authorId,
+                      String contenido,
+                      LocalDateTime fechaPublicacion,
+                      Integer commentCount) {
+}
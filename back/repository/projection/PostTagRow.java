@@ -0,0 +1,7 @@
+package com.skill.websockets.repository.projection;
+
+/**
+ * Par (post, nombre de etiqueta) de `post_etiquetas`.
+ */
+public record PostTagRow(Long postId, String nombreEtiqueta) {
+}
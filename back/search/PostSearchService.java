@@ -0,0 +1,193 @@
+package com.skill.websockets.search;
+
+import com.skill.websockets.event.CommentCreatedEvent;
+import com.skill.websockets.event.CommentsDeletedEvent;
+import com.skill.websockets.event.PostContentChangedEvent;
+import com.skill.websockets.event.PostDeletedEvent;
+import com.skill.websockets.repository.CommentRepository;
+import com.skill.websockets.repository.PostRepository;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.stream.Stream;
+
+/**
+ * Búsqueda de texto completo sobre posts (título y contenido) y sus comentarios, con índices invertidos en memoria.
+ *
+ * Se reconstruye desde la base de datos al arrancar y después se mantiene con los eventos de PostService
+ * y CommentService, aplicados tras el commit: un cambio es buscable en cuanto se confirma.
+ * Un post puntúa por su propio texto (el título cuenta titleWeight veces) más commentWeight veces
+ * la puntuación de su mejor comentario.
+ */
+@Component
+public class PostSearchService {
+
+    private static final Logger log = LoggerFactory.getLogger(PostSearchService.class);
+
+    /**
+     * Una página de resultados: IDs de post por relevancia y si hay más después.
+     */
+    public record SearchPage(List<Long> postIds, boolean hasMore) {
+    }
+
+    private record Hit(long postId, double score) {
+    }
+
+    private final PostRepository postRepository;
+    private final CommentRepository commentRepository;
+
+    private final InvertedIndex postIndex = new InvertedIndex();
+    private final InvertedIndex commentIndex = new InvertedIndex();
+    private final ConcurrentMap<Long, Long> postByComment = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Long, Set<Long>> commentsByPost = new ConcurrentHashMap<>();
+
+    private final int titleWeight;
+    private final double commentWeight;
+    // Profundidad máxima de la paginación: acota el montículo de search() sea cual sea el cursor
+    private final int maxResults;
+
+    @Autowired
+    public PostSearchService(PostRepository postRepository,
+                             CommentRepository commentRepository,
+                             @Value("${app.search.title-weight:2}") int titleWeight,
+                             @Value("${app.search.comment-weight:0.5}") double commentWeight,
+                             @Value("${app.search.max-results:1000}") int maxResults) {
+        this.postRepository = postRepository;
+        this.commentRepository = commentRepository;
+        this.titleWeight = titleWeight;
+        this.commentWeight = commentWeight;
+        this.maxResults = maxResults;
+    }
+
+    /**
+     * Posts que contienen alguno de los términos de la consulta, de más a menos relevante.
+     * Solo ordena parcialmente los offset + limit primeros resultados, y nunca más allá de maxResults.
+     *
+     * @throws IllegalArgumentException si offset es negativo o pasa de maxResults.
+     */
+    public SearchPage search(String query, int offset, int limit) {
+        if (offset < 0 || offset > maxResults) {
+            throw new IllegalArgumentException("La búsqueda solo devuelve los " + maxResults + " primeros resultados");
+        }
+        // Sin pasar de maxResults; en long para que offset + limit no desborde
+        int pageSize = (int) Math.max(0, Math.min((long) limit, (long) maxResults - offset));
+        Set<String> terms = new LinkedHashSet<>(TextNormalizer.tokenize(query));
+        if (terms.isEmpty()) {
+            return new SearchPage(List.of(), false);
+        }
+
+        Map<Long, Double> scores = new HashMap<>(postIndex.score(terms));
+        Map<Long, Double> bestCommentByPost = new HashMap<>();
+        commentIndex.score(terms).forEach((commentId, score) -> {
+            Long postId = postByComment.get(commentId);
+            if (postId != null) {
+                bestCommentByPost.merge(postId, score, Math::max);
+            }
+        });
+        bestCommentByPost.forEach((postId, score) -> scores.merge(postId, commentWeight * score, Double::sum));
+
+        // Montículo de tamaño offset + pageSize + 1 con el peor resultado en la cima; nunca mayor que los candidatos
+        int wanted = offset + pageSize + 1;
+        Comparator<Hit> byRelevance = Comparator.comparingDouble(Hit::score).thenComparingLong(Hit::postId);
+        PriorityQueue<Hit> best = new PriorityQueue<>(Math.min(wanted, scores.size() + 1), byRelevance);
+        scores.forEach((postId, score) -> {
+            best.add(new Hit(postId, score));
+            if (best.size() > wanted) {
+                best.poll();
+            }
+        });
+
+        List<Hit> ranked = new ArrayList<>(best);
+        ranked.sort(byRelevance.reversed());
+        List<Long> page = ranked.stream()
+                .skip(offset)
+                .limit(pageSize)
+                .map(Hit::postId)
+                .toList();
+        // En maxResults la paginación termina aunque queden resultados
+        return new SearchPage(page, offset + pageSize < maxResults && ranked.size() > offset + pageSize);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPostContentChanged(PostContentChangedEvent event) {
+        indexPost(event.postId(), event.titulo(), event.contenido());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPostDeleted(PostDeletedEvent event) {
+        postIndex.remove(event.postId());
+        Set<Long> commentIds = commentsByPost.remove(event.postId());
+        if (commentIds != null) {
+            commentIds.forEach(this::removeComment);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCommentCreated(CommentCreatedEvent event) {
+        indexComment(event.commentId(), event.postId(), event.contenido());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCommentsDeleted(CommentsDeletedEvent event) {
+        event.commentIds().forEach(this::removeComment);
+    }
+
+    /**
+     * Construye los índices recorriendo posts y comentarios con un cursor.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        try (Stream<Object[]> rows = postRepository.streamSearchableRows()) {
+            rows.forEach(row -> indexPost((Long) row[0], (String) row[1], (String) row[2]));
+        }
+        try (Stream<Object[]> rows = commentRepository.streamSearchableRows()) {
+            rows.forEach(row -> indexComment((Long) row[0], (Long) row[1], (String) row[2]));
+        }
+        log.info("Índice de búsqueda construido: {} posts, {} comentarios", postIndex.size(), commentIndex.size());
+    }
+
+    private void indexPost(Long postId, String titulo, String contenido) {
+        Map<String, Integer> frequencies = new HashMap<>();
+        TextNormalizer.tokenize(titulo).forEach(term -> frequencies.merge(term, titleWeight, Integer::sum));
+        TextNormalizer.tokenize(contenido).forEach(term -> frequencies.merge(term, 1, Integer::sum));
+        postIndex.put(postId, frequencies);
+    }
+
+    private void indexComment(Long commentId, Long postId, String contenido) {
+        Map<String, Integer> frequencies = new HashMap<>();
+        TextNormalizer.tokenize(contenido).forEach(term -> frequencies.merge(term, 1, Integer::sum));
+        commentIndex.put(commentId, frequencies);
+        postByComment.put(commentId, postId);
+        commentsByPost.computeIfAbsent(postId, id -> ConcurrentHashMap.newKeySet()).add(commentId);
+    }
+
+    private void removeComment(Long commentId) {
+        commentIndex.remove(commentId);
+        Long postId = postByComment.remove(commentId);
+        if (postId != null) {
+            Set<Long> siblings = commentsByPost.get(postId);
+            if (siblings != null) {
+                siblings.remove(commentId);
+            }
+        }
+    }
+}
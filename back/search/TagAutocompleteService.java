@@ -0,0 +1,127 @@
+package com.skill.websockets.search;
+
+import com.skill.websockets.dto.TagSuggestionDTO;
+import com.skill.websockets.event.PostTagsChangedEvent;
+import com.skill.websockets.event.TagCreatedEvent;
+import com.skill.websockets.event.TagDeletedEvent;
+import com.skill.websockets.repository.TagRepository;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Autocompletado de etiquetas por prefijo, sin distinguir mayúsculas ni tildes y ordenado por popularidad
+ * (número de posts que usan la etiqueta). Todo se resuelve en memoria con TagTrie.
+ *
+ * Se construye al arrancar con el número de posts de cada etiqueta y se mantiene con los eventos
+ * de TagService (altas y bajas de etiquetas y cambios en las etiquetas de cada post).
+ */
+@Component
+public class TagAutocompleteService {
+
+    private static final Logger log = LoggerFactory.getLogger(TagAutocompleteService.class);
+
+    public static final int MAX_SUGGESTIONS = TagTrie.TOP_K;
+
+    private final TagRepository tagRepository;
+    private final TagTrie trie = new TagTrie();
+    private final Map<Long, TagTrie.Entry> entriesById = new HashMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    @Autowired
+    public TagAutocompleteService(TagRepository tagRepository) {
+        this.tagRepository = tagRepository;
+    }
+
+    /**
+     * Hasta `limit` etiquetas (como mucho MAX_SUGGESTIONS) cuyo nombre empieza por el prefijo.
+     */
+    public List<TagSuggestionDTO> suggest(String prefix, int limit) {
+        String key = TextNormalizer.normalize(prefix).strip();
+        lock.readLock().lock();
+        try {
+            return trie.complete(key, Math.min(limit, MAX_SUGGESTIONS)).stream()
+                    .map(entry -> new TagSuggestionDTO(entry.tagId, entry.name, entry.popularity))
+                    .toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTagCreated(TagCreatedEvent event) {
+        add(event.tagId(), event.nombreEtiqueta(), 0);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPostTagsChanged(PostTagsChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            event.previousTagIds().stream()
+                    .filter(tagId -> !event.currentTagIds().contains(tagId))
+                    .forEach(tagId -> adjustPopularity(tagId, -1));
+            event.currentTagIds().stream()
+                    .filter(tagId -> !event.previousTagIds().contains(tagId))
+                    .forEach(tagId -> adjustPopularity(tagId, 1));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTagDeleted(TagDeletedEvent event) {
+        lock.writeLock().lock();
+        try {
+            TagTrie.Entry entry = entriesById.remove(event.tagId());
+            if (entry != null) {
+                trie.remove(entry);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Carga todas las etiquetas con su número de posts (una única consulta agregada al arrancar).
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        for (Object[] row : tagRepository.findAllWithPostCounts()) {
+            add((Long) row[0], (String) row[1], (Long) row[2]);
+        }
+        log.info("Índice de autocompletado de etiquetas construido: {} etiquetas", entriesById.size());
+    }
+
+    private void add(Long tagId, String name, long popularity) {
+        lock.writeLock().lock();
+        try {
+            if (entriesById.containsKey(tagId)) {
+                return;
+            }
+            TagTrie.Entry entry = new TagTrie.Entry(tagId, name, TextNormalizer.normalize(name).strip(), popularity);
+            entriesById.put(tagId, entry);
+            trie.insert(entry);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void adjustPopularity(Long tagId, long delta) {
+        TagTrie.Entry entry = entriesById.get(tagId);
+        if (entry != null) {
+            trie.updatePopularity(entry, Math.max(0, entry.popularity + delta));
+        }
+    }
+}
@@ -0,0 +1,208 @@
+package com.skill.websockets.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Trie de nombres de etiqueta normalizados en el que cada nodo recuerda las TOP_K etiquetas más populares
+ * de su subárbol. Autocompletar un prefijo es recorrer tantos nodos como caracteres tiene y leer esa lista,
+ * sin importar cuántas etiquetas compartan el prefijo.
+ *
+ * Los hijos se guardan en arrays ordenados (no en un mapa por nodo) para que 100k etiquetas quepan
+ * en poca memoria. Cuando una etiqueta gana popularidad se recoloca en las listas de su camino; cuando
+ * la pierde o se elimina, las listas que la contenían se descartan y se recalculan en la siguiente consulta.
+ *
+ * No es seguro para hilos: TagAutocompleteService serializa las escrituras frente a las lecturas.
+ */
+final class TagTrie {
+
+    static final int TOP_K = 20;
+
+    /**
+     * Etiqueta indexada. La popularidad solo cambia a través de TagTrie.
+     */
+    static final class Entry {
+        final long tagId;
+        final String name;
+        final String key;
+        long popularity;
+
+        Entry(long tagId, String name, String key, long popularity) {
+            this.tagId = tagId;
+            this.name = name;
+            this.key = key;
+            this.popularity = popularity;
+        }
+    }
+
+    // Más popular primero; a igual popularidad, orden alfabético
+    static final Comparator<Entry> BY_POPULARITY = Comparator.<Entry>comparingLong(entry -> entry.popularity).reversed()
+            .thenComparing(entry -> entry.name);
+
+    private static final class Node {
+        char[] labels = new char[0];
+        Node[] children = new Node[0];
+        Entry[] entries = new Entry[0]; // Etiquetas cuyo nombre normalizado termina aquí
+        volatile List<Entry> top = List.of(); // null = hay que recalcularla
+
+        Node child(char label) {
+            int index = Arrays.binarySearch(labels, label);
+            return index >= 0 ? children[index] : null;
+        }
+
+        Node childOrCreate(char label) {
+            int index = Arrays.binarySearch(labels, label);
+            if (index >= 0) {
+                return children[index];
+            }
+            int insertAt = -index - 1;
+            Node created = new Node();
+            char[] newLabels = new char[labels.length + 1];
+            Node[] newChildren = new Node[children.length + 1];
+            System.arraycopy(labels, 0, newLabels, 0, insertAt);
+            System.arraycopy(children, 0, newChildren, 0, insertAt);
+            newLabels[insertAt] = label;
+            newChildren[insertAt] = created;
+            System.arraycopy(labels, insertAt, newLabels, insertAt + 1, labels.length - insertAt);
+            System.arraycopy(children, insertAt, newChildren, insertAt + 1, children.length - insertAt);
+            labels = newLabels;
+            children = newChildren;
+            return created;
+        }
+    }
+
+    private final Node root = new Node();
+
+    void insert(Entry entry) {
+        Node node = root;
+        List<Node> path = new ArrayList<>(entry.key.length() + 1);
+        path.add(node);
+        for (int i = 0; i < entry.key.length(); i++) {
+            node = node.childOrCreate(entry.key.charAt(i));
+            path.add(node);
+        }
+        node.entries = append(node.entries, entry);
+        path.forEach(pathNode -> promote(pathNode, entry));
+    }
+
+    void remove(Entry entry) {
+        List<Node> path = pathTo(entry.key);
+        if (path == null) {
+            return;
+        }
+        Node terminal = path.get(path.size() - 1);
+        terminal.entries = Arrays.stream(terminal.entries).filter(existing -> existing != entry).toArray(Entry[]::new);
+        path.forEach(pathNode -> demote(pathNode, entry));
+    }
+
+    void updatePopularity(Entry entry, long popularity) {
+        long previous = entry.popularity;
+        if (previous == popularity) {
+            return;
+        }
+        List<Node> path = pathTo(entry.key);
+        entry.popularity = popularity;
+        if (path == null) {
+            return;
+        }
+        for (Node node : path) {
+            if (popularity > previous) {
+                promote(node, entry);
+            } else {
+                demote(node, entry);
+            }
+        }
+    }
+
+    /**
+     * Hasta `limit` (como mucho TOP_K) etiquetas cuyo nombre normalizado empieza por el prefijo, más populares primero.
+     */
+    List<Entry> complete(String normalizedPrefix, int limit) {
+        List<Node> path = pathTo(normalizedPrefix);
+        if (path == null) {
+            return List.of();
+        }
+        Node node = path.get(path.size() - 1);
+        List<Entry> top = node.top;
+        if (top == null) {
+            top = collectTop(node);
+            node.top = top;
+        }
+        return top.subList(0, Math.min(limit, top.size()));
+    }
+
+    private List<Node> pathTo(String key) {
+        Node node = root;
+        List<Node> path = new ArrayList<>(key.length() + 1);
+        path.add(node);
+        for (int i = 0; i < key.length() && node != null; i++) {
+            node = node.child(key.charAt(i));
+            path.add(node);
+        }
+        return node != null ? path : null;
+    }
+
+    // La entrada ahora puntúa más: entra en la lista del nodo (o sube dentro de ella) si le corresponde
+    private void promote(Node node, Entry entry) {
+        List<Entry> top = node.top;
+        if (top == null) {
+            return; // Se recalculará entera
+        }
+        boolean present = top.contains(entry);
+        if (!present && top.size() == TOP_K && BY_POPULARITY.compare(entry, top.get(TOP_K - 1)) >= 0) {
+            return;
+        }
+        List<Entry> updated = new ArrayList<>(top);
+        if (!present) {
+            updated.add(entry);
+        }
+        updated.sort(BY_POPULARITY);
+        node.top = List.copyOf(updated.subList(0, Math.min(TOP_K, updated.size())));
+    }
+
+    // La entrada puntúa menos o desaparece: si estaba en la lista, alguien de fuera podría adelantarla
+    private void demote(Node node, Entry entry) {
+        List<Entry> top = node.top;
+        if (top != null && top.contains(entry)) {
+            node.top = null;
+        }
+    }
+
+    private List<Entry> collectTop(Node start) {
+        PriorityQueue<Entry> best = new PriorityQueue<>(TOP_K + 1, BY_POPULARITY.reversed());
+        List<Node> pending = new ArrayList<>();
+        pending.add(start);
+        while (!pending.isEmpty()) {
+            Node node = pending.remove(pending.size() - 1);
+            List<Entry> cached = node != start ? node.top : null;
+            if (cached != null) {
+                // El subárbol del hijo ya está resumido en su lista
+                cached.forEach(entry -> offer(best, entry));
+                continue;
+            }
+            for (Entry entry : node.entries) {
+                offer(best, entry);
+            }
+            pending.addAll(Arrays.asList(node.children));
+        }
+        List<Entry> top = new ArrayList<>(best);
+        top.sort(BY_POPULARITY);
+        return List.copyOf(top);
+    }
+
+    private static void offer(PriorityQueue<Entry> best, Entry entry) {
+        best.add(entry);
+        if (best.size() > TOP_K) {
+            best.poll();
+        }
+    }
+
+    private static Entry[] append(Entry[] entries, Entry entry) {
+        Entry[] extended = Arrays.copyOf(entries, entries.length + 1);
+        extended[entries.length] = entry;
+        return extended;
+    }
+}
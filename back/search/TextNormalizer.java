@@ -0,0 +1,51 @@
+package com.skill.websockets.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Normalización de texto compartida por los índices en memoria: minúsculas, sin tildes ni diéresis
+ * ("Canción" y "cancion" son el mismo término) y dividido en palabras.
+ */
+public final class TextNormalizer {
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern NON_WORD = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    // Palabras tan frecuentes que no ayudan a distinguir documentos (ya normalizadas)
+    private static final Set<String> STOP_WORDS = Set.of(
+            "a", "al", "con", "de", "del", "e", "el", "en", "es", "la", "las", "lo", "los", "mas", "o",
+            "para", "pero", "por", "que", "se", "sin", "su", "sus", "u", "un", "una", "unas", "unos", "y",
+            "and", "in", "is", "it", "of", "on", "the", "to");
+
+    private TextNormalizer() {
+    }
+
+    /**
+     * Minúsculas y sin marcas diacríticas. Conserva espacios y puntuación.
+     */
+    public static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        return DIACRITICS.matcher(decomposed).replaceAll("").toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Términos indexables del texto, en orden y con repeticiones, sin palabras vacías.
+     */
+    public static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        for (String token : NON_WORD.split(normalize(text))) {
+            if (!token.isEmpty() && !STOP_WORDS.contains(token)) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+}
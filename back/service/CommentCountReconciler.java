@@ -0,0 +1,78 @@
+package com.skill.websockets.service;
+
+import com.skill.websockets.repository.CommentRepository;
+import com.skill.websockets.repository.PostRepository;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Recalcula al arrancar los contadores materializados Post.commentCount y Comment.replyCount.
+ * Sirve para rellenar datos anteriores a los contadores y para corregir cualquier desviación;
+ * en funcionamiento normal CommentService los mantiene de forma incremental.
+ */
+@Component
+public class CommentCountReconciler {
+
+    private static final Logger log = LoggerFactory.getLogger(CommentCountReconciler.class);
+
+    private final CommentRepository commentRepository;
+    private final PostRepository postRepository;
+
+    @Autowired
+    public CommentCountReconciler(CommentRepository commentRepository, PostRepository postRepository) {
+        this.commentRepository = commentRepository;
+        this.postRepository = postRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void reconcile() {
+        Map<Long, Integer> expectedComments = toCountMap(commentRepository.countCommentsGroupedByPost());
+        Map<Long, Integer> storedComments = toCountMap(postRepository.findNonZeroCommentCounts());
+        int fixedPosts = 0;
+        for (Long postId : differences(expectedComments, storedComments)) {
+            postRepository.setCommentCount(postId, expectedComments.getOrDefault(postId, 0));
+            fixedPosts++;
+        }
+
+        Map<Long, Integer> expectedReplies = toCountMap(commentRepository.countRepliesGroupedByParent());
+        Map<Long, Integer> storedReplies = toCountMap(commentRepository.findNonZeroReplyCounts());
+        int fixedComments = 0;
+        for (Long commentId : differences(expectedReplies, storedReplies)) {
+            commentRepository.setReplyCount(commentId, expectedReplies.getOrDefault(commentId, 0));
+            fixedComments++;
+        }
+
+        if (fixedPosts > 0 || fixedComments > 0) {
+            log.info("Contadores de comentarios corregidos: {} posts, {} comentarios", fixedPosts, fixedComments);
+        }
+    }
+
+    private Map<Long, Integer> toCountMap(List<Object[]> rows) {
+        Map<Long, Integer> counts = new HashMap<>();
+        for (Object[] row : rows) {
+            counts.put((Long) row[0], ((Number) row[1]).intValue());
+        }
+        return counts;
+    }
+
+    // IDs cuyo valor almacenado no coincide con el real (en ambos mapas, los ausentes valen 0)
+    private Set<Long> differences(Map<Long, Integer> expected, Map<Long, Integer> stored) {
+        Set<Long> ids = new HashSet<>(expected.keySet());
+        ids.addAll(stored.keySet());
+        ids.removeIf(id -> expected.getOrDefault(id, 0).equals(stored.getOrDefault(id, 0)));
+        return ids;
+    }
+}
@@ -0,0 +1,66 @@
+package com.skill.websockets.service;
+
+import com.skill.websockets.repository.CommentRepository;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * Rellena al arrancar la ruta materializada (Comment.ruta/profundidad) de los comentarios que no la tienen,
+ * nivel a nivel: primero los de nivel superior y después las respuestas cuyo padre ya tiene ruta.
+ * Los comentarios nuevos la reciben en CommentService.createComment. Las migraciones que cambian el formato
+ * de la ruta la vacían (ver db/migration) para que se recalcule aquí.
+ */
+@Component
+public class CommentPathBackfill {
+
+    private static final Logger log = LoggerFactory.getLogger(CommentPathBackfill.class);
+    private static final int BATCH_SIZE = 500;
+
+    private final CommentRepository commentRepository;
+
+    @Autowired
+    public CommentPathBackfill(CommentRepository commentRepository) {
+        this.commentRepository = commentRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void backfill() {
+        // Siempre se pide la primera página: las filas actualizadas dejan de cumplir el filtro
+        PageRequest batch = PageRequest.of(0, BATCH_SIZE);
+        int filled = 0;
+
+        List<Object[]> roots;
+        while (!(roots = commentRepository.findRootsWithoutPath(batch)).isEmpty()) {
+            for (Object[] row : roots) {
+                Long id = (Long) row[0];
+                String path = CommentPaths.childPath(CommentPaths.postPath((Long) row[1]), id);
+                commentRepository.setPath(id, path, CommentPaths.depthOf(path));
+            }
+            filled += roots.size();
+        }
+
+        List<Object[]> replies;
+        while (!(replies = commentRepository.findRepliesWithoutPath(batch)).isEmpty()) {
+            for (Object[] row : replies) {
+                Long id = (Long) row[0];
+                String path = CommentPaths.childPath((String) row[1], id);
+                commentRepository.setPath(id, path, CommentPaths.depthOf(path));
+            }
+            filled += replies.size();
+        }
+
+        if (filled > 0) {
+            log.info("Rutas de comentarios rellenadas: {}", filled);
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.skill.websockets.service;
+
+/**
+ * Construcción de rutas materializadas de comentarios (columna `ruta`).
+ *
+ * La ruta empieza por el segmento del post y sigue con un segmento por cada comentario desde la raíz.
+ * Cada segmento es el ID en base 36 (0-9, a-z) con ceros a la izquierda hasta SEGMENT_LENGTH caracteres,
+ * sin separadores. Al no haber signos de puntuación ni mayúsculas, cualquier intercalación ordena las rutas
+ * igual que sus bytes; con ancho fijo, ese orden coincide con el de los IDs en cada nivel. Todos los
+ * descendientes de una ruta R quedan en el rango (R, rangeEnd(R)), y los subárboles de un post no se
+ * mezclan con los de otros posts.
+ */
+public final class CommentPaths {
+
+    public static final int SEGMENT_LENGTH = 8;
+    // Longitud de la columna `ruta`: un segmento para el post y el resto para los niveles del hilo
+    public static final int MAX_PATH_LENGTH = 512;
+    public static final int MAX_DEPTH = MAX_PATH_LENGTH / SEGMENT_LENGTH - 2;
+
+    private static final char MAX_DIGIT = 'z';
+
+    private CommentPaths() {
+    }
+
+    public static String segment(Long id) {
+        String encoded = Long.toString(id, Character.MAX_RADIX);
+        if (encoded.length() > SEGMENT_LENGTH) {
+            throw new IllegalArgumentException("ID demasiado grande para la ruta: " + id);
+        }
+        return "0".repeat(SEGMENT_LENGTH - encoded.length()) + encoded;
+    }
+
+    // Prefijo común de todos los comentarios de un post
+    public static String postPath(Long postId) {
+        return segment(postId);
+    }
+
+    // Ruta de un comentario a partir de la de su padre (postPath para los de nivel superior)
+    public static String childPath(String parentPath, Long id) {
+        return parentPath + segment(id);
+    }
+
+    // Ruta del padre (postPath para los de nivel superior)
+    public static String parentPath(String path) {
+        return path.substring(0, path.length() - SEGMENT_LENGTH);
+    }
+
+    // 0 para los comentarios de nivel superior
+    public static int depthOf(String path) {
+        return path.length() / SEGMENT_LENGTH - 2;
+    }
+
+    // Primera ruta posterior a todo el subárbol: la ruta vista como número en base 36, más uno
+    static String rangeEnd(String path) {
+        char[] digits = path.toCharArray();
+        for (int i = digits.length - 1; i >= 0; i--) {
+            if (digits[i] != MAX_DIGIT) {
+                digits[i] = Character.forDigit(Character.digit(digits[i], Character.MAX_RADIX) + 1, Character.MAX_RADIX);
+                return new String(digits);
+            }
+            digits[i] = '0';
+        }
+        throw new IllegalArgumentException("Ruta sin sucesora: " + path);
+    }
+}
@@ -4,19 +4,38 @@ import com.skill.websockets.model.Comment;
 import com.skill.websockets.model.Post;
 import com.skill.websockets.model.User;
 import com.skill.websockets.model.TargetType;
+import com.skill.websockets.model.NotificationType;
 import com.skill.websockets.dto.CommentDTO;
+import com.skill.websockets.dto.CursorPageDTO;
 import com.skill.websockets.dto.UserDTO;
 
 import com.skill.websockets.repository.CommentRepository;
 import com.skill.websockets.repository.PostRepository;
 import com.skill.websockets.repository.UserRepository;
+import com.skill.websockets.repository.projection.CommentRow;
 import com.skill.websockets.controller.WebSocketMessageController;
+import com.skill.websockets.cache.AuthorSummaryCache;
+import com.skill.websockets.event.CommentCreatedEvent;
+import com.skill.websockets.event.CommentsDeletedEvent;
+import com.skill.websockets.event.InteractionEvent;
+import com.skill.websockets.event.PostChangedEvent;
+import com.skill.websockets.event.PostEngagementEvent;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import jakarta.persistence.EntityNotFoundException;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Deque;
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
@@ -27,23 +46,32 @@ import java.util.HashMap;
 @Service
 public class CommentService {
 
+    // Tamaño máximo de página de GET /api/comments/byPost/{postId} y /byParent/{parentCommentId}
+    public static final int MAX_PAGE_SIZE = 100;
+
     private final CommentRepository commentRepository;
     private final UserRepository userRepository;
     private final PostRepository postRepository;
     private final WebSocketMessageController webSocketMessageController;
     private final ReactionService reactionService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final AuthorSummaryCache authorSummaryCache;
 
     @Autowired
     public CommentService(CommentRepository commentRepository,
                           UserRepository userRepository,
                           PostRepository postRepository,
                           WebSocketMessageController webSocketMessageController,
-                          ReactionService reactionService) {
+                          ReactionService reactionService,
+                          ApplicationEventPublisher eventPublisher,
+                          AuthorSummaryCache authorSummaryCache) {
         this.commentRepository = commentRepository;
         this.userRepository = userRepository;
         this.postRepository = postRepository;
         this.webSocketMessageController = webSocketMessageController;
         this.reactionService = reactionService;
+        this.eventPublisher = eventPublisher;
+        this.authorSummaryCache = authorSummaryCache;
     }
 
     /**
@@ -54,20 +82,11 @@ public class CommentService {
             return null;
         }
 
-        CommentDTO commentDTO = new CommentDTO(comment);
+        CommentDTO commentDTO = new CommentDTO(comment, authorSummaryCache.resolve(comment.getUser().getId()));
 
         // 1. ✅ OPTIMIZACIÓN: Solo agregar reacciones si hay alguna
         Map<String, Long> reactionsLong = reactionService.getReactionsCountForTarget(comment.getId(), TargetType.COMMENT);
-        
-        // Filtrar solo las reacciones que tienen conteo > 0
-        Map<String, Integer> reactionsWithCounts = reactionsLong.entrySet().stream()
-                .filter(entry -> entry.getValue() > 0) // ✅ Solo las que tienen conteo
-                .collect(Collectors.toMap(Map.Entry::getKey, e -> e.getValue().intValue()));
-        
-        // Solo setear si hay reacciones
-        if (!reactionsWithCounts.isEmpty()) {
-            commentDTO.setReactions(reactionsWithCounts);
-        }
+        commentDTO.setReactions(nonZeroCounts(reactionsLong));
 
         // 2. ✅ OPTIMIZACIÓN: Solo agregar userReaction si existe
         if (currentUserId != null) {
@@ -89,6 +108,62 @@ public class CommentService {
         return commentDTO;
     }
 
+    /**
+     * Construye los árboles de comentarios de varios posts a partir de proyecciones de solo lectura
+     * (ordenadas por fecha). Autores, conteos y reacciones del usuario se obtienen por lotes,
+     * en lugar de una consulta por comentario y por nivel de respuestas.
+     *
+     * Los comentarios cuyo padre no está entre las filas se tratan como de nivel superior.
+     *
+     * @return postId -> comentarios de nivel superior con sus respuestas anidadas.
+     */
+    private Map<Long, List<CommentDTO>> convertTreesToDto(List<CommentRow> rows, Long currentUserId) {
+        List<Long> commentIds = rows.stream().map(CommentRow::id).collect(Collectors.toList());
+        Map<Long, UserDTO> authors = authorSummaryCache.resolve(
+                rows.stream().map(CommentRow::authorId).collect(Collectors.toSet()));
+        Map<Long, Map<String, Long>> countsByComment = reactionService.getReactionsCountForTargets(commentIds, TargetType.COMMENT);
+        Map<Long, String> userReactions = reactionService.getUserReactionsForTargets(currentUserId, commentIds, TargetType.COMMENT);
+
+        Map<Long, CommentDTO> dtoById = new HashMap<>();
+        for (CommentRow row : rows) {
+            CommentDTO commentDTO = new CommentDTO(row, authors.get(row.authorId()));
+            commentDTO.setReactions(nonZeroCounts(countsByComment.get(row.id())));
+            commentDTO.setUserReaction(userReactions.get(row.id()));
+            dtoById.put(row.id(), commentDTO);
+        }
+
+        // Enlazar cada respuesta con su padre, respetando el orden por fecha
+        Map<Long, List<CommentDTO>> topLevelByPost = new HashMap<>();
+        for (CommentRow row : rows) {
+            CommentDTO commentDTO = dtoById.get(row.id());
+            CommentDTO parentDTO = row.parentCommentId() != null ? dtoById.get(row.parentCommentId()) : null;
+            if (parentDTO == null) {
+                topLevelByPost.computeIfAbsent(row.postId(), id -> new ArrayList<>()).add(commentDTO);
+            } else {
+                if (parentDTO.getReplies() == null) {
+                    parentDTO.setReplies(new ArrayList<>());
+                }
+                parentDTO.getReplies().add(commentDTO);
+            }
+        }
+        return topLevelByPost;
+    }
+
+    // ✅ Solo las reacciones con conteo > 0; null si no hay ninguna (se omite en el JSON)
+    private Map<String, Integer> nonZeroCounts(Map<String, Long> reactionsLong) {
+        Map<String, Integer> reactionsWithCounts = reactionsLong.entrySet().stream()
+                .filter(entry -> entry.getValue() > 0)
+                .collect(Collectors.toMap(Map.Entry::getKey, e -> e.getValue().intValue()));
+        return reactionsWithCounts.isEmpty() ? null : reactionsWithCounts;
+    }
+
+    /**
+     * Crea un comentario o una respuesta con su ruta materializada.
+     *
+     * @throws EntityNotFoundException si el usuario, el post o el comentario padre no existen.
+     * @throws IllegalArgumentException si la respuesta superaría CommentPaths.MAX_DEPTH niveles.
+     */
+    @Transactional
     public Comment createComment(Comment comment, Long userId, Long postId, Long parentCommentId) {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new EntityNotFoundException("Usuario no encontrado con ID: " + userId));
@@ -99,15 +174,33 @@ public class CommentService {
         comment.setPost(post);
         comment.setFechaComentario(LocalDateTime.now());
         comment.setUltimaActualizacion(LocalDateTime.now());
+        comment.setReplyCount(0);
 
+        String parentPath = CommentPaths.postPath(postId);
+        Comment parentComment = null;
         if (parentCommentId != null) {
-            Comment parentComment = commentRepository.findById(parentCommentId)
+            parentComment = commentRepository.findById(parentCommentId)
                     .orElseThrow(() -> new EntityNotFoundException("Comentario padre no encontrado con ID: " + parentCommentId));
+            parentPath = pathOf(parentComment);
+            if (CommentPaths.depthOf(parentPath) >= CommentPaths.MAX_DEPTH) {
+                throw new IllegalArgumentException("No se puede responder a más de " + CommentPaths.MAX_DEPTH + " niveles de profundidad");
+            }
             comment.setParentComment(parentComment);
         }
 
         Comment savedComment = commentRepository.save(comment);
 
+        // Ruta materializada (necesita el ID generado)
+        String ruta = CommentPaths.childPath(parentPath, savedComment.getId());
+        savedComment.setRuta(ruta);
+        savedComment.setProfundidad(CommentPaths.depthOf(ruta));
+
+        // Contadores materializados: total del post y respuestas directas del padre
+        postRepository.addToCommentCount(postId, 1);
+        if (parentCommentId != null) {
+            commentRepository.addToReplyCount(parentCommentId, 1);
+        }
+
         // ✅ OPTIMIZADO: Crear DTO más limpio para WebSocket
         CommentDTO commentDTO = new CommentDTO(savedComment);
         
@@ -122,33 +215,278 @@ public class CommentService {
         }
 
         webSocketMessageController.notifyNewComment(commentDTO);
+        eventPublisher.publishEvent(new PostChangedEvent(postId));
+        eventPublisher.publishEvent(new PostEngagementEvent(postId, PostEngagementEvent.Kind.COMMENT, 1,
+                savedComment.getFechaComentario()));
+        eventPublisher.publishEvent(new CommentCreatedEvent(savedComment.getId(), postId, savedComment.getContenido()));
+
+        // Avisos: al autor del comentario al que se responde y al autor del post (una sola vez si es el mismo)
+        Long postAuthorId = post.getUser().getId();
+        if (parentComment != null) {
+            Long parentAuthorId = parentComment.getUser().getId();
+            eventPublisher.publishEvent(new InteractionEvent(parentAuthorId, userId, NotificationType.REPLY_TO_COMMENT,
+                    postId, savedComment.getId(), null));
+            if (!postAuthorId.equals(parentAuthorId)) {
+                eventPublisher.publishEvent(new InteractionEvent(postAuthorId, userId, NotificationType.COMMENT_ON_POST,
+                        postId, savedComment.getId(), null));
+            }
+        } else {
+            eventPublisher.publishEvent(new InteractionEvent(postAuthorId, userId, NotificationType.COMMENT_ON_POST,
+                    postId, savedComment.getId(), null));
+        }
 
         return savedComment;
     }
 
-    public List<CommentDTO> getCommentsByPostId(Long postId, Long currentUserId) {
-        List<Comment> topLevelComments = commentRepository.findByPost_IdAndParentCommentIsNullOrderByFechaComentarioAsc(postId);
-        return topLevelComments.stream()
-                .map(comment -> convertToDto(comment, currentUserId))
-                .collect(Collectors.toList());
+    // Ruta de un comentario; si aún no la tiene (ver CommentPathBackfill) se calcula a partir de sus antecesores
+    private static String pathOf(Comment comment) {
+        Deque<Long> withoutPath = new ArrayDeque<>();
+        Comment current = comment;
+        while (current != null && current.getRuta() == null) {
+            withoutPath.push(current.getId());
+            current = current.getParentComment();
+        }
+        String path = current != null ? current.getRuta() : CommentPaths.postPath(comment.getPost().getId());
+        while (!withoutPath.isEmpty()) {
+            path = CommentPaths.childPath(path, withoutPath.pop());
+        }
+        return path;
     }
 
-    public List<CommentDTO> getRepliesByParentCommentId(Long parentCommentId, Long currentUserId) {
-        List<Comment> replies = commentRepository.findByParentComment_IdOrderByFechaComentarioAsc(parentCommentId);
-        return replies.stream()
-                .map(reply -> convertToDto(reply, currentUserId))
+    /**
+     * Vista previa del feed: los primeros `limit` comentarios de nivel superior de cada post, sin respuestas
+     * (cada uno lleva replyCount) ni datos del usuario actual. El resto se pide con getCommentsPageByPostId.
+     */
+    @Transactional(readOnly = true)
+    public Map<Long, List<CommentDTO>> getCommentPreviewsByPostIds(Collection<Long> postIds, int limit) {
+        if (postIds.isEmpty() || limit <= 0) {
+            return Map.of();
+        }
+        return convertTreesToDto(commentRepository.findPreviewRowsByPostIdIn(postIds, limit), null);
+    }
+
+    /**
+     * Página de comentarios de nivel superior de un post, cada uno con todas sus respuestas,
+     * en orden fechaComentario, id. Con cursor null se devuelve la primera página.
+     *
+     * @throws IllegalArgumentException si el cursor no es válido.
+     */
+    @Transactional(readOnly = true)
+    public CursorPageDTO<CommentDTO> getCommentsPageByPostId(Long postId, String cursor, int limit, Long currentUserId) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        // Se pide una fila de más para saber si hay otra página sin hacer un COUNT
+        PageRequest window = PageRequest.of(0, pageSize + 1);
+
+        List<CommentRow> topLevel;
+        if (cursor == null || cursor.isBlank()) {
+            topLevel = commentRepository.findFirstTopLevelRows(postId, window);
+        } else {
+            CommentCursor after = decodeCursor(cursor);
+            topLevel = commentRepository.findTopLevelRowsAfter(postId, after.fechaComentario(), after.id(), window);
+        }
+
+        boolean hasMore = topLevel.size() > pageSize;
+        if (hasMore) {
+            topLevel = topLevel.subList(0, pageSize);
+        }
+        if (topLevel.isEmpty()) {
+            return new CursorPageDTO<>(List.of(), null, false);
+        }
+
+        // Respuestas de todos los comentarios de la página con una consulta de rango sobre la ruta
+        List<CommentRow> rows = withDescendants(topLevel, CommentPaths.postPath(postId), Integer.MAX_VALUE);
+
+        List<CommentDTO> items = convertTreesToDto(rows, currentUserId).getOrDefault(postId, List.of());
+        String nextCursor = hasMore ? encodeCursor(topLevel.get(topLevel.size() - 1)) : null;
+        return new CursorPageDTO<>(items, nextCursor, hasMore);
+    }
+
+    private record CommentCursor(LocalDateTime fechaComentario, Long id) {
+    }
+
+    // El cursor es la posición (fechaComentario, id) del último comentario entregado, en Base64 URL-safe
+    private static String encodeCursor(CommentRow last) {
+        String position = last.fechaComentario() + "|" + last.id();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static CommentCursor decodeCursor(String cursor) {
+        try {
+            String position = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = position.lastIndexOf('|');
+            LocalDateTime fechaComentario = LocalDateTime.parse(position.substring(0, separator));
+            Long id = Long.valueOf(position.substring(separator + 1));
+            return new CommentCursor(fechaComentario, id);
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Cursor de comentarios no válido: " + cursor, e);
+        }
+    }
+
+    /**
+     * Página de respuestas directas de un comentario (orden fechaComentario, id).
+     * Con depth > 1 cada respuesta trae además sus respuestas hasta depth niveles por debajo del padre,
+     * todas con una sola consulta de rango; las más profundas solo llevan replyCount.
+     *
+     * @throws EntityNotFoundException si el comentario padre no existe.
+     * @throws IllegalArgumentException si el cursor no es válido.
+     */
+    @Transactional(readOnly = true)
+    public CursorPageDTO<CommentDTO> getRepliesByParentCommentId(Long parentCommentId, String cursor, int limit,
+                                                                 int depth, Long currentUserId) {
+        if (!commentRepository.existsById(parentCommentId)) {
+            throw new EntityNotFoundException("Comentario no encontrado con ID: " + parentCommentId);
+        }
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        PageRequest window = PageRequest.of(0, pageSize + 1);
+
+        List<CommentRow> replies;
+        if (cursor == null || cursor.isBlank()) {
+            replies = commentRepository.findFirstReplyRows(parentCommentId, window);
+        } else {
+            CommentCursor after = decodeCursor(cursor);
+            replies = commentRepository.findReplyRowsAfter(parentCommentId, after.fechaComentario(), after.id(), window);
+        }
+
+        boolean hasMore = replies.size() > pageSize;
+        if (hasMore) {
+            replies = replies.subList(0, pageSize);
+        }
+        if (replies.isEmpty()) {
+            return new CursorPageDTO<>(List.of(), null, false);
+        }
+
+        // Si el padre aún no tiene ruta, tampoco sus descendientes: se recorren por id_comentario_padre
+        int levels = Math.max(depth, 1) - 1;
+        String parentPath = commentRepository.findRutaById(parentCommentId).orElse(null);
+        List<CommentRow> rows = parentPath != null
+                ? withDescendants(replies, parentPath, levels)
+                : withDescendantsByParent(replies, levels);
+        // Las respuestas directas no tienen a su padre entre las filas, así que quedan como raíces
+        List<CommentDTO> items = convertTreesToDto(rows, currentUserId).getOrDefault(replies.get(0).postId(), List.of());
+        String nextCursor = hasMore ? encodeCursor(replies.get(replies.size() - 1)) : null;
+        return new CursorPageDTO<>(items, nextCursor, hasMore);
+    }
+
+    /**
+     * Añade a las filas indicadas (hermanas, hijas de parentPath; para las de nivel superior, el postPath del post)
+     * sus descendientes hasta `levels` niveles por debajo, con una sola consulta de rango sobre `ruta`
+     * que no sale del post.
+     */
+    private List<CommentRow> withDescendants(List<CommentRow> roots, String parentPath, int levels) {
+        List<CommentRow> rows = new ArrayList<>(roots);
+        List<String> prefixes = roots.stream()
+                .filter(row -> row.replyCount() != null && row.replyCount() > 0)
+                .map(row -> CommentPaths.childPath(parentPath, row.id()))
+                .sorted()
                 .collect(Collectors.toList());
+        if (levels <= 0 || prefixes.isEmpty()) {
+            return rows;
+        }
+
+        int rootDepth = CommentPaths.depthOf(prefixes.get(0));
+        int maxDepth = (int) Math.min((long) rootDepth + levels, Integer.MAX_VALUE);
+        rows.addAll(commentRepository.findSubtreeRows(prefixes.get(0), CommentPaths.rangeEnd(prefixes.get(prefixes.size() - 1)),
+                prefixes.get(0).length(), prefixes, rootDepth + 1, maxDepth));
+        return rows;
+    }
+
+    // Como withDescendants, para subárboles todavía sin ruta: una consulta por nivel sobre id_comentario_padre
+    private List<CommentRow> withDescendantsByParent(List<CommentRow> roots, int levels) {
+        List<CommentRow> rows = new ArrayList<>(roots);
+        List<CommentRow> level = roots;
+        for (int i = 0; i < levels; i++) {
+            List<Long> parentIds = level.stream()
+                    .filter(row -> row.replyCount() != null && row.replyCount() > 0)
+                    .map(CommentRow::id)
+                    .collect(Collectors.toList());
+            if (parentIds.isEmpty()) {
+                break;
+            }
+            level = commentRepository.findReplyRowsByParentIdIn(parentIds);
+            rows.addAll(level);
+        }
+        return rows;
     }
 
+    /**
+     * Un comentario con todas sus respuestas: una consulta para el comentario y otra para el subárbol
+     * (una por nivel si el comentario aún no tiene ruta).
+     */
+    @Transactional(readOnly = true)
     public Optional<CommentDTO> getCommentById(Long id, Long currentUserId) {
-        Optional<Comment> commentOptional = commentRepository.findById(id);
-        return commentOptional.map(comment -> convertToDto(comment, currentUserId));
+        Optional<CommentRow> row = commentRepository.findCommentRowById(id);
+        if (row.isEmpty()) {
+            return Optional.empty();
+        }
+        String ruta = commentRepository.findRutaById(id).orElse(null);
+        List<CommentRow> rows;
+        if (ruta != null) {
+            rows = withDescendants(List.of(row.get()), CommentPaths.parentPath(ruta), Integer.MAX_VALUE);
+        } else {
+            rows = withDescendantsByParent(List.of(row.get()), Integer.MAX_VALUE);
+        }
+        return convertTreesToDto(rows, currentUserId).getOrDefault(row.get().postId(), List.of()).stream().findFirst();
     }
 
+    /**
+     * Elimina un comentario y, en cascada, todas sus respuestas, junto con las reacciones de todo el subárbol.
+     * Descuenta del post el subárbol completo y del padre una respuesta directa.
+     *
+     * Con ruta, el subárbol se borra en bloque por rango de rutas: unas pocas sentencias sea cual sea su tamaño.
+     */
+    @Transactional
     public void deleteComment(Long id) {
-        if (!commentRepository.existsById(id)) {
-            throw new EntityNotFoundException("Comentario no encontrado con ID: " + id);
+        CommentRow comment = commentRepository.findCommentRowById(id)
+                .orElseThrow(() -> new EntityNotFoundException("Comentario no encontrado con ID: " + id));
+        String ruta = commentRepository.findRutaById(id).orElse(null);
+
+        List<Long> removedIds;
+        if (ruta != null) {
+            String rangeEnd = CommentPaths.rangeEnd(ruta);
+            removedIds = commentRepository.findIdsByRutaRange(ruta, rangeEnd);
+            reactionService.deleteReactionsForCommentSubtree(ruta, rangeEnd);
+            commentRepository.detachRepliesByRutaRange(ruta, rangeEnd);
+            commentRepository.deleteByRutaRange(ruta, rangeEnd);
+        } else {
+            removedIds = deleteSubtreeWithoutPath(id);
+        }
+        int removedComments = removedIds.size();
+        Long postId = comment.postId();
+
+        if (comment.parentCommentId() != null) {
+            commentRepository.addToReplyCount(comment.parentCommentId(), -1);
+        }
+        postRepository.addToCommentCount(postId, -removedComments);
+        eventPublisher.publishEvent(new PostChangedEvent(postId));
+        // Con la fecha del comentario eliminado: sus respuestas son posteriores, así que se descuenta como mucho
+        // lo que sumaron (el resto desaparece con el decaimiento)
+        eventPublisher.publishEvent(new PostEngagementEvent(postId, PostEngagementEvent.Kind.COMMENT, -removedComments,
+                comment.fechaComentario()));
+        eventPublisher.publishEvent(new CommentsDeletedEvent(postId, removedIds));
+    }
+
+    // Comentario todavía sin ruta (ver CommentPathBackfill): se recorren las respuestas y se borra en cascada por JPA
+    private List<Long> deleteSubtreeWithoutPath(Long id) {
+        Comment comment = commentRepository.findById(id)
+                .orElseThrow(() -> new EntityNotFoundException("Comentario no encontrado con ID: " + id));
+        List<Long> removedIds = new ArrayList<>();
+        collectSubtreeIds(comment, removedIds);
+        reactionService.deleteReactionsForTargets(TargetType.COMMENT, removedIds);
+
+        Comment parentComment = comment.getParentComment();
+        if (parentComment != null) {
+            // Se quita de la colección del padre para que la cascada no lo vuelva a persistir
+            parentComment.removeReply(comment);
+        }
+        commentRepository.delete(comment);
+        return removedIds;
+    }
+
+    // Comentarios que se eliminan en cascada con este (él mismo más todas sus respuestas)
+    private void collectSubtreeIds(Comment comment, List<Long> ids) {
+        ids.add(comment.getId());
+        for (Comment reply : comment.getReplies()) {
+            collectSubtreeIds(reply, ids);
         }
-        commentRepository.deleteById(id);
     }
 }
\ No newline at end of file
@@ -0,0 +1,153 @@
+package com.skill.websockets.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.LongConsumer;
+
+/**
+ * Últimos eventos publicados por WebSocket, en un buffer circular acotado por destino.
+ *
+ * Cada evento recibe un número de secuencia creciente dentro de su destino. Un cliente que reconecta
+ * envía la última secuencia vista de cada destino y recibe los eventos posteriores, o la indicación
+ * de resincronizar si ya salieron de la ventana. El epoch cambia en cada arranque: las secuencias
+ * de una instancia anterior no son comparables con las actuales.
+ */
+@Component
+public class EventReplayBuffer {
+
+    private static final Logger log = LoggerFactory.getLogger(EventReplayBuffer.class);
+
+    private final int capacity;
+    private final String epoch = Long.toString(System.currentTimeMillis(), Character.MAX_RADIX);
+    private final ConcurrentMap<String, Ring> rings = new ConcurrentHashMap<>();
+
+    public EventReplayBuffer(@Value("${app.ws.replay-buffer-size:1000}") int capacity) {
+        this.capacity = capacity;
+    }
+
+    public record BufferedEvent(String destination, long seq, Object payload) {
+    }
+
+    /**
+     * Resultado de una consulta de reenvío. resync = true si algún destino tiene huecos
+     * que ya no están en el buffer (o el epoch no coincide); en ese caso events va vacío.
+     */
+    public record Replay(boolean resync, List<BufferedEvent> events, Map<String, Long> latestSeq) {
+    }
+
+    public String getEpoch() {
+        return epoch;
+    }
+
+    /**
+     * Asigna la secuencia y guarda el evento bajo el bloqueo del destino; el envío (`send`) se hace fuera de él.
+     * Los envíos de un destino pasan por una cola que vacía un solo hilo cada vez, así los clientes reciben
+     * los eventos en el mismo orden que sus secuencias sin que los demás productores esperen al broker.
+     */
+    public long append(String destination, Object payload, LongConsumer send) {
+        Ring ring = rings.computeIfAbsent(destination, d -> new Ring(capacity));
+        long seq;
+        synchronized (ring) {
+            long assigned = ring.append(destination, payload);
+            ring.outbox.add(() -> send.accept(assigned));
+            seq = assigned;
+        }
+        ring.drain(destination);
+        return seq;
+    }
+
+    /**
+     * Eventos posteriores a las secuencias indicadas (destino -> última secuencia vista), ordenados por destino y secuencia.
+     */
+    public Replay replaySince(String clientEpoch, Map<String, Long> lastSeqByDestination) {
+        Map<String, Long> latestSeq = new HashMap<>();
+        rings.forEach((destination, ring) -> latestSeq.put(destination, ring.latestSeq()));
+
+        if (!epoch.equals(clientEpoch)) {
+            return new Replay(true, List.of(), latestSeq);
+        }
+
+        List<BufferedEvent> events = new ArrayList<>();
+        for (Map.Entry<String, Long> entry : lastSeqByDestination.entrySet()) {
+            Ring ring = rings.get(entry.getKey());
+            if (ring == null) {
+                continue; // Aún no se ha publicado nada en ese destino
+            }
+            synchronized (ring) {
+                if (!ring.copySince(entry.getValue(), events)) {
+                    return new Replay(true, List.of(), latestSeq);
+                }
+            }
+        }
+        return new Replay(false, events, latestSeq);
+    }
+
+    // Buffer circular de un destino; se accede siempre con su propio monitor (salvo la cola de envíos)
+    private static final class Ring {
+        private final BufferedEvent[] slots;
+        private long nextSeq = 1;
+        // Envíos pendientes en orden de secuencia y si algún hilo los está vaciando
+        private final Queue<Runnable> outbox = new ConcurrentLinkedQueue<>();
+        private final AtomicBoolean draining = new AtomicBoolean();
+
+        Ring(int capacity) {
+            this.slots = new BufferedEvent[capacity];
+        }
+
+        long append(String destination, Object payload) {
+            long seq = nextSeq++;
+            slots[(int) (seq % slots.length)] = new BufferedEvent(destination, seq, payload);
+            return seq;
+        }
+
+        // Si otro hilo ya está enviando, él se encarga de lo encolado; al terminar se vuelve a comprobar la cola
+        // por si algo llegó justo después de su último poll
+        void drain(String destination) {
+            while (!outbox.isEmpty() && draining.compareAndSet(false, true)) {
+                try {
+                    Runnable next;
+                    while ((next = outbox.poll()) != null) {
+                        try {
+                            next.run();
+                        } catch (RuntimeException e) {
+                            // El evento sigue en el buffer: los clientes lo recuperan con un reenvío
+                            log.warn("No se pudo enviar un evento a {}: {}", destination, e.getMessage());
+                        }
+                    }
+                } finally {
+                    draining.set(false);
+                }
+            }
+        }
+
+        long latestSeq() {
+            synchronized (this) {
+                return nextSeq - 1;
+            }
+        }
+
+        // Copia los eventos con secuencia > lastSeq; false si alguno ya fue sobrescrito
+        boolean copySince(long lastSeq, List<BufferedEvent> out) {
+            long oldestAvailable = Math.max(1, nextSeq - slots.length);
+            if (lastSeq + 1 < oldestAvailable || lastSeq >= nextSeq) {
+                return false;
+            }
+            for (long seq = lastSeq + 1; seq < nextSeq; seq++) {
+                out.add(slots[(int) (seq % slots.length)]);
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.skill.websockets.service;
+
+import com.skill.websockets.cache.BoundedCache;
+import com.skill.websockets.cache.CacheRegistry;
+import com.skill.websockets.dto.CommandAckDTO;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * Guarda la confirmación de cada comando por (usuario, requestId) durante un tiempo acotado,
+ * para que los reenvíos del cliente (p. ej. tras reconectar) no apliquen dos veces un toggle o un comentario.
+ *
+ * Los reenvíos que llegan mientras el original aún se ejecuta esperan su resultado.
+ * Las confirmaciones RATE_LIMITED y ERROR no se guardan: el cliente puede reintentar con el mismo requestId.
+ */
+@Component
+public class IdempotencyStore {
+
+    private final BoundedCache<String, CommandAckDTO> completed;
+    private final ConcurrentMap<String, CompletableFuture<CommandAckDTO>> inFlight = new ConcurrentHashMap<>();
+
+    @Autowired
+    public IdempotencyStore(CacheRegistry cacheRegistry,
+                            @Value("${app.commands.idempotency.maximum-size:50000}") int maximumSize,
+                            @Value("${app.commands.idempotency.ttl-seconds:600}") long ttlSeconds) {
+        this.completed = cacheRegistry.create("idempotency", maximumSize, Duration.ofSeconds(ttlSeconds));
+    }
+
+    public CommandAckDTO execute(Long userId, String requestId, Supplier<CommandAckDTO> command) {
+        String key = userId + ":" + requestId;
+        CommandAckDTO previous = completed.getIfPresent(key);
+        if (previous != null) {
+            return previous.asDuplicate();
+        }
+
+        CompletableFuture<CommandAckDTO> created = new CompletableFuture<>();
+        CompletableFuture<CommandAckDTO> running = inFlight.putIfAbsent(key, created);
+        if (running != null) {
+            return running.join().asDuplicate();
+        }
+
+        try {
+            // Puede haber terminado otra ejecución entre la consulta a la caché y el registro en inFlight
+            previous = completed.getIfPresent(key);
+            if (previous != null) {
+                created.complete(previous);
+                return previous.asDuplicate();
+            }
+
+            CommandAckDTO ack = command.get();
+            if (ack.getStatus() != CommandAckDTO.Status.RATE_LIMITED && ack.getStatus() != CommandAckDTO.Status.ERROR) {
+                completed.put(key, ack);
+            }
+            created.complete(ack);
+            return ack;
+        } catch (RuntimeException e) {
+            created.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, created);
+        }
+    }
+}
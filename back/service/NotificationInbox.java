@@ -0,0 +1,80 @@
+package com.skill.websockets.service;
+
+import com.skill.websockets.dto.NotificationDTO;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Bandeja acotada de un usuario: un buffer circular con sus últimas `capacity` notificaciones
+ * (al llenarse se descarta la más antigua). Lo leído se marca con una marca de agua:
+ * toda notificación con ID menor o igual que lastReadId está leída.
+ *
+ * Los IDs crecen con cada notificación, así que el buffer queda ordenado por ID.
+ */
+final class NotificationInbox {
+
+    private final NotificationDTO[] items;
+    private final long[] ids;
+    private int next; // Posición donde se escribirá la siguiente
+    private int size;
+    private long lastReadId;
+
+    NotificationInbox(int capacity) {
+        this.items = new NotificationDTO[capacity];
+        this.ids = new long[capacity];
+    }
+
+    synchronized void add(long id, NotificationDTO notification) {
+        items[next] = notification;
+        ids[next] = id;
+        next = (next + 1) % items.length;
+        size = Math.min(size + 1, items.length);
+    }
+
+    /**
+     * Hasta `limit` notificaciones con ID menor que beforeId (todas si es null), de la más reciente a la más antigua.
+     */
+    synchronized List<NotificationDTO> page(Long beforeId, int limit) {
+        List<NotificationDTO> page = new ArrayList<>(Math.min(limit, size));
+        for (int i = 0; i < size && page.size() < limit; i++) {
+            int index = Math.floorMod(next - 1 - i, items.length);
+            if (beforeId == null || ids[index] < beforeId) {
+                page.add(withReadFlag(items[index], ids[index] <= lastReadId));
+            }
+        }
+        return page;
+    }
+
+    // Las no leídas están al final del buffer
+    synchronized int unreadCount() {
+        int unread = 0;
+        for (int i = 0; i < size; i++) {
+            if (ids[Math.floorMod(next - 1 - i, items.length)] <= lastReadId) {
+                break;
+            }
+            unread++;
+        }
+        return unread;
+    }
+
+    /**
+     * Marca como leídas las notificaciones hasta upToId (todas si es null). Devuelve la nueva marca de agua.
+     */
+    synchronized long markRead(Long upToId) {
+        long latest = size > 0 ? ids[Math.floorMod(next - 1, items.length)] : lastReadId;
+        long target = upToId != null ? Math.min(upToId, latest) : latest;
+        lastReadId = Math.max(lastReadId, target);
+        return lastReadId;
+    }
+
+    synchronized void restoreLastReadId(long lastReadId) {
+        this.lastReadId = Math.max(this.lastReadId, lastReadId);
+    }
+
+    // Copia con el estado de lectura actual: los DTO guardados no se modifican
+    private static NotificationDTO withReadFlag(NotificationDTO stored, boolean read) {
+        return new NotificationDTO(stored.getId(), stored.getType(), stored.getActor(), stored.getPostId(),
+                stored.getCommentId(), stored.getReaction(), stored.getCreatedAt(), read);
+    }
+}
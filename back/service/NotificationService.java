@@ -0,0 +1,178 @@
+package com.skill.websockets.service;
+
+import com.skill.websockets.cache.AuthorSummaryCache;
+import com.skill.websockets.cache.BoundedCache;
+import com.skill.websockets.cache.CacheRegistry;
+import com.skill.websockets.controller.WebSocketMessageController;
+import com.skill.websockets.dto.CursorPageDTO;
+import com.skill.websockets.dto.NotificationDTO;
+import com.skill.websockets.dto.UserDTO;
+import com.skill.websockets.event.InteractionEvent;
+import com.skill.websockets.model.Notification;
+import com.skill.websockets.repository.NotificationRepository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Bandeja de notificaciones por usuario con reparto en escritura: cada interacción (comentario, respuesta
+ * o reacción sobre contenido ajeno) se escribe en la bandeja de un único destinatario, el autor del contenido,
+ * y se le envía por /user/queue/notifications. Así cada cliente recibe solo lo que le concierne.
+ *
+ * Las bandejas son buffers circulares de inbox-size entradas dentro de una BoundedCache sin caducidad, así que ni
+ * cada bandeja ni el número de bandejas en memoria crecen sin límite, y solo se desalojan las usadas hace más
+ * tiempo cuando hay más de max-inboxes. Con persist = true las notificaciones se guardan
+ * también en `notificaciones` y una bandeja desalojada se vuelve a cargar desde la base de datos;
+ * sin persistencia, una bandeja desalojada empieza vacía.
+ */
+@Service
+public class NotificationService {
+
+    public static final int MAX_PAGE_SIZE = 50;
+
+    private final NotificationRepository notificationRepository;
+    private final AuthorSummaryCache authorSummaryCache;
+    private final WebSocketMessageController webSocketMessageController;
+    private final BoundedCache<Long, NotificationInbox> inboxes;
+    private final StripedLocks inboxLocks = new StripedLocks(256);
+    private final AtomicLong sequence = new AtomicLong();
+    private final int inboxSize;
+    private final boolean persist;
+
+    @Autowired
+    public NotificationService(NotificationRepository notificationRepository,
+                               AuthorSummaryCache authorSummaryCache,
+                               WebSocketMessageController webSocketMessageController,
+                               CacheRegistry cacheRegistry,
+                               @Value("${app.notifications.inbox-size:200}") int inboxSize,
+                               @Value("${app.notifications.max-inboxes:10000}") int maxInboxes,
+                               @Value("${app.notifications.persist:false}") boolean persist) {
+        this.notificationRepository = notificationRepository;
+        this.authorSummaryCache = authorSummaryCache;
+        this.webSocketMessageController = webSocketMessageController;
+        this.inboxes = cacheRegistry.create("notification-inboxes", maxInboxes, Duration.ZERO);
+        this.inboxSize = inboxSize;
+        this.persist = persist;
+    }
+
+    /**
+     * Escribe la notificación en la bandeja del destinatario y se la envía, una vez confirmada la interacción.
+     * Las interacciones con contenido propio no generan notificación.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void onInteraction(InteractionEvent event) {
+        if (event.recipientUserId() == null || event.recipientUserId().equals(event.actorUserId())) {
+            return;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        UserDTO actor = authorSummaryCache.resolve(event.actorUserId());
+        // Se guarda con la bandeja ya cargada: si se cargara después, ya traería la fila nueva y se añadiría dos veces.
+        // Con el candado de la bandeja, las notificaciones de un usuario entran además en orden de ID.
+        NotificationDTO notification = withInbox(event.recipientUserId(), inbox -> {
+            long id = persist
+                    ? notificationRepository.save(new Notification(null, event.recipientUserId(), event.actorUserId(),
+                            event.type(), event.postId(), event.commentId(), event.reaction(), now, false)).getId()
+                    : sequence.incrementAndGet();
+            NotificationDTO created = new NotificationDTO(String.valueOf(id), event.type(), actor,
+                    toId(event.postId()), toId(event.commentId()), event.reaction(), now, false);
+            inbox.add(id, created);
+            return created;
+        });
+        webSocketMessageController.notifyUser(event.recipientUserId(), notification);
+    }
+
+    /**
+     * Historial del usuario, de la más reciente a la más antigua. El cursor es el ID de la última notificación
+     * de la página anterior; lanza IllegalArgumentException si no es válido.
+     */
+    @Transactional(readOnly = true)
+    public CursorPageDTO<NotificationDTO> getNotifications(Long userId, String cursor, int limit) {
+        Long beforeId = decodeCursor(cursor);
+        List<NotificationDTO> fetched = withInbox(userId, inbox -> inbox.page(beforeId, limit + 1));
+        boolean hasMore = fetched.size() > limit;
+        List<NotificationDTO> items = hasMore ? fetched.subList(0, limit) : fetched;
+        String nextCursor = hasMore ? items.get(items.size() - 1).getId() : null;
+        return new CursorPageDTO<>(items, nextCursor, hasMore);
+    }
+
+    @Transactional(readOnly = true)
+    public int getUnreadCount(Long userId) {
+        return withInbox(userId, NotificationInbox::unreadCount);
+    }
+
+    /**
+     * Marca como leídas las notificaciones del usuario hasta upToId (todas si es null).
+     */
+    @Transactional
+    public void markRead(Long userId, Long upToId) {
+        long lastReadId = withInbox(userId, inbox -> inbox.markRead(upToId));
+        if (persist && lastReadId > 0) {
+            notificationRepository.markReadUpTo(userId, lastReadId);
+        }
+    }
+
+    // Ejecuta la operación con la bandeja del usuario, cargándola si no está en memoria
+    private <T> T withInbox(Long userId, Function<NotificationInbox, T> operation) {
+        ReentrantLock lock = inboxLocks.forKey(userId);
+        lock.lock();
+        try {
+            return operation.apply(inboxes.get(userId, this::loadInbox));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private NotificationInbox loadInbox(Long userId) {
+        NotificationInbox inbox = new NotificationInbox(inboxSize);
+        if (!persist) {
+            return inbox;
+        }
+        List<Notification> latest = notificationRepository.findLatestByRecipientId(userId, PageRequest.of(0, inboxSize));
+        Map<Long, UserDTO> actors = authorSummaryCache.resolve(
+                latest.stream().map(Notification::getActorId).collect(Collectors.toSet()));
+        long lastReadId = 0;
+        // Del más antiguo al más reciente, que es el orden del buffer
+        for (int i = latest.size() - 1; i >= 0; i--) {
+            Notification stored = latest.get(i);
+            inbox.add(stored.getId(), new NotificationDTO(String.valueOf(stored.getId()), stored.getTipo(),
+                    actors.get(stored.getActorId()), toId(stored.getPostId()), toId(stored.getCommentId()),
+                    stored.getReaccion(), stored.getFecha(), false));
+            if (stored.isLeida()) {
+                lastReadId = stored.getId();
+            }
+        }
+        inbox.restoreLastReadId(lastReadId);
+        return inbox;
+    }
+
+    private static String toId(Long id) {
+        return id != null ? String.valueOf(id) : null;
+    }
+
+    private static Long decodeCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            return Long.parseLong(cursor);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Cursor no válido: " + cursor, e);
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.skill.websockets.service;
+
+import com.skill.websockets.controller.WebSocketMessageController;
+import com.skill.websockets.event.PostChangedEvent;
+import com.skill.websockets.event.PostDeletedEvent;
+import com.skill.websockets.event.PostTagsChangedEvent;
+import com.skill.websockets.model.Post;
+import com.skill.websockets.repository.CommentRepository;
+import com.skill.websockets.repository.PostRepository;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import jakarta.persistence.EntityNotFoundException;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Borrado de posts con sentencias en bloque. JPA cargaría el post y borraría cada comentario en cascada,
+ * recorriendo `replies` uno a uno, y dejaría atrás las reacciones (su target no tiene clave foránea).
+ * Aquí se borran, en una transacción y en este orden: las reacciones y conteos del post y de sus comentarios,
+ * los comentarios (anulando antes la referencia al padre) y por último el post con sus filas de post_etiquetas.
+ *
+ * Los posts con menos de async-threshold comentarios se borran dentro de la petición; los hilos más grandes,
+ * en segundo plano en el pool "deletionExecutor". Tras el commit, los eventos limpian cachés e índices en memoria
+ * y el borrado se difunde por /topic/posts/deleted.
+ */
+@Service
+public class PostDeletionService {
+
+    private static final Logger log = LoggerFactory.getLogger(PostDeletionService.class);
+
+    public enum Outcome {
+        DELETED,   // Borrado ya confirmado
+        SCHEDULED  // Se está borrando en segundo plano
+    }
+
+    private record Deleted(int comments, int reactions) {
+    }
+
+    private final PostRepository postRepository;
+    private final CommentRepository commentRepository;
+    private final ReactionService reactionService;
+    private final WebSocketMessageController webSocketMessageController;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final Executor deletionExecutor;
+    private final int asyncThreshold;
+    // Posts con un borrado en segundo plano pendiente: repetir la petición no lo vuelve a encolar
+    private final Set<Long> pending = ConcurrentHashMap.newKeySet();
+
+    @Autowired
+    public PostDeletionService(PostRepository postRepository,
+                               CommentRepository commentRepository,
+                               ReactionService reactionService,
+                               WebSocketMessageController webSocketMessageController,
+                               ApplicationEventPublisher eventPublisher,
+                               TransactionTemplate transactionTemplate,
+                               @Qualifier("deletionExecutor") Executor deletionExecutor,
+                               @Value("${app.posts.delete.async-threshold:1000}") int asyncThreshold) {
+        this.postRepository = postRepository;
+        this.commentRepository = commentRepository;
+        this.reactionService = reactionService;
+        this.webSocketMessageController = webSocketMessageController;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = transactionTemplate;
+        this.deletionExecutor = deletionExecutor;
+        this.asyncThreshold = asyncThreshold;
+    }
+
+    /**
+     * Borra el post o, si su hilo es grande, lo encola. Lanza EntityNotFoundException si no existe
+     * y RejectedExecutionException si la cola de borrados está llena. Debe llamarse fuera de una transacción.
+     */
+    public Outcome deletePost(Long postId) {
+        int commentCount = postRepository.findCommentCountById(postId)
+                .orElseThrow(() -> new EntityNotFoundException("Post no encontrado con ID: " + postId));
+        if (commentCount < asyncThreshold) {
+            delete(postId);
+            return Outcome.DELETED;
+        }
+        if (pending.add(postId)) {
+            try {
+                deletionExecutor.execute(() -> deleteInBackground(postId));
+            } catch (RejectedExecutionException e) {
+                pending.remove(postId);
+                throw e;
+            }
+        }
+        return Outcome.SCHEDULED;
+    }
+
+    private void deleteInBackground(Long postId) {
+        try {
+            delete(postId);
+        } catch (EntityNotFoundException e) {
+            log.debug("El post {} ya se había borrado", postId);
+        } catch (RuntimeException e) {
+            log.error("Error al borrar en segundo plano el post {}", postId, e);
+        } finally {
+            pending.remove(postId);
+        }
+    }
+
+    private void delete(Long postId) {
+        long started = System.nanoTime();
+        Deleted deleted = transactionTemplate.execute(status -> deleteInTransaction(postId));
+        webSocketMessageController.notifyPostDeleted(postId, deleted.comments());
+        log.info("Post {} borrado con {} comentarios y {} reacciones en {} ms", postId, deleted.comments(),
+                deleted.reactions(), (System.nanoTime() - started) / 1_000_000);
+    }
+
+    private Deleted deleteInTransaction(Long postId) {
+        Post post = postRepository.findByIdForUpdate(postId)
+                .orElseThrow(() -> new EntityNotFoundException("Post no encontrado con ID: " + postId));
+        Set<Long> tagIds = postRepository.findTagIdsByPostId(postId);
+
+        // Las reacciones de los comentarios se localizan por su post: hay que borrarlas antes que los comentarios
+        int reactions = reactionService.deleteReactionsForPost(postId);
+        commentRepository.detachRepliesByPostId(postId);
+        int comments = commentRepository.deleteAllByPostId(postId);
+        // La cascada de JPA ya no encuentra comentarios: solo borra el post y sus filas de post_etiquetas
+        postRepository.delete(post);
+
+        // El índice de búsqueda quita con el post todos sus comentarios
+        eventPublisher.publishEvent(new PostChangedEvent(postId));
+        eventPublisher.publishEvent(new PostDeletedEvent(postId));
+        eventPublisher.publishEvent(new PostTagsChangedEvent(postId, tagIds, Set.of()));
+        return new Deleted(comments, reactions);
+    }
+}
@@ -7,17 +7,34 @@ import com.skill.websockets.model.TargetType;
 import com.skill.websockets.dto.PostDTO;
 import com.skill.websockets.dto.CommentDTO;
 import com.skill.websockets.dto.UserDTO;
+import com.skill.websockets.dto.CursorPageDTO;
+import com.skill.websockets.cache.AuthorSummaryCache;
+import com.skill.websockets.cache.PostRenderCache;
+import com.skill.websockets.event.PostChangedEvent;
+import com.skill.websockets.event.PostContentChangedEvent;
+import com.skill.websockets.trending.TrendingService;
+import com.skill.websockets.search.PostSearchService;
 
 import com.skill.websockets.repository.PostRepository;
 import com.skill.websockets.repository.UserRepository;
+import com.skill.websockets.repository.projection.PostRow;
+import com.skill.websockets.repository.projection.PostTagRow;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import jakarta.persistence.EntityNotFoundException;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 import java.util.stream.Collectors;
 import java.util.Map;
 
@@ -28,70 +45,267 @@ public class PostService {
     private final UserRepository userRepository;
     private final ReactionService reactionService;
     private final CommentService commentService;
+    private final PostRenderCache postRenderCache;
+    private final PostVersionTracker postVersionTracker;
+    private final AuthorSummaryCache authorSummaryCache;
+    private final TrendingService trendingService;
+    private final PostSearchService postSearchService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int streamBatchSize;
+    private final int commentPreviewSize;
 
     @Autowired
     public PostService(PostRepository postRepository,
                        UserRepository userRepository,
                        ReactionService reactionService,
-                       CommentService commentService) {
+                       CommentService commentService,
+                       PostRenderCache postRenderCache,
+                       PostVersionTracker postVersionTracker,
+                       AuthorSummaryCache authorSummaryCache,
+                       TrendingService trendingService,
+                       PostSearchService postSearchService,
+                       ApplicationEventPublisher eventPublisher,
+                       @Value("${app.posts.stream-batch-size:50}") int streamBatchSize,
+                       @Value("${app.feed.comment-preview-size:3}") int commentPreviewSize) {
         this.postRepository = postRepository;
         this.userRepository = userRepository;
         this.reactionService = reactionService;
         this.commentService = commentService;
+        this.postRenderCache = postRenderCache;
+        this.postVersionTracker = postVersionTracker;
+        this.authorSummaryCache = authorSummaryCache;
+        this.trendingService = trendingService;
+        this.postSearchService = postSearchService;
+        this.eventPublisher = eventPublisher;
+        this.streamBatchSize = streamBatchSize;
+        this.commentPreviewSize = commentPreviewSize;
     }
 
     /**
-     * ✅ OPTIMIZADO: Convierte Post a PostDTO con menos datos innecesarios
+     * ✅ OPTIMIZADO: Construye los PostDTO compartidos (iguales para todos los usuarios, sin userReaction)
+     * a partir de proyecciones de solo lectura. Es lo que se guarda en PostRenderCache.
+     * En lugar del árbol completo, comments lleva solo los primeros commentPreviewSize comentarios de nivel
+     * superior; commentCount da el total y el resto se pagina con GET /api/comments/byPost/{postId}.
+     * Etiquetas, conteos, autores y comentarios de todos los posts se obtienen con una consulta IN cada uno
+     * (los autores, solo los que no estén en caché).
+     *
+     * versions son las versiones de PostVersionTracker leídas antes que las filas: si un cambio llega
+     * a mitad de la construcción, el DTO queda con la versión anterior y el cliente lo volverá a pedir.
      */
-    private PostDTO convertToDto(Post post, Long currentUserId) {
-        if (post == null) {
-            return null;
+    private Map<Long, PostDTO> convertRowsToSharedDto(List<PostRow> rows, Map<Long, Long> versions) {
+        Map<Long, PostDTO> sharedById = new HashMap<>();
+        if (rows.isEmpty()) {
+            return sharedById;
         }
 
-        PostDTO postDTO = new PostDTO(post);
-
-        // 1. ✅ OPTIMIZACIÓN: Solo agregar reacciones si hay alguna
-        Map<String, Long> reactionsLong = reactionService.getReactionsCountForTarget(post.getId(), TargetType.POST);
-        
-        // Filtrar solo las reacciones que tienen conteo > 0
-        Map<String, Integer> reactionsWithCounts = reactionsLong.entrySet().stream()
-                .filter(entry -> entry.getValue() > 0) // ✅ Solo las que tienen conteo
-                .collect(Collectors.toMap(Map.Entry::getKey, e -> e.getValue().intValue()));
-        
-        // Solo setear si hay reacciones
-        if (!reactionsWithCounts.isEmpty()) {
-            postDTO.setReactions(reactionsWithCounts);
+        List<Long> postIds = rows.stream().map(PostRow::id).collect(Collectors.toList());
+        Map<Long, Map<String, Long>> countsByPost = reactionService.getReactionsCountForTargets(postIds, TargetType.POST);
+        Map<Long, UserDTO> authors = authorSummaryCache.resolve(
+                rows.stream().map(PostRow::authorId).collect(Collectors.toSet()));
+        Map<Long, List<String>> tagsByPost = postRepository.findTagRowsByPostIdIn(postIds).stream()
+                .collect(Collectors.groupingBy(PostTagRow::postId,
+                        Collectors.mapping(PostTagRow::nombreEtiqueta, Collectors.toList())));
+
+        // Vista previa de comentarios sin datos del usuario actual (se superponen al responder), solo de los posts que tienen
+        List<Long> postIdsWithComments = rows.stream()
+                .filter(row -> row.commentCount() != null && row.commentCount() > 0)
+                .map(PostRow::id)
+                .collect(Collectors.toList());
+        Map<Long, List<CommentDTO>> commentsByPost = commentService.getCommentPreviewsByPostIds(postIdsWithComments, commentPreviewSize);
+
+        for (PostRow row : rows) {
+            PostDTO postDTO = new PostDTO(row, authors.get(row.authorId()), tagsByPost.get(row.id()));
+            postDTO.setVersion(versions.get(row.id()));
+
+            // ✅ OPTIMIZACIÓN: Solo agregar reacciones con conteo > 0
+            Map<String, Integer> reactionsWithCounts = countsByPost.get(row.id()).entrySet().stream()
+                    .filter(entry -> entry.getValue() > 0)
+                    .collect(Collectors.toMap(Map.Entry::getKey, e -> e.getValue().intValue()));
+            if (!reactionsWithCounts.isEmpty()) {
+                postDTO.setReactions(reactionsWithCounts);
+            }
+
+            postDTO.setComments(commentsByPost.get(row.id()));
+            sharedById.put(row.id(), postDTO);
         }
+        return sharedById;
+    }
 
-        // 2. ✅ OPTIMIZACIÓN: Solo agregar userReaction si existe
-        if (currentUserId != null) {
-            String userReaction = reactionService.getUserReactionForTarget(currentUserId, post.getId(), TargetType.POST);
-            if (userReaction != null) { // Solo setear si no es null
-                postDTO.setUserReaction(userReaction);
+    // Construye los PostDTO compartidos de los posts que no estaban en caché
+    private Map<Long, PostDTO> loadSharedDtos(List<Long> postIds) {
+        Map<Long, Long> versions = postVersionTracker.getPostVersions(postIds);
+        return convertRowsToSharedDto(postRepository.findPostRowsByIdIn(postIds), versions);
+    }
+
+    private PostDTO loadSharedDto(Long postId) {
+        return loadSharedDtos(List.of(postId)).get(postId);
+    }
+
+    // Obtiene los posts indicados (en ese orden) desde la caché compartida y les superpone los datos del usuario
+    private List<PostDTO> renderPosts(List<Long> postIds, Long currentUserId, boolean includeComments) {
+        Map<Long, PostDTO> sharedById = postRenderCache.getAll(postIds, this::loadSharedDtos);
+        List<PostDTO> sharedPosts = postIds.stream()
+                .map(sharedById::get)
+                .filter(Objects::nonNull) // Posts eliminados entre la consulta de IDs y la carga
+                .collect(Collectors.toList());
+        return overlayViewer(sharedPosts, currentUserId, includeComments);
+    }
+
+    /**
+     * Copia los PostDTO compartidos y añade la reacción del usuario actual a cada post y comentario.
+     * Las reacciones del usuario se obtienen con una consulta por tipo de target para todo el listado.
+     */
+    private List<PostDTO> overlayViewer(List<PostDTO> sharedPosts, Long currentUserId, boolean includeComments) {
+        Map<Long, String> postReactions = Map.of();
+        Map<Long, String> commentReactions = Map.of();
+
+        if (currentUserId != null && !sharedPosts.isEmpty()) {
+            List<Long> postIds = sharedPosts.stream().map(post -> Long.valueOf(post.getId())).collect(Collectors.toList());
+            postReactions = reactionService.getUserReactionsForTargets(currentUserId, postIds, TargetType.POST);
+
+            if (includeComments) {
+                List<Long> commentIds = new ArrayList<>();
+                sharedPosts.forEach(post -> collectCommentIds(post.getComments(), commentIds));
+                commentReactions = reactionService.getUserReactionsForTargets(currentUserId, commentIds, TargetType.COMMENT);
             }
         }
 
-        // 3. Llenar los comentarios
-        List<CommentDTO> commentDTOs = commentService.getCommentsByPostId(post.getId(), currentUserId);
-        if (!commentDTOs.isEmpty()) {
-            postDTO.setComments(commentDTOs);
+        List<PostDTO> result = new ArrayList<>(sharedPosts.size());
+        for (PostDTO shared : sharedPosts) {
+            PostDTO postDTO = new PostDTO(shared);
+            postDTO.setUserReaction(postReactions.get(Long.valueOf(shared.getId())));
+            postDTO.setComments(includeComments ? copyComments(shared.getComments(), commentReactions) : null);
+            result.add(postDTO);
         }
+        return result;
+    }
 
-        return postDTO;
+    private void collectCommentIds(List<CommentDTO> comments, List<Long> commentIds) {
+        if (comments == null) {
+            return;
+        }
+        for (CommentDTO comment : comments) {
+            commentIds.add(Long.valueOf(comment.getId()));
+            collectCommentIds(comment.getReplies(), commentIds);
+        }
+    }
+
+    private List<CommentDTO> copyComments(List<CommentDTO> comments, Map<Long, String> commentReactions) {
+        if (comments == null) {
+            return null;
+        }
+        List<CommentDTO> copies = new ArrayList<>(comments.size());
+        for (CommentDTO shared : comments) {
+            CommentDTO commentDTO = new CommentDTO(shared);
+            commentDTO.setUserReaction(commentReactions.get(Long.valueOf(shared.getId())));
+            commentDTO.setReplies(copyComments(shared.getReplies(), commentReactions));
+            copies.add(commentDTO);
+        }
+        return copies;
     }
 
     public List<PostDTO> getAllPosts(Long currentUserId) {
-        List<Post> posts = postRepository.findAll();
-        return posts.stream()
-                .map(post -> convertToDto(post, currentUserId))
-                .collect(Collectors.toList());
+        return getAllPosts(currentUserId, true);
     }
 
+    /**
+     * Con includeComments = false el feed solo lleva commentCount y los comentarios se cargan bajo demanda.
+     */
+    @Transactional(readOnly = true)
+    public List<PostDTO> getAllPosts(Long currentUserId, boolean includeComments) {
+        return renderPosts(postRepository.findAllIds(), currentUserId, includeComments);
+    }
+
+    /**
+     * Recorre todos los posts con un cursor y entrega cada PostDTO al consumidor en cuanto está listo.
+     * Lee proyecciones de solo lectura (sin entidades en el contexto de persistencia) y las enriquece
+     * en lotes de streamBatchSize, así la memoria usada no depende del número total de posts.
+     */
+    @Transactional(readOnly = true)
+    public void streamAllPosts(Long currentUserId, boolean includeComments, Consumer<PostDTO> consumer) {
+        List<PostRow> batch = new ArrayList<>(streamBatchSize);
+        try (Stream<PostRow> rows = postRepository.streamAllPostRows()) {
+            rows.forEach(row -> {
+                batch.add(row);
+                if (batch.size() == streamBatchSize) {
+                    emitBatch(batch, currentUserId, includeComments, consumer);
+                }
+            });
+        }
+        if (!batch.isEmpty()) {
+            emitBatch(batch, currentUserId, includeComments, consumer);
+        }
+    }
+
+    // Usa la caché si ya tiene el post, pero no la llena: una exportación completa desalojaría los posts calientes
+    private void emitBatch(List<PostRow> batch, Long currentUserId, boolean includeComments, Consumer<PostDTO> consumer) {
+        Map<Long, PostDTO> sharedById = new HashMap<>();
+        List<PostRow> missing = new ArrayList<>();
+        for (PostRow row : batch) {
+            PostDTO shared = postRenderCache.getIfPresent(row.id());
+            if (shared != null) {
+                sharedById.put(row.id(), shared);
+            } else {
+                missing.add(row);
+            }
+        }
+        // Estos DTO no se cachean ni llevan ETag: basta la versión actual
+        sharedById.putAll(convertRowsToSharedDto(missing,
+                postVersionTracker.getPostVersions(missing.stream().map(PostRow::id).collect(Collectors.toList()))));
+
+        List<PostDTO> sharedPosts = batch.stream().map(row -> sharedById.get(row.id())).collect(Collectors.toList());
+        overlayViewer(sharedPosts, currentUserId, includeComments).forEach(consumer);
+        batch.clear();
+    }
+
+    /**
+     * Posts en tendencia, de mayor a menor puntuación. El orden sale del ranking en memoria (O(offset + limit));
+     * solo se cargan los posts de la página, normalmente ya en PostRenderCache.
+     */
+    @Transactional(readOnly = true)
+    public List<PostDTO> getTrendingPosts(int offset, int limit, Long currentUserId) {
+        return renderPosts(trendingService.topPostIds(offset, limit), currentUserId, false);
+    }
+
+    /**
+     * Busca posts por texto (título, contenido y comentarios), de más a menos relevante.
+     * La relevancia sale del índice en memoria; solo se cargan los posts de la página.
+     * El cursor es la posición del siguiente resultado; lanza IllegalArgumentException si no es válido.
+     */
+    @Transactional(readOnly = true)
+    public CursorPageDTO<PostDTO> searchPosts(String query, String cursor, int limit, Long currentUserId) {
+        int offset = decodeOffset(cursor);
+        PostSearchService.SearchPage page = postSearchService.search(query, offset, limit);
+        List<PostDTO> posts = renderPosts(page.postIds(), currentUserId, false);
+        String nextCursor = page.hasMore() ? String.valueOf(offset + page.postIds().size()) : null;
+        return new CursorPageDTO<>(posts, nextCursor, page.hasMore());
+    }
+
+    private int decodeOffset(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return 0;
+        }
+        try {
+            int offset = Integer.parseInt(cursor);
+            if (offset < 0) {
+                throw new IllegalArgumentException("Cursor no válido: " + cursor);
+            }
+            return offset;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Cursor no válido: " + cursor, e);
+        }
+    }
+
+    @Transactional(readOnly = true)
     public Optional<PostDTO> getPostById(Long id, Long currentUserId) {
-        Optional<Post> postOptional = postRepository.findById(id);
-        return postOptional.map(post -> convertToDto(post, currentUserId));
+        PostDTO shared = postRenderCache.get(id, this::loadSharedDto);
+        if (shared == null) {
+            return Optional.empty();
+        }
+        return Optional.of(overlayViewer(List.of(shared), currentUserId, true).get(0));
     }
 
+    @Transactional
     public Post createPost(Post post, Long userId) {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new EntityNotFoundException("Usuario no encontrado con ID: " + userId));
@@ -99,10 +313,15 @@ public class PostService {
         post.setUser(user);
         post.setFechaPublicacion(LocalDateTime.now());
         post.setUltimaActualizacion(LocalDateTime.now());
+        post.setCommentCount(0);
 
-        return postRepository.save(post);
+        Post savedPost = postRepository.save(post);
+        eventPublisher.publishEvent(new PostChangedEvent(savedPost.getId()));
+        eventPublisher.publishEvent(new PostContentChangedEvent(savedPost.getId(), savedPost.getTitulo(), savedPost.getContenido()));
+        return savedPost;
     }
 
+    @Transactional
     public Post updatePost(Long id, Post postDetails) {
         Post existingPost = postRepository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException("Post no encontrado con ID: " + id));
@@ -111,20 +330,14 @@ public class PostService {
         existingPost.setContenido(postDetails.getContenido());
         existingPost.setUltimaActualizacion(LocalDateTime.now());
 
-        return postRepository.save(existingPost);
-    }
-
-    public void deletePost(Long id) {
-        if (!postRepository.existsById(id)) {
-            throw new EntityNotFoundException("Post no encontrado con ID: " + id);
-        }
-        postRepository.deleteById(id);
+        Post savedPost = postRepository.save(existingPost);
+        eventPublisher.publishEvent(new PostChangedEvent(id));
+        eventPublisher.publishEvent(new PostContentChangedEvent(id, savedPost.getTitulo(), savedPost.getContenido()));
+        return savedPost;
     }
 
+    @Transactional(readOnly = true)
     public List<PostDTO> getPostsByUserId(Long userId, Long currentUserId) {
-        List<Post> posts = postRepository.findByUser_Id(userId);
-        return posts.stream()
-                .map(post -> convertToDto(post, currentUserId))
-                .collect(Collectors.toList());
+        return renderPosts(postRepository.findIdsByUserId(userId), currentUserId, true);
     }
-}
\ No newline at end of file
+}
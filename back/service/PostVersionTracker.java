@@ -0,0 +1,83 @@
+package com.skill.websockets.service;
+
+import com.skill.websockets.event.PostChangedEvent;
+import com.skill.websockets.event.PostDeletedEvent;
+import com.skill.websockets.repository.PostRepository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Mantiene en memoria las versiones que usa PostController para generar ETags:
+ * - la versión de cada post, que avanza tras confirmarse cualquier cambio en el post,
+ *   sus etiquetas, sus comentarios o sus reacciones;
+ * - la versión del feed completo, que avanza con cualquier cambio.
+ *
+ * Ninguna se escribe en la base de datos, así que un toggle no bloquea la fila del post.
+ * Las versiones de los posts salen de una secuencia que arranca en la hora de arranque en microsegundos:
+ * los posts sin cambios desde el arranque tienen esa versión base y cada cambio toma el siguiente valor.
+ * Mientras haya menos de un millón de cambios por segundo, un reinicio nunca reutiliza una versión
+ * (ni, por tanto, un ETag que ya tenga un cliente). La versión del feed va precedida de la época de arranque.
+ */
+@Component
+public class PostVersionTracker {
+
+    private final PostRepository postRepository;
+    private final long epoch = System.currentTimeMillis();
+    private final long baseVersion = epoch * 1_000;
+    private final AtomicLong sequence = new AtomicLong(baseVersion);
+    private final AtomicLong feedVersion = new AtomicLong();
+    // Solo los posts que han cambiado desde el arranque
+    private final ConcurrentMap<Long, Long> postVersions = new ConcurrentHashMap<>();
+
+    @Autowired
+    public PostVersionTracker(PostRepository postRepository) {
+        this.postRepository = postRepository;
+    }
+
+    // Después de invalidar PostRenderCache (ver @Order allí)
+    @TransactionalEventListener(fallbackExecution = true)
+    @Order(1)
+    public void onPostChanged(PostChangedEvent event) {
+        postVersions.put(event.postId(), sequence.incrementAndGet());
+        feedVersion.incrementAndGet();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    @Order(2)
+    public void onPostDeleted(PostDeletedEvent event) {
+        postVersions.remove(event.postId());
+    }
+
+    public String getFeedVersion() {
+        return epoch + "." + feedVersion.get();
+    }
+
+    // Vacío si el post no existe (los que no han cambiado desde el arranque se comprueban en la base de datos)
+    public Optional<Long> getPostVersion(Long postId) {
+        Long version = postVersions.get(postId);
+        if (version != null) {
+            return Optional.of(version);
+        }
+        return postRepository.existsById(postId) ? Optional.of(baseVersion) : Optional.empty();
+    }
+
+    // Versiones actuales de posts que se sabe que existen, sin consultar la base de datos
+    public Map<Long, Long> getPostVersions(Collection<Long> postIds) {
+        Map<Long, Long> versions = new HashMap<>();
+        for (Long postId : postIds) {
+            versions.put(postId, postVersions.getOrDefault(postId, baseVersion));
+        }
+        return versions;
+    }
+}
@@ -0,0 +1,115 @@
+package com.skill.websockets.service;
+
+import com.skill.websockets.model.ReactionCount;
+import com.skill.websockets.model.TargetType;
+import com.skill.websockets.repository.ReactionCountRepository;
+import com.skill.websockets.repository.ReactionRepository;
+import com.skill.websockets.repository.ReactionTypeRepository;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Detecta y repara desviaciones entre reaction_counts y las filas reales de `reacciones`.
+ *
+ * Como el recuento y la lectura de reaction_counts no son atómicos respecto a los toggles
+ * que están en curso, una diferencia solo se corrige cuando se observa con el mismo valor
+ * en dos ejecuciones consecutivas. Así no se "repara" un toggle que simplemente estaba a medias.
+ *
+ * Las claves se comparan por shard 0: el valor almacenado de un target es la suma de todos sus shards,
+ * y la reparación ajusta solo el shard 0 (ver ShardedReactionCounter). La corrección se aplica como un delta
+ * atómico, igual que un toggle: nunca sobrescribe los toggles o plegados confirmados después de la lectura.
+ */
+@Component
+public class ReactionCountReconciler {
+
+    private static final Logger log = LoggerFactory.getLogger(ReactionCountReconciler.class);
+
+    private final ReactionRepository reactionRepository;
+    private final ReactionCountRepository reactionCountRepository;
+    private final ReactionTypeRepository reactionTypeRepository;
+
+    // Desviaciones vistas en la ejecución anterior (clave -> valor real esperado)
+    private Map<ReactionCount.ReactionCountId, Long> pendingDrift = new HashMap<>();
+
+    @Autowired
+    public ReactionCountReconciler(ReactionRepository reactionRepository,
+                                   ReactionCountRepository reactionCountRepository,
+                                   ReactionTypeRepository reactionTypeRepository) {
+        this.reactionRepository = reactionRepository;
+        this.reactionCountRepository = reactionCountRepository;
+        this.reactionTypeRepository = reactionTypeRepository;
+    }
+
+    @Scheduled(initialDelayString = "${app.reactions.reconcile-initial-delay-ms:60000}",
+            fixedDelayString = "${app.reactions.reconcile-interval-ms:600000}")
+    @Transactional
+    public synchronized void reconcile() {
+        Map<ReactionCount.ReactionCountId, Long> actual = new HashMap<>();
+        for (Object[] row : reactionRepository.countAllGroupedByTargetAndReactionType()) {
+            ReactionCount.ReactionCountId id = new ReactionCount.ReactionCountId(
+                    (Long) row[0], (TargetType) row[1], (Long) row[2], ShardedReactionCounter.PRIMARY_SHARD);
+            actual.put(id, (Long) row[3]);
+        }
+
+        Map<ReactionCount.ReactionCountId, Long> stored = new HashMap<>();
+        for (ReactionCount count : reactionCountRepository.findAll()) {
+            ReactionCount.ReactionCountId id = count.getId();
+            ReactionCount.ReactionCountId primaryId = new ReactionCount.ReactionCountId(
+                    id.getTargetId(), id.getTargetType(), id.getReactionTypeId(), ShardedReactionCounter.PRIMARY_SHARD);
+            stored.merge(primaryId, count.getCount(), Long::sum);
+        }
+
+        Map<ReactionCount.ReactionCountId, Long> drift = new HashMap<>();
+        actual.forEach((id, value) -> {
+            if (!Objects.equals(stored.get(id), value)) {
+                drift.put(id, value);
+            }
+        });
+        stored.forEach((id, value) -> {
+            if (!actual.containsKey(id) && value != 0L) {
+                drift.put(id, 0L);
+            }
+        });
+
+        // Tabla vacía (primer despliegue): no hay toggles a medias que respetar, se rellena directamente
+        boolean bootstrap = stored.isEmpty();
+
+        int repaired = 0;
+        Iterator<Map.Entry<ReactionCount.ReactionCountId, Long>> iterator = drift.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<ReactionCount.ReactionCountId, Long> entry = iterator.next();
+            if (bootstrap || Objects.equals(pendingDrift.get(entry.getKey()), entry.getValue())) {
+                repair(entry.getKey(), entry.getValue() - stored.getOrDefault(entry.getKey(), 0L));
+                iterator.remove();
+                repaired++;
+            }
+        }
+
+        // Lo que no se reparó ahora se confirmará (o desaparecerá) en la siguiente ejecución
+        pendingDrift = drift;
+
+        if (repaired > 0 || !drift.isEmpty()) {
+            log.warn("Reconciliación de reaction_counts: {} filas reparadas, {} pendientes de confirmar", repaired, drift.size());
+        }
+    }
+
+    // Suma al shard 0 la diferencia observada, con el mismo UPDATE atómico que los toggles (o crea la fila)
+    private void repair(ReactionCount.ReactionCountId id, long delta) {
+        int updated = reactionCountRepository.addToCount(id.getTargetId(), id.getTargetType(),
+                id.getReactionTypeId(), id.getShard(), delta);
+        if (updated == 0) {
+            reactionCountRepository.save(new ReactionCount(id,
+                    reactionTypeRepository.getReferenceById(id.getReactionTypeId()), delta));
+        }
+    }
+}
@@ -1,78 +1,128 @@
 package com.skill.websockets.service;
 
+import com.skill.websockets.model.Post;
 import com.skill.websockets.model.Reaction;
 import com.skill.websockets.model.ReactionType;
 import com.skill.websockets.model.User;
-import com.skill.websockets.model.Post;
-import com.skill.websockets.model.Comment;
 import com.skill.websockets.model.TargetType;
+import com.skill.websockets.model.NotificationType;
 
 import com.skill.websockets.repository.ReactionRepository;
+import com.skill.websockets.repository.ReactionCountRepository;
 import com.skill.websockets.repository.ReactionTypeRepository;
 import com.skill.websockets.repository.UserRepository;
 import com.skill.websockets.repository.PostRepository;
 import com.skill.websockets.repository.CommentRepository;
 import com.skill.websockets.controller.WebSocketMessageController;
+import com.skill.websockets.event.PostChangedEvent;
+import com.skill.websockets.event.PostEngagementEvent;
+import com.skill.websockets.event.InteractionEvent;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.support.TransactionTemplate;
 import jakarta.persistence.EntityNotFoundException;
 import org.springframework.dao.DataIntegrityViolationException;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.HashMap;
-import java.util.stream.Collectors;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
 
 @Service
 public class ReactionService {
 
     private final ReactionRepository reactionRepository;
+    private final ReactionCountRepository reactionCountRepository;
     private final ReactionTypeRepository reactionTypeRepository;
     private final UserRepository userRepository;
     private final PostRepository postRepository;
     private final CommentRepository commentRepository;
     private final WebSocketMessageController webSocketMessageController;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final StripedLocks toggleLocks;
+    private final ShardedReactionCounter shardedReactionCounter;
+
+    // Intentos de un toggle que pierde una carrera contra otra instancia
+    private static final int MAX_TOGGLE_ATTEMPTS = 3;
+    // IDs por sentencia en los borrados en bloque por lista de targets
+    private static final int BULK_DELETE_CHUNK = 1000;
 
     @Autowired
     public ReactionService(ReactionRepository reactionRepository,
+                           ReactionCountRepository reactionCountRepository,
                            ReactionTypeRepository reactionTypeRepository,
                            UserRepository userRepository,
                            PostRepository postRepository,
                            CommentRepository commentRepository,
-                           WebSocketMessageController webSocketMessageController) {
+                           WebSocketMessageController webSocketMessageController,
+                           ApplicationEventPublisher eventPublisher,
+                           TransactionTemplate transactionTemplate,
+                           ShardedReactionCounter shardedReactionCounter,
+                           @Value("${app.reactions.toggle-lock-stripes:1024}") int toggleLockStripes) {
         this.reactionRepository = reactionRepository;
+        this.reactionCountRepository = reactionCountRepository;
         this.reactionTypeRepository = reactionTypeRepository;
         this.userRepository = userRepository;
         this.postRepository = postRepository;
         this.commentRepository = commentRepository;
         this.webSocketMessageController = webSocketMessageController;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = transactionTemplate;
+        this.toggleLocks = new StripedLocks(toggleLockStripes);
+        this.shardedReactionCounter = shardedReactionCounter;
     }
 
     /**
      * Crea o actualiza una reacción de un usuario a un post/comentario.
      * Si el usuario ya reaccionó con el mismo tipo de reacción, se elimina la reacción (toggle off).
      * Si reacciona con un tipo diferente, se actualiza. Si no había reaccionado, se crea.
+     * Los conteos de reaction_counts se ajustan en la misma transacción.
+     *
+     * Concurrencia: las operaciones del mismo usuario sobre el mismo target se serializan con un lock por clave
+     * (usuarios distintos no se esperan entre sí) y, si otra instancia gana la carrera, se reintenta.
+     * La notificación se envía tras el commit, con los conteos ya confirmados.
+     * Debe llamarse fuera de una transacción.
      */
     public Reaction createOrUpdateReaction(Long userId, Long targetId, TargetType targetType, Long reactionTypeId) {
-        System.out.println("=== DEBUG REACTION SERVICE ===");
-        System.out.println("userId: " + userId);
-        System.out.println("targetId: " + targetId);
-        System.out.println("targetType: " + targetType);
-        System.out.println("reactionTypeId: " + reactionTypeId);
+        ToggleResult result = withToggleLock(userId, targetId, targetType,
+                () -> applyToggle(userId, targetId, targetType, reactionTypeId));
+
+        // Todos reciben los conteos; solo el usuario que reaccionó recibe su nueva reacción (null si la quitó)
+        Reaction savedReaction = result.reaction();
+        String actorReaction = savedReaction != null ? savedReaction.getReactionType().getNombreReaccion() : null;
+        webSocketMessageController.notifyReactionChange(targetId, targetType,
+                getReactionsCountForTarget(targetId, targetType), userId, actorReaction);
+        return savedReaction;
+    }
+
+    private record ToggleResult(Reaction reaction, Long postId) {
+    }
 
+    private ToggleResult applyToggle(Long userId, Long targetId, TargetType targetType, Long reactionTypeId) {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new EntityNotFoundException("Usuario no encontrado con ID: " + userId));
 
-        // Verificar si el target existe (Post o Comment)
+        // Verificar si el target existe (Post o Comment) y averiguar el post al que afecta
+        Long postId;
+        Long targetAuthorId; // A quién se notifica la reacción
         if (targetType == TargetType.POST) {
-            postRepository.findById(targetId)
+            Post post = postRepository.findById(targetId)
                     .orElseThrow(() -> new EntityNotFoundException("Post no encontrado con ID: " + targetId));
+            postId = targetId;
+            targetAuthorId = post.getUser().getId();
         } else if (targetType == TargetType.COMMENT) {
-            commentRepository.findById(targetId)
+            postId = commentRepository.findPostIdById(targetId)
                     .orElseThrow(() -> new EntityNotFoundException("Comentario no encontrado con ID: " + targetId));
+            targetAuthorId = commentRepository.findAuthorIdById(targetId).orElse(null);
         } else {
             throw new IllegalArgumentException("Tipo de objetivo de reacción no válido: " + targetType);
         }
@@ -80,93 +130,146 @@ public class ReactionService {
         ReactionType reactionType = reactionTypeRepository.findById(reactionTypeId)
                 .orElseThrow(() -> new EntityNotFoundException("Tipo de reacción no encontrado con ID: " + reactionTypeId));
 
-        System.out.println("ReactionType encontrado: " + reactionType.getNombreReaccion());
-
         // Buscar si ya existe una reacción de este usuario para este target
         Optional<Reaction> existingReactionOpt = reactionRepository.findById_UserIdAndId_TargetIdAndId_TargetType(userId, targetId, targetType);
 
-        Reaction savedReaction = null;
+        Reaction savedReaction;
 
         if (existingReactionOpt.isPresent()) {
             Reaction existingReaction = existingReactionOpt.get();
             Long existingReactionTypeId = existingReaction.getReactionType().getId();
 
-            System.out.println("Reacción existente encontrada:");
-            System.out.println("  - Tipo actual: " + existingReaction.getReactionType().getNombreReaccion() + " (ID: " + existingReactionTypeId + ")");
-            System.out.println("  - Nuevo tipo: " + reactionType.getNombreReaccion() + " (ID: " + reactionTypeId + ")");
-
             // Si el tipo de reacción es el mismo, significa que se está "desactivando" la reacción (toggle off)
             if (existingReactionTypeId.equals(reactionTypeId)) {
-                System.out.println("ELIMINANDO reacción (toggle off)");
                 reactionRepository.delete(existingReaction);
+                applyCountDelta(targetId, targetType, existingReaction.getReactionType(), -1);
+                eventPublisher.publishEvent(new PostEngagementEvent(postId, PostEngagementEvent.Kind.REACTION, -1,
+                        existingReaction.getFechaReaccion()));
                 savedReaction = null; // Indica eliminación
             } else {
                 // Si el tipo de reacción es diferente, actualizamos la reacción existente
-                System.out.println("ACTUALIZANDO reacción existente");
+                applyCountDelta(targetId, targetType, existingReaction.getReactionType(), -1);
+                applyCountDelta(targetId, targetType, reactionType, 1);
+                // La reacción pasa a tener fecha de ahora: en tendencias se mueve de su fecha anterior a la nueva
+                LocalDateTime previousDate = existingReaction.getFechaReaccion();
                 existingReaction.setReactionType(reactionType);
                 existingReaction.setFechaReaccion(LocalDateTime.now());
                 savedReaction = reactionRepository.save(existingReaction);
-                System.out.println("Reacción actualizada exitosamente");
+                eventPublisher.publishEvent(new PostEngagementEvent(postId, PostEngagementEvent.Kind.REACTION, -1, previousDate));
+                eventPublisher.publishEvent(new PostEngagementEvent(postId, PostEngagementEvent.Kind.REACTION, 1,
+                        savedReaction.getFechaReaccion()));
             }
         } else {
             // Crear una nueva reacción
-            System.out.println("CREANDO nueva reacción");
             Reaction newReaction = new Reaction();
             newReaction.setId(new Reaction.ReactionId(userId, targetId, targetType));
             newReaction.setUser(user);
             newReaction.setReactionType(reactionType);
             newReaction.setFechaReaccion(LocalDateTime.now());
-            savedReaction = reactionRepository.save(newReaction);
-            System.out.println("Nueva reacción creada exitosamente");
+            savedReaction = reactionRepository.saveAndFlush(newReaction); // El flush detecta aquí una inserción duplicada
+            applyCountDelta(targetId, targetType, reactionType, 1);
+            eventPublisher.publishEvent(new PostEngagementEvent(postId, PostEngagementEvent.Kind.REACTION, 1,
+                    newReaction.getFechaReaccion()));
         }
 
-        // Obtener los conteos actualizados para el target afectado
-        Map<String, Long> updatedCounts = getReactionsCountForTarget(targetId, targetType);
-        System.out.println("Conteos actualizados: " + updatedCounts);
-
-        // CAMBIO IMPORTANTE: Ya no enviamos userReaction específica en la notificación WebSocket
-        // Cada cliente consultará su propia reacción cuando reciba la notificación
-        webSocketMessageController.notifyReactionChange(targetId, targetType, updatedCounts);
-
-        System.out.println("=== FIN DEBUG REACTION SERVICE ===");
-        return savedReaction;
+        eventPublisher.publishEvent(new PostChangedEvent(postId));
+        if (savedReaction != null) {
+            // Reacción nueva o cambiada: se avisa al autor del contenido (quitarla no notifica)
+            NotificationType notificationType = targetType == TargetType.POST
+                    ? NotificationType.REACTION_TO_POST : NotificationType.REACTION_TO_COMMENT;
+            eventPublisher.publishEvent(new InteractionEvent(targetAuthorId, userId, notificationType, postId,
+                    targetType == TargetType.COMMENT ? targetId : null, reactionType.getNombreReaccion()));
+        }
+        return new ToggleResult(savedReaction, postId);
     }
 
     /**
      * Elimina una reacción específica de un usuario a un post/comentario.
+     * Mismas garantías de concurrencia que createOrUpdateReaction; debe llamarse fuera de una transacción.
      */
     public void deleteReaction(Long userId, Long targetId, TargetType targetType) {
-        Optional<Reaction> existingReactionOpt = reactionRepository.findById_UserIdAndId_TargetIdAndId_TargetType(userId, targetId, targetType);
-        if (existingReactionOpt.isEmpty()) {
-            throw new EntityNotFoundException("Reacción no encontrada para eliminar.");
-        }
-        reactionRepository.deleteById_UserIdAndId_TargetIdAndId_TargetType(userId, targetId, targetType);
+        withToggleLock(userId, targetId, targetType, () -> {
+            Reaction existingReaction = reactionRepository.findById_UserIdAndId_TargetIdAndId_TargetType(userId, targetId, targetType)
+                    .orElseThrow(() -> new EntityNotFoundException("Reacción no encontrada para eliminar."));
+            reactionRepository.deleteById_UserIdAndId_TargetIdAndId_TargetType(userId, targetId, targetType);
+            applyCountDelta(targetId, targetType, existingReaction.getReactionType(), -1);
 
-        // Notificar a través de WebSocket sobre la eliminación (recalculando conteos)
-        Map<String, Long> updatedCounts = getReactionsCountForTarget(targetId, targetType);
-        // CAMBIO: Ya no enviamos userReaction específica
-        webSocketMessageController.notifyReactionChange(targetId, targetType, updatedCounts);
+            Long postId = targetType == TargetType.POST ? targetId : commentRepository.findPostIdById(targetId).orElse(null);
+            if (postId != null) {
+                eventPublisher.publishEvent(new PostChangedEvent(postId));
+                eventPublisher.publishEvent(new PostEngagementEvent(postId, PostEngagementEvent.Kind.REACTION, -1,
+                        existingReaction.getFechaReaccion()));
+            }
+            return new ToggleResult(null, postId);
+        });
+
+        // Notificar a través de WebSocket sobre la eliminación, con los conteos ya confirmados
+        webSocketMessageController.notifyReactionChange(targetId, targetType,
+                getReactionsCountForTarget(targetId, targetType), userId, null);
+    }
+
+    /**
+     * Ejecuta el cambio en su propia transacción, con el lock de (usuario, target) tomado hasta después del commit.
+     * Si otra instancia insertó o borró la misma reacción entre la lectura y la escritura, la transacción
+     * falla por la clave primaria o por filas afectadas y se repite, ya viendo el estado nuevo.
+     */
+    private ToggleResult withToggleLock(Long userId, Long targetId, TargetType targetType, Supplier<ToggleResult> change) {
+        ReentrantLock lock = toggleLocks.forKey(new Reaction.ReactionId(userId, targetId, targetType));
+        lock.lock();
+        try {
+            for (int attempt = 1; ; attempt++) {
+                try {
+                    return transactionTemplate.execute(status -> change.get());
+                } catch (DataIntegrityViolationException | ObjectOptimisticLockingFailureException e) {
+                    if (attempt >= MAX_TOGGLE_ATTEMPTS) {
+                        throw e;
+                    }
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
     }
 
     /**
      * Obtiene el conteo de reacciones por tipo para un objetivo específico (Post o Comment).
+     * Lee de reaction_counts, así que el coste no depende de cuántas reacciones tenga el target.
      */
     public Map<String, Long> getReactionsCountForTarget(Long targetId, TargetType targetType) {
-        List<Object[]> counts = reactionRepository.countReactionsByTargetIdAndTargetType(targetId, targetType);
-        Map<String, Long> reactionCounts = new HashMap<>();
-
-        // Inicializar todos los tipos de reacción conocidos con 0
-        reactionTypeRepository.findAll().forEach(type -> reactionCounts.put(type.getNombreReaccion(), 0L));
+        List<Object[]> counts = reactionCountRepository.findCountsByTargetIdAndTargetType(targetId, targetType);
+        Map<String, Long> reactionCounts = emptyCounts();
 
-        // Llenar el mapa con los conteos reales obtenidos de la base de datos
+        // Llenar el mapa con los conteos almacenados
         for (Object[] count : counts) {
             String reactionTypeName = (String) count[0];
             Long countValue = (Long) count[1];
-            reactionCounts.put(reactionTypeName, countValue);
+            reactionCounts.put(reactionTypeName, Math.max(countValue, 0L));
         }
         return reactionCounts;
     }
 
+    /**
+     * Obtiene los conteos de reacciones de varios objetivos del mismo tipo con una sola consulta IN.
+     * Todos los IDs solicitados aparecen en el resultado, aunque no tengan reacciones.
+     */
+    public Map<Long, Map<String, Long>> getReactionsCountForTargets(Collection<Long> targetIds, TargetType targetType) {
+        Map<Long, Map<String, Long>> countsByTarget = new HashMap<>();
+        if (targetIds == null || targetIds.isEmpty()) {
+            return countsByTarget;
+        }
+
+        Map<String, Long> template = emptyCounts();
+        targetIds.forEach(id -> countsByTarget.put(id, new HashMap<>(template)));
+
+        for (Object[] row : reactionCountRepository.findCountsByTargetIdsAndTargetType(targetIds, targetType)) {
+            Long targetId = (Long) row[0];
+            String reactionTypeName = (String) row[1];
+            Long countValue = (Long) row[2];
+            countsByTarget.get(targetId).put(reactionTypeName, Math.max(countValue, 0L));
+        }
+        return countsByTarget;
+    }
+
     /**
      * Obtiene el tipo de reacción que un usuario específico dio a un objetivo.
      */
@@ -174,4 +277,64 @@ public class ReactionService {
         Optional<String> reactionName = reactionRepository.findUserReactionTypeByUserIdAndTargetIdAndTargetType(userId, targetId, targetType);
         return reactionName.orElse(null);
     }
-}
\ No newline at end of file
+
+    /**
+     * Obtiene las reacciones de un usuario a varios objetivos del mismo tipo (targetId -> nombre de reacción).
+     * Los objetivos sin reacción no aparecen en el mapa.
+     */
+    public Map<Long, String> getUserReactionsForTargets(Long userId, Collection<Long> targetIds, TargetType targetType) {
+        Map<Long, String> reactions = new HashMap<>();
+        if (userId == null || targetIds == null || targetIds.isEmpty()) {
+            return reactions;
+        }
+        for (Object[] row : reactionRepository.findUserReactionTypesByUserIdAndTargetIds(userId, targetIds, targetType)) {
+            reactions.put((Long) row[0], (String) row[1]);
+        }
+        return reactions;
+    }
+
+    /**
+     * Borra en bloque las reacciones de un post y de todos sus comentarios, con sus conteos (todos los shards).
+     * Debe llamarse en la transacción que borra el post, antes de borrar los comentarios. Devuelve las reacciones borradas.
+     */
+    public int deleteReactionsForPost(Long postId) {
+        reactionCountRepository.deleteCommentCountsByPostId(TargetType.COMMENT, postId);
+        reactionCountRepository.deleteByTargetIds(TargetType.POST, List.of(postId));
+        return reactionRepository.deleteCommentReactionsByPostId(TargetType.COMMENT, postId)
+                + reactionRepository.deleteByTargetIds(TargetType.POST, List.of(postId));
+    }
+
+    /**
+     * Igual, para los comentarios cuya ruta está en [low, high) (un subárbol), antes de borrarlos.
+     */
+    public int deleteReactionsForCommentSubtree(String low, String high) {
+        reactionCountRepository.deleteCommentCountsByRutaRange(TargetType.COMMENT, low, high);
+        return reactionRepository.deleteCommentReactionsByRutaRange(TargetType.COMMENT, low, high);
+    }
+
+    /**
+     * Igual, para una lista de targets concretos. Se borra por bloques para no superar el límite
+     * de parámetros de una consulta IN.
+     */
+    public int deleteReactionsForTargets(TargetType targetType, List<Long> targetIds) {
+        int deleted = 0;
+        for (int from = 0; from < targetIds.size(); from += BULK_DELETE_CHUNK) {
+            List<Long> chunk = targetIds.subList(from, Math.min(targetIds.size(), from + BULK_DELETE_CHUNK));
+            reactionCountRepository.deleteByTargetIds(targetType, chunk);
+            deleted += reactionRepository.deleteByTargetIds(targetType, chunk);
+        }
+        return deleted;
+    }
+
+    // Inicializa todos los tipos de reacción conocidos con 0
+    private Map<String, Long> emptyCounts() {
+        Map<String, Long> reactionCounts = new HashMap<>();
+        reactionTypeRepository.findAll().forEach(type -> reactionCounts.put(type.getNombreReaccion(), 0L));
+        return reactionCounts;
+    }
+
+    // Ajusta reaction_counts; los targets muy activos reparten el delta entre varios shards
+    private void applyCountDelta(Long targetId, TargetType targetType, ReactionType reactionType, long delta) {
+        shardedReactionCounter.applyDelta(targetId, targetType, reactionType, delta);
+    }
+}
@@ -0,0 +1,73 @@
+package com.skill.websockets.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Ejecuta lecturas en el readExecutor agrupando las peticiones idénticas que están en curso:
+ * si llegan mil peticiones del mismo feed a la vez, se calcula una vez y todas reciben el mismo resultado.
+ * Solo se comparten cálculos simultáneos; no es una caché (para eso están PostRenderCache y los ETags).
+ *
+ * Los resultados se comparten entre peticiones y no deben modificarse.
+ */
+@Component
+public class ReadCoalescer {
+
+    private final Executor readExecutor;
+    private final ConcurrentMap<String, CompletableFuture<?>> inFlight = new ConcurrentHashMap<>();
+    private final LongAdder executed = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+
+    @Autowired
+    public ReadCoalescer(@Qualifier("readExecutor") Executor readExecutor) {
+        this.readExecutor = readExecutor;
+    }
+
+    /**
+     * Devuelve el cálculo en curso para la clave o lanza uno nuevo.
+     * Si el ejecutor está saturado, el futuro termina con TaskRejectedException.
+     * El futuro puede ser compartido: para limitar la espera de una petición hay que derivar uno nuevo.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> CompletableFuture<T> submit(String key, Supplier<T> loader) {
+        CompletableFuture<T> created = new CompletableFuture<>();
+        CompletableFuture<T> existing = (CompletableFuture<T>) inFlight.putIfAbsent(key, created);
+        if (existing != null) {
+            coalesced.increment();
+            return existing;
+        }
+
+        executed.increment();
+        try {
+            readExecutor.execute(() -> {
+                try {
+                    created.complete(loader.get());
+                } catch (Throwable e) {
+                    created.completeExceptionally(e);
+                } finally {
+                    inFlight.remove(key, created);
+                }
+            });
+        } catch (RuntimeException e) {
+            inFlight.remove(key, created);
+            created.completeExceptionally(e);
+        }
+        return created;
+    }
+
+    public long getExecutedCount() {
+        return executed.sum();
+    }
+
+    public long getCoalescedCount() {
+        return coalesced.sum();
+    }
+}
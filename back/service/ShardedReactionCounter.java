@@ -0,0 +1,299 @@
+package com.skill.websockets.service;
+
+import com.skill.websockets.model.ReactionCount;
+import com.skill.websockets.model.ReactionType;
+import com.skill.websockets.model.TargetType;
+import com.skill.websockets.repository.ReactionCountRepository;
+import com.skill.websockets.repository.ReactionTypeRepository;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Escribe los deltas de reaction_counts repartiendo los targets "calientes" entre varios shards.
+ *
+ * Cada target lleva en memoria su tasa de escrituras (un LongAdder, que tampoco contiende entre hilos).
+ * Mientras supera el umbral, cada delta va a un shard aleatorio de 0..N-1, así que los toggles
+ * concurrentes de usuarios distintos bloquean filas distintas en lugar de hacer cola en una sola.
+ * Las lecturas suman los shards (ver ReactionCountRepository). Cuando el tráfico se enfría,
+ * mergeCooledShards() vuelve a plegar los shards secundarios en el shard 0. Los targets con shards
+ * secundarios se llevan en memoria (se leen una vez al arrancar), así que el plegado no recorre la tabla.
+ *
+ * Los shards secundarios solo se activan si la clave primaria de reaction_counts incluye `shard`
+ * (ver ReactionCount); hasta entonces todo va al shard 0.
+ */
+@Component
+public class ShardedReactionCounter {
+
+    private static final Logger log = LoggerFactory.getLogger(ShardedReactionCounter.class);
+
+    public static final int PRIMARY_SHARD = 0;
+    private static final String TABLE = "reaction_counts";
+    private static final String SHARD_COLUMN = "shard";
+    private static final String PRIMARY_KEY_COLUMNS = "target_id, target_type, id_tipo_reaccion, shard";
+
+    private record TargetKey(Long targetId, TargetType targetType) {
+    }
+
+    // Escrituras de un target en la ventana actual y hasta cuándo se considera caliente
+    private static final class Activity {
+        final LongAdder writes = new LongAdder();
+        final AtomicLong windowStartNanos;
+        volatile long hotUntilNanos;
+
+        Activity(long nowNanos) {
+            this.windowStartNanos = new AtomicLong(nowNanos);
+            this.hotUntilNanos = nowNanos; // nanoTime puede ser negativo: 0 no sirve como "nunca"
+        }
+    }
+
+    private final ReactionCountRepository reactionCountRepository;
+    private final ReactionTypeRepository reactionTypeRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final JdbcTemplate jdbcTemplate;
+    private final ConcurrentMap<TargetKey, Activity> activity = new ConcurrentHashMap<>();
+    // Targets que pueden tener filas fuera del shard 0: los que había al arrancar y los que añade applyDelta
+    private final Set<TargetKey> shardedTargets = ConcurrentHashMap.newKeySet();
+    // Se activa en checkSchema() cuando la clave primaria admite varias filas por target y tipo
+    private volatile boolean shardingEnabled;
+
+    private final long hotWritesPerWindow;
+    private final long windowNanos;
+    private final long cooldownNanos;
+    private final int shardCount;
+    private final boolean migrateSchema;
+
+    @Autowired
+    public ShardedReactionCounter(ReactionCountRepository reactionCountRepository,
+                                  ReactionTypeRepository reactionTypeRepository,
+                                  TransactionTemplate transactionTemplate,
+                                  JdbcTemplate jdbcTemplate,
+                                  @Value("${app.reactions.hot-key.writes-per-window:50}") long hotWritesPerWindow,
+                                  @Value("${app.reactions.hot-key.window-ms:1000}") long windowMs,
+                                  @Value("${app.reactions.hot-key.cooldown-ms:60000}") long cooldownMs,
+                                  @Value("${app.reactions.hot-key.shards:0}") int shards,
+                                  @Value("${app.reactions.hot-key.migrate-schema:false}") boolean migrateSchema) {
+        this.reactionCountRepository = reactionCountRepository;
+        this.reactionTypeRepository = reactionTypeRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.jdbcTemplate = jdbcTemplate;
+        this.hotWritesPerWindow = hotWritesPerWindow;
+        this.windowNanos = TimeUnit.MILLISECONDS.toNanos(windowMs);
+        this.cooldownNanos = TimeUnit.MILLISECONDS.toNanos(cooldownMs);
+        // Por defecto, un shard por núcleo: más no aporta paralelismo real
+        this.shardCount = shards > 0 ? shards : Runtime.getRuntime().availableProcessors();
+        this.migrateSchema = migrateSchema;
+    }
+
+    /**
+     * Comprueba al arrancar que la clave primaria de reaction_counts incluye `shard`. Si no,
+     * la recrea cuando migrate-schema está activo y, en otro caso, deja los shards desactivados.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void checkSchema() {
+        try {
+            if (!primaryKeyIncludesShard() && migrateSchema) {
+                log.info("Recreando la clave primaria de {} con la columna {}", TABLE, SHARD_COLUMN);
+                jdbcTemplate.execute(primaryKeyMigration());
+            }
+            shardingEnabled = primaryKeyIncludesShard();
+        } catch (RuntimeException e) {
+            log.warn("No se pudo comprobar la clave primaria de {}", TABLE, e);
+            shardingEnabled = false;
+        }
+        if (!shardingEnabled) {
+            log.warn("La clave primaria de {} no incluye {}: los conteos no se reparten en shards (ver ReactionCount)",
+                    TABLE, SHARD_COLUMN);
+        }
+
+        // Shards que quedaron repartidos antes de un reinicio: única lectura completa de la tabla
+        try {
+            for (Object[] row : reactionCountRepository.findShardedTargets()) {
+                shardedTargets.add(new TargetKey((Long) row[0], (TargetType) row[1]));
+            }
+        } catch (RuntimeException e) {
+            log.warn("No se pudieron leer los targets con shards secundarios de {}", TABLE, e);
+        }
+    }
+
+    private boolean primaryKeyIncludesShard() {
+        return Boolean.TRUE.equals(jdbcTemplate.execute((ConnectionCallback<Boolean>) connection -> {
+            DatabaseMetaData metaData = connection.getMetaData();
+            for (String table : List.of(TABLE, TABLE.toUpperCase())) {
+                try (ResultSet keys = metaData.getPrimaryKeys(connection.getCatalog(), null, table)) {
+                    while (keys.next()) {
+                        if (SHARD_COLUMN.equalsIgnoreCase(keys.getString("COLUMN_NAME"))) {
+                            return true;
+                        }
+                    }
+                }
+            }
+            return false;
+        }));
+    }
+
+    // MySQL/MariaDB sustituyen la clave en una sentencia; el resto necesita el nombre de la restricción
+    private String primaryKeyMigration() {
+        return jdbcTemplate.execute((ConnectionCallback<String>) connection -> {
+            DatabaseMetaData metaData = connection.getMetaData();
+            String database = metaData.getDatabaseProductName();
+            if ("MySQL".equalsIgnoreCase(database) || "MariaDB".equalsIgnoreCase(database)) {
+                return "ALTER TABLE " + TABLE + " DROP PRIMARY KEY, ADD PRIMARY KEY (" + PRIMARY_KEY_COLUMNS + ")";
+            }
+            String constraint = null;
+            for (String table : List.of(TABLE, TABLE.toUpperCase())) {
+                try (ResultSet keys = metaData.getPrimaryKeys(connection.getCatalog(), null, table)) {
+                    if (keys.next()) {
+                        constraint = keys.getString("PK_NAME");
+                        break;
+                    }
+                }
+            }
+            String drop = constraint != null ? "DROP CONSTRAINT " + constraint + ", " : "";
+            return "ALTER TABLE " + TABLE + " " + drop + "ADD PRIMARY KEY (" + PRIMARY_KEY_COLUMNS + ")";
+        });
+    }
+
+    /**
+     * Ajusta atómicamente el conteo del target y tipo indicados en el shard que toque.
+     * Debe llamarse dentro de la misma transacción que modifica `reacciones`.
+     */
+    public void applyDelta(Long targetId, TargetType targetType, ReactionType reactionType, long delta) {
+        TargetKey key = new TargetKey(targetId, targetType);
+        int shard = chooseShard(key);
+        int updated = reactionCountRepository.addToCount(targetId, targetType, reactionType.getId(), shard, delta);
+        // En un shard secundario el valor parcial puede ser negativo (un "-1" que cae donde no hubo "+1"); solo importa la suma
+        if (updated == 0 && (delta > 0 || shard != PRIMARY_SHARD)) {
+            ReactionCount.ReactionCountId countId =
+                    new ReactionCount.ReactionCountId(targetId, targetType, reactionType.getId(), shard);
+            reactionCountRepository.save(new ReactionCount(countId, reactionType, delta));
+        }
+        if (shard != PRIMARY_SHARD) {
+            trackAfterCommit(key);
+        }
+    }
+
+    // Tras el commit: si mergeCooledShards quita el target antes, su lectura posterior ya ve la fila confirmada
+    private void trackAfterCommit(TargetKey key) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            shardedTargets.add(key);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                shardedTargets.add(key);
+            }
+        });
+    }
+
+    private int chooseShard(TargetKey key) {
+        long now = System.nanoTime();
+        Activity current = activity.computeIfAbsent(key, k -> new Activity(now));
+
+        long windowStart = current.windowStartNanos.get();
+        if (now - windowStart >= windowNanos && current.windowStartNanos.compareAndSet(windowStart, now)) {
+            // Solo un hilo cierra cada ventana
+            long writes = current.writes.sumThenReset();
+            if (writes >= hotWritesPerWindow) {
+                if (shardingEnabled && current.hotUntilNanos - now <= 0) {
+                    log.info("Target {} {} caliente ({} escrituras/ventana): repartiendo su conteo en {} shards",
+                            key.targetType(), key.targetId(), writes, shardCount);
+                }
+                current.hotUntilNanos = now + cooldownNanos;
+            }
+        }
+        current.writes.increment();
+
+        return shardingEnabled && current.hotUntilNanos - now > 0 ? ThreadLocalRandom.current().nextInt(shardCount) : PRIMARY_SHARD;
+    }
+
+    private boolean isHot(TargetKey key, long now) {
+        Activity current = activity.get(key);
+        return current != null && current.hotUntilNanos - now > 0;
+    }
+
+    /**
+     * Pliega en el shard 0 los shards secundarios de los targets que ya no están calientes,
+     * incluidos los que quedaron repartidos antes de un reinicio.
+     * Cada shard se borra solo si su conteo sigue siendo el leído, así que un toggle que llegue
+     * a la vez nunca se pierde: ese shard simplemente se pliega en la siguiente ejecución.
+     * Solo consulta los targets de shardedTargets.
+     */
+    @Scheduled(initialDelayString = "${app.reactions.hot-key.merge-interval-ms:30000}",
+            fixedDelayString = "${app.reactions.hot-key.merge-interval-ms:30000}")
+    public void mergeCooledShards() {
+        long now = System.nanoTime();
+        int merged = 0;
+        for (TargetKey key : shardedTargets) {
+            if (isHot(key, now)) {
+                continue;
+            }
+            // Se quita antes de leer sus filas: un delta confirmado después vuelve a añadirlo
+            shardedTargets.remove(key);
+            try {
+                Integer folded = transactionTemplate.execute(status -> mergeShards(key));
+                merged += folded != null ? folded : 0;
+            } catch (RuntimeException e) {
+                shardedTargets.add(key);
+                log.warn("No se pudieron plegar los shards de {} {}", key.targetType(), key.targetId(), e);
+            }
+        }
+
+        // Los targets sin escrituras desde hace más de un enfriamiento ya no aportan información
+        activity.entrySet().removeIf(entry -> now - entry.getValue().windowStartNanos.get() > cooldownNanos
+                && entry.getValue().hotUntilNanos - now <= 0);
+
+        if (merged > 0) {
+            log.info("Plegados {} shards secundarios de reaction_counts", merged);
+        }
+    }
+
+    private int mergeShards(TargetKey key) {
+        List<Object[]> rows = reactionCountRepository.findSecondaryShardRows(key.targetId(), key.targetType());
+        int merged = 0;
+        for (Object[] row : rows) {
+            Long reactionTypeId = (Long) row[0];
+            Integer shard = (Integer) row[1];
+            Long count = (Long) row[2];
+            if (reactionCountRepository.deleteShardIfCount(key.targetId(), key.targetType(), reactionTypeId, shard, count) == 0) {
+                shardedTargets.add(key); // Lo cambió otro toggle: se pliega en la siguiente ejecución
+                continue;
+            }
+            merged++;
+            if (count == 0L) {
+                continue;
+            }
+            int updated = reactionCountRepository.addToCount(key.targetId(), key.targetType(), reactionTypeId, PRIMARY_SHARD, count);
+            if (updated == 0) {
+                ReactionCount.ReactionCountId countId =
+                        new ReactionCount.ReactionCountId(key.targetId(), key.targetType(), reactionTypeId, PRIMARY_SHARD);
+                reactionCountRepository.save(new ReactionCount(countId,
+                        reactionTypeRepository.getReferenceById(reactionTypeId), count));
+            }
+        }
+        return merged;
+    }
+}
@@ -0,0 +1,28 @@
+package com.skill.websockets.service;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Conjunto fijo de locks repartidos por hash de la clave.
+ * Las operaciones sobre la misma clave se serializan; las de claves distintas casi nunca comparten lock,
+ * y la memoria no crece con el número de claves.
+ */
+final class StripedLocks {
+
+    private final ReentrantLock[] stripes;
+
+    StripedLocks(int stripeCount) {
+        // Potencia de dos para elegir el stripe con una máscara
+        int size = Integer.highestOneBit(Math.max(1, stripeCount - 1)) << 1;
+        this.stripes = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+    }
+
+    ReentrantLock forKey(Object key) {
+        int hash = key.hashCode();
+        hash ^= (hash >>> 16); // Mezcla los bits altos, como HashMap
+        return stripes[hash & (stripes.length - 1)];
+    }
+}
@@ -4,26 +4,36 @@ import com.skill.websockets.model.Tag;
 import com.skill.websockets.model.Post;
 import com.skill.websockets.repository.TagRepository;
 import com.skill.websockets.repository.PostRepository;
+import com.skill.websockets.event.PostChangedEvent;
+import com.skill.websockets.event.PostTagsChangedEvent;
+import com.skill.websockets.event.TagCreatedEvent;
+import com.skill.websockets.event.TagDeletedEvent;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import jakarta.persistence.EntityNotFoundException;
 
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 import java.util.HashSet;
+import java.util.stream.Collectors;
 
 @Service
 public class TagService {
 
     private final TagRepository tagRepository;
     private final PostRepository postRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Autowired
-    public TagService(TagRepository tagRepository, PostRepository postRepository) {
+    public TagService(TagRepository tagRepository, PostRepository postRepository,
+                      ApplicationEventPublisher eventPublisher) {
         this.tagRepository = tagRepository;
         this.postRepository = postRepository;
+        this.eventPublisher = eventPublisher;
     }
 
     /**
@@ -59,26 +69,35 @@ public class TagService {
 
         Tag newTag = new Tag();
         newTag.setNombreEtiqueta(nombreEtiqueta);
-        return tagRepository.save(newTag);
+        Tag savedTag = tagRepository.save(newTag);
+        eventPublisher.publishEvent(new TagCreatedEvent(savedTag.getId(), savedTag.getNombreEtiqueta()));
+        return savedTag;
     }
 
     /**
      * Elimina una etiqueta por su ID
      */
+    @Transactional
     public void deleteTag(Long id) {
-        if (!tagRepository.existsById(id)) {
-            throw new EntityNotFoundException("Etiqueta no encontrada con ID: " + id);
-        }
-        tagRepository.deleteById(id);
+        Tag tag = tagRepository.findById(id)
+                .orElseThrow(() -> new EntityNotFoundException("Etiqueta no encontrada con ID: " + id));
+        // Los posts que la usaban cambian de representación
+        List<Long> affectedPostIds = tag.getPosts().stream().map(Post::getId).toList();
+        tagRepository.delete(tag);
+        affectedPostIds.forEach(postId -> eventPublisher.publishEvent(new PostChangedEvent(postId)));
+        eventPublisher.publishEvent(new TagDeletedEvent(id));
     }
 
     /**
      * Agrega etiquetas a un post existente
      */
+    @Transactional
     public Post addTagsToPost(Long postId, List<String> tagNames) {
         Post post = postRepository.findById(postId)
                 .orElseThrow(() -> new EntityNotFoundException("Post no encontrado con ID: " + postId));
 
+        Set<Long> previousTagIds = tagIdsOf(post);
+
         Set<Tag> tagsToAdd = new HashSet<>();
         
         for (String tagName : tagNames) {
@@ -91,16 +110,22 @@ public class TagService {
         // Agregar las nuevas etiquetas al post (sin eliminar las existentes)
         post.getTags().addAll(tagsToAdd);
         
-        return postRepository.save(post);
+        Post savedPost = postRepository.save(post);
+        eventPublisher.publishEvent(new PostChangedEvent(postId));
+        publishTagChange(postId, previousTagIds, tagIdsOf(savedPost));
+        return savedPost;
     }
 
     /**
      * Reemplaza todas las etiquetas de un post
      */
+    @Transactional
     public Post setTagsToPost(Long postId, List<String> tagNames) {
         Post post = postRepository.findById(postId)
                 .orElseThrow(() -> new EntityNotFoundException("Post no encontrado con ID: " + postId));
 
+        Set<Long> previousTagIds = tagIdsOf(post);
+
         // Limpiar etiquetas existentes
         post.getTags().clear();
 
@@ -115,16 +140,22 @@ public class TagService {
 
         post.getTags().addAll(newTags);
         
-        return postRepository.save(post);
+        Post savedPost = postRepository.save(post);
+        eventPublisher.publishEvent(new PostChangedEvent(postId));
+        publishTagChange(postId, previousTagIds, tagIdsOf(savedPost));
+        return savedPost;
     }
 
     /**
      * Remueve etiquetas específicas de un post
      */
+    @Transactional
     public Post removeTagsFromPost(Long postId, List<String> tagNames) {
         Post post = postRepository.findById(postId)
                 .orElseThrow(() -> new EntityNotFoundException("Post no encontrado con ID: " + postId));
 
+        Set<Long> previousTagIds = tagIdsOf(post);
+
         for (String tagName : tagNames) {
             Optional<Tag> tagOptional = tagRepository.findByNombreEtiqueta(tagName);
             if (tagOptional.isPresent()) {
@@ -132,7 +163,10 @@ public class TagService {
             }
         }
         
-        return postRepository.save(post);
+        Post savedPost = postRepository.save(post);
+        eventPublisher.publishEvent(new PostChangedEvent(postId));
+        publishTagChange(postId, previousTagIds, tagIdsOf(savedPost));
+        return savedPost;
     }
 
     /**
@@ -146,4 +180,15 @@ public class TagService {
         }
         return List.of(); // Lista vacía si la etiqueta no existe
     }
-}
\ No newline at end of file
+
+    private Set<Long> tagIdsOf(Post post) {
+        return post.getTags().stream().map(Tag::getId).collect(Collectors.toSet());
+    }
+
+    // Solo si el conjunto cambió: las estadísticas de etiquetas se ajustan con la diferencia
+    private void publishTagChange(Long postId, Set<Long> previousTagIds, Set<Long> currentTagIds) {
+        if (!previousTagIds.equals(currentTagIds)) {
+            eventPublisher.publishEvent(new PostTagsChangedEvent(postId, previousTagIds, currentTagIds));
+        }
+    }
+}
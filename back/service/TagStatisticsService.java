@@ -0,0 +1,249 @@
+package com.skill.websockets.service;
+
+import com.skill.websockets.dto.TagUsageDTO;
+import com.skill.websockets.event.PostTagsChangedEvent;
+import com.skill.websockets.event.TagCreatedEvent;
+import com.skill.websockets.event.TagDeletedEvent;
+import com.skill.websockets.repository.TagRepository;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Estadísticas de uso de etiquetas en memoria: número de posts por etiqueta (con un índice ordenado por
+ * popularidad) y una matriz dispersa de co-ocurrencia (cuántos posts comparten cada par de etiquetas).
+ *
+ * Se cargan al arrancar con dos consultas agregadas y después se ajustan con PostTagsChangedEvent,
+ * tocando solo las etiquetas y pares que cambian. Las lecturas no consultan la base de datos.
+ */
+@Component
+public class TagStatisticsService {
+
+    private static final Logger log = LoggerFactory.getLogger(TagStatisticsService.class);
+
+    public static final int MAX_RELATED = 20;
+
+    private record Ranked(long postCount, long tagId) {
+    }
+
+    // Más usada primero; a igual uso, la etiqueta más antigua
+    private static final Comparator<Ranked> BY_POPULARITY = Comparator.comparingLong(Ranked::postCount).reversed()
+            .thenComparingLong(Ranked::tagId);
+
+    private final TagRepository tagRepository;
+
+    private final Map<Long, String> names = new HashMap<>();
+    private final Map<Long, Long> postCounts = new HashMap<>();
+    private final NavigableSet<Ranked> byPopularity = new TreeSet<>(BY_POPULARITY);
+    private final Map<Long, Map<Long, Long>> cooccurrence = new HashMap<>();
+    // Top MAX_RELATED de cada etiqueta, calculado al leerlo y descartado cuando cambia su fila
+    private final ConcurrentMap<Long, List<TagUsageDTO>> relatedCache = new ConcurrentHashMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    @Autowired
+    public TagStatisticsService(TagRepository tagRepository) {
+        this.tagRepository = tagRepository;
+    }
+
+    /**
+     * Etiquetas ordenadas de más a menos usada. Cuesta O(offset + limit).
+     */
+    public List<TagUsageDTO> getPopularTags(int offset, int limit) {
+        lock.readLock().lock();
+        try {
+            List<TagUsageDTO> page = new ArrayList<>(limit);
+            Iterator<Ranked> iterator = byPopularity.iterator();
+            for (int skipped = 0; skipped < offset && iterator.hasNext(); skipped++) {
+                iterator.next();
+            }
+            while (page.size() < limit && iterator.hasNext()) {
+                Ranked ranked = iterator.next();
+                page.add(new TagUsageDTO(ranked.tagId(), names.get(ranked.tagId()), ranked.postCount()));
+            }
+            return page;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Etiquetas que más aparecen junto a la indicada; postCount es el número de posts que comparten.
+     * Vacío si la etiqueta no existe o nunca coincide con otra.
+     */
+    public List<TagUsageDTO> getRelatedTags(Long tagId, int limit) {
+        lock.readLock().lock();
+        try {
+            List<TagUsageDTO> related = relatedCache.computeIfAbsent(tagId, this::computeRelated);
+            return related.subList(0, Math.min(limit, related.size()));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public boolean hasTag(Long tagId) {
+        lock.readLock().lock();
+        try {
+            return names.containsKey(tagId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private List<TagUsageDTO> computeRelated(Long tagId) {
+        Map<Long, Long> row = cooccurrence.getOrDefault(tagId, Map.of());
+        return row.entrySet().stream()
+                .sorted(Map.Entry.<Long, Long>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()))
+                .limit(MAX_RELATED)
+                .map(entry -> new TagUsageDTO(entry.getKey(), names.get(entry.getKey()), entry.getValue()))
+                .toList();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPostTagsChanged(PostTagsChangedEvent event) {
+        Set<Long> previous = event.previousTagIds();
+        Set<Long> current = event.currentTagIds();
+        lock.writeLock().lock();
+        try {
+            previous.stream().filter(tagId -> !current.contains(tagId)).forEach(tagId -> adjustCount(tagId, -1));
+            current.stream().filter(tagId -> !previous.contains(tagId)).forEach(tagId -> adjustCount(tagId, 1));
+            // Solo cambian los pares que no estaban (o ya no están) completos en ambos conjuntos
+            adjustPairs(previous, current, -1);
+            adjustPairs(current, previous, 1);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTagCreated(TagCreatedEvent event) {
+        lock.writeLock().lock();
+        try {
+            if (names.putIfAbsent(event.tagId(), event.nombreEtiqueta()) == null) {
+                postCounts.put(event.tagId(), 0L);
+                byPopularity.add(new Ranked(0L, event.tagId()));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTagDeleted(TagDeletedEvent event) {
+        Long tagId = event.tagId();
+        lock.writeLock().lock();
+        try {
+            names.remove(tagId);
+            Long count = postCounts.remove(tagId);
+            if (count != null) {
+                byPopularity.remove(new Ranked(count, tagId));
+            }
+            Map<Long, Long> row = cooccurrence.remove(tagId);
+            if (row != null) {
+                for (Long other : row.keySet()) {
+                    Map<Long, Long> otherRow = cooccurrence.get(other);
+                    if (otherRow != null) {
+                        otherRow.remove(tagId);
+                    }
+                    relatedCache.remove(other);
+                }
+            }
+            relatedCache.remove(tagId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Carga los conteos por etiqueta y por par de etiquetas (dos consultas agregadas, solo al arrancar).
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        List<Object[]> tags = tagRepository.findAllWithPostCounts();
+        List<Object[]> pairs = tagRepository.countTagPairs();
+        lock.writeLock().lock();
+        try {
+            for (Object[] row : tags) {
+                Long tagId = (Long) row[0];
+                Long count = (Long) row[2];
+                names.put(tagId, (String) row[1]);
+                Long previous = postCounts.put(tagId, count);
+                if (previous != null) {
+                    byPopularity.remove(new Ranked(previous, tagId));
+                }
+                byPopularity.add(new Ranked(count, tagId));
+            }
+            for (Object[] row : pairs) {
+                Long first = (Long) row[0];
+                Long second = (Long) row[1];
+                Long count = (Long) row[2];
+                cooccurrence.computeIfAbsent(first, id -> new HashMap<>()).put(second, count);
+                cooccurrence.computeIfAbsent(second, id -> new HashMap<>()).put(first, count);
+            }
+            relatedCache.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Estadísticas de etiquetas cargadas: {} etiquetas, {} pares", tags.size(), pairs.size());
+    }
+
+    private void adjustCount(Long tagId, long delta) {
+        if (!names.containsKey(tagId)) {
+            return; // Etiqueta ya eliminada
+        }
+        long previous = postCounts.getOrDefault(tagId, 0L);
+        long updated = Math.max(0, previous + delta);
+        byPopularity.remove(new Ranked(previous, tagId));
+        byPopularity.add(new Ranked(updated, tagId));
+        postCounts.put(tagId, updated);
+    }
+
+    // Ajusta cada par de `tagIds` que no está completo en `other`
+    private void adjustPairs(Set<Long> tagIds, Set<Long> other, long delta) {
+        List<Long> ordered = new ArrayList<>(tagIds);
+        for (int i = 0; i < ordered.size(); i++) {
+            for (int j = i + 1; j < ordered.size(); j++) {
+                Long first = ordered.get(i);
+                Long second = ordered.get(j);
+                if (other.contains(first) && other.contains(second)) {
+                    continue;
+                }
+                adjustPair(first, second, delta);
+                adjustPair(second, first, delta);
+            }
+        }
+    }
+
+    private void adjustPair(Long tagId, Long other, long delta) {
+        if (!names.containsKey(tagId) || !names.containsKey(other)) {
+            return;
+        }
+        Map<Long, Long> row = cooccurrence.computeIfAbsent(tagId, id -> new HashMap<>());
+        long updated = row.getOrDefault(other, 0L) + delta;
+        if (updated > 0) {
+            row.put(other, updated);
+        } else {
+            row.remove(other);
+        }
+        relatedCache.remove(tagId);
+    }
+}
@@ -0,0 +1,85 @@
+package com.skill.websockets.trending;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Posts ordenados por puntuación: un mapa postId -> puntuación y una skip list con las mismas
+ * entradas ordenadas de mayor a menor. Actualizar un post cuesta O(log n) y leer una página
+ * del ranking O(offset + limit), sin ordenar nada en la lectura.
+ *
+ * add() y remove() pueden llamarse concurrentemente (cada post se actualiza de forma atómica en el mapa);
+ * rescale() necesita acceso exclusivo, que coordina TrendingService.
+ */
+final class TrendingRanking {
+
+    private record Entry(double score, long postId) {
+    }
+
+    // Mayor puntuación primero; a igual puntuación, el post más reciente (ID mayor)
+    private static final Comparator<Entry> ORDER = Comparator.comparingDouble(Entry::score).reversed()
+            .thenComparing(Comparator.comparingLong(Entry::postId).reversed());
+
+    private final ConcurrentMap<Long, Double> scores = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListSet<Entry> ordered = new ConcurrentSkipListSet<>(ORDER);
+
+    // Suma delta a la puntuación del post; si queda en 0 o menos, el post sale del ranking
+    void add(long postId, double delta) {
+        scores.compute(postId, (id, previous) -> {
+            double updated = (previous != null ? previous : 0d) + delta;
+            if (previous != null) {
+                ordered.remove(new Entry(previous, id));
+            }
+            if (updated <= 0) {
+                return null;
+            }
+            ordered.add(new Entry(updated, id));
+            return updated;
+        });
+    }
+
+    void remove(long postId) {
+        scores.computeIfPresent(postId, (id, previous) -> {
+            ordered.remove(new Entry(previous, id));
+            return null;
+        });
+    }
+
+    List<Long> top(int offset, int limit) {
+        List<Long> postIds = new ArrayList<>(limit);
+        Iterator<Entry> iterator = ordered.iterator();
+        for (int skipped = 0; skipped < offset && iterator.hasNext(); skipped++) {
+            iterator.next();
+        }
+        while (postIds.size() < limit && iterator.hasNext()) {
+            postIds.add(iterator.next().postId());
+        }
+        return postIds;
+    }
+
+    Double score(long postId) {
+        return scores.get(postId);
+    }
+
+    int size() {
+        return scores.size();
+    }
+
+    /**
+     * Multiplica todas las puntuaciones por factor y descarta las que quedan por debajo de minScore.
+     * Multiplicar por la misma constante no cambia el orden, así que la skip list se reconstruye tal cual.
+     */
+    int rescale(double factor, double minScore) {
+        ordered.clear();
+        int before = scores.size();
+        scores.replaceAll((id, score) -> score * factor);
+        scores.values().removeIf(score -> score < minScore);
+        scores.forEach((id, score) -> ordered.add(new Entry(score, id)));
+        return before - scores.size();
+    }
+}
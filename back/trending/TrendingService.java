@@ -0,0 +1,183 @@
+package com.skill.websockets.trending;
+
+import com.skill.websockets.event.PostDeletedEvent;
+import com.skill.websockets.event.PostEngagementEvent;
+import com.skill.websockets.model.TargetType;
+import com.skill.websockets.repository.CommentRepository;
+import com.skill.websockets.repository.ReactionRepository;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * Ranking de posts en tendencia con puntuaciones que decaen con el tiempo.
+ *
+ * Cada interacción suma peso · 2^(-edad / vidaMedia). En vez de recalcular todas las puntuaciones
+ * a medida que envejecen, se guardan relativas a un instante de referencia (landmark): una interacción
+ * en t suma peso · 2^((t - landmark) / vidaMedia). Todas las puntuaciones envejecen al mismo ritmo,
+ * así que el orden no cambia con el paso del tiempo y solo hay que tocar el post que recibe la interacción.
+ * Periódicamente decay() aplica el decaimiento acumulado de una vez (mueve el landmark a ahora)
+ * para que los exponentes no crezcan sin límite, y descarta los posts que ya no puntúan.
+ *
+ * Se alimenta de PostEngagementEvent tras el commit y se reconstruye al arrancar con la actividad reciente.
+ */
+@Component
+public class TrendingService {
+
+    private static final Logger log = LoggerFactory.getLogger(TrendingService.class);
+
+    private final ReactionRepository reactionRepository;
+    private final CommentRepository commentRepository;
+    private final TrendingRanking ranking = new TrendingRanking();
+
+    // add() comparte el lock de lectura (es concurrente entre sí); decay() toma el de escritura
+    private final ReentrantReadWriteLock rescaleLock = new ReentrantReadWriteLock();
+    private volatile long landmarkMillis = System.currentTimeMillis();
+
+    private final double reactionWeight;
+    private final double commentWeight;
+    private final double halfLifeMillis;
+    private final double minScore;
+    private final long bootstrapHours;
+
+    @Autowired
+    public TrendingService(ReactionRepository reactionRepository,
+                           CommentRepository commentRepository,
+                           @Value("${app.trending.reaction-weight:1}") double reactionWeight,
+                           @Value("${app.trending.comment-weight:3}") double commentWeight,
+                           @Value("${app.trending.half-life-minutes:360}") long halfLifeMinutes,
+                           @Value("${app.trending.min-score:0.05}") double minScore,
+                           @Value("${app.trending.bootstrap-hours:48}") long bootstrapHours) {
+        this.reactionRepository = reactionRepository;
+        this.commentRepository = commentRepository;
+        this.reactionWeight = reactionWeight;
+        this.commentWeight = commentWeight;
+        this.halfLifeMillis = TimeUnit.MINUTES.toMillis(halfLifeMinutes);
+        this.minScore = minScore;
+        this.bootstrapHours = bootstrapHours;
+    }
+
+    /**
+     * IDs de los posts en tendencia, de mayor a menor puntuación. Cuesta O(offset + limit).
+     */
+    public List<Long> topPostIds(int offset, int limit) {
+        rescaleLock.readLock().lock();
+        try {
+            return ranking.top(offset, limit);
+        } finally {
+            rescaleLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Puntuación actual del post (ya decaída), o 0 si no está en el ranking.
+     */
+    public double currentScore(Long postId) {
+        rescaleLock.readLock().lock();
+        try {
+            Double stored = ranking.score(postId);
+            return stored != null ? stored * decayFactor(landmarkMillis, System.currentTimeMillis()) : 0d;
+        } finally {
+            rescaleLock.readLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEngagement(PostEngagementEvent event) {
+        if (event.postId() == null || event.delta() == 0) {
+            return;
+        }
+        double weight = event.kind() == PostEngagementEvent.Kind.COMMENT ? commentWeight : reactionWeight;
+        // Una retirada se aplica en la fecha de la interacción original: resta lo mismo que sumó
+        long atMillis = event.occurredAt() != null ? toMillis(event.occurredAt()) : System.currentTimeMillis();
+        record(event.postId(), weight * event.delta(), atMillis);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPostDeleted(PostDeletedEvent event) {
+        rescaleLock.readLock().lock();
+        try {
+            ranking.remove(event.postId());
+        } finally {
+            rescaleLock.readLock().unlock();
+        }
+    }
+
+    private void record(long postId, double weight, long atMillis) {
+        rescaleLock.readLock().lock();
+        try {
+            // Relativo al landmark: una interacción más reciente pesa más que una antigua del mismo tipo
+            ranking.add(postId, weight / decayFactor(landmarkMillis, atMillis));
+        } finally {
+            rescaleLock.readLock().unlock();
+        }
+    }
+
+    // 2^(-(to - from) / vidaMedia): cuánto conserva en `to` una puntuación fijada en `from`
+    private double decayFactor(long fromMillis, long toMillis) {
+        return Math.pow(2, -(toMillis - fromMillis) / halfLifeMillis);
+    }
+
+    /**
+     * Aplica el decaimiento acumulado desde el último landmark y descarta los posts por debajo de minScore.
+     */
+    @Scheduled(fixedDelayString = "${app.trending.decay-interval-ms:600000}")
+    public void decay() {
+        rescaleLock.writeLock().lock();
+        try {
+            long now = System.currentTimeMillis();
+            int dropped = ranking.rescale(decayFactor(landmarkMillis, now), minScore);
+            landmarkMillis = now;
+            if (dropped > 0) {
+                log.debug("Ranking de tendencias: {} posts descartados, {} activos", dropped, ranking.size());
+            }
+        } finally {
+            rescaleLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Reconstruye el ranking con las interacciones de las últimas bootstrapHours horas, cada una con su fecha.
+     * Pasadas varias vidas medias una interacción ya no aporta, así que no hace falta leer más atrás.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void bootstrap() {
+        LocalDateTime since = LocalDateTime.now().minusHours(bootstrapHours);
+        try (Stream<Object[]> rows = reactionRepository.streamPostReactionTimesSince(TargetType.POST, since)) {
+            rows.forEach(row -> recordAt(row, reactionWeight));
+        }
+        try (Stream<Object[]> rows = reactionRepository.streamCommentReactionTimesSince(TargetType.COMMENT, since)) {
+            rows.forEach(row -> recordAt(row, reactionWeight));
+        }
+        try (Stream<Object[]> rows = commentRepository.streamPostCommentTimesSince(since)) {
+            rows.forEach(row -> recordAt(row, commentWeight));
+        }
+        decay();
+        log.info("Ranking de tendencias inicializado con {} posts", ranking.size());
+    }
+
+    // Fila (postId, fecha) de las consultas de arranque
+    private void recordAt(Object[] row, double weight) {
+        record((Long) row[0], weight, toMillis((LocalDateTime) row[1]));
+    }
+
+    private static long toMillis(LocalDateTime dateTime) {
+        return dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
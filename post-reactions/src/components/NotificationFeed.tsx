@@ -1,15 +1,56 @@
 import React, { useEffect, useState } from 'react';
 import { Client } from '@stomp/stompjs';
+import type { AppNotification } from '../types/post';
+import {
+    fetchNotifications,
+    fetchUnreadNotificationCount,
+    markNotificationsRead
+} from '../hooks/api/postsApi';
 
-const NotificationFeed: React.FC = () => {
-    const [commentNotifications, setCommentNotifications] = useState<string[]>([]);
-    const [reactionNotifications, setReactionNotifications] = useState<string[]>([]);
+interface NotificationFeedProps {
+    currentUserId: string;
+}
+
+const describe = (notification: AppNotification): string => {
+    const actor = notification.actor?.name ?? 'Alguien';
+    switch (notification.type) {
+        case 'COMMENT_ON_POST':
+            return `${actor} ha comentado tu post`;
+        case 'REPLY_TO_COMMENT':
+            return `${actor} ha respondido a tu comentario`;
+        case 'REACTION_TO_POST':
+            return `${actor} ha reaccionado a tu post (${notification.reaction})`;
+        case 'REACTION_TO_COMMENT':
+            return `${actor} ha reaccionado a tu comentario (${notification.reaction})`;
+    }
+};
+
+const NotificationFeed: React.FC<NotificationFeedProps> = ({ currentUserId }) => {
+    const [notifications, setNotifications] = useState<AppNotification[]>([]);
+    const [unreadCount, setUnreadCount] = useState(0);
+    const [nextCursor, setNextCursor] = useState<string | null>(null);
+    const [hasMore, setHasMore] = useState(false);
     const [isConnected, setIsConnected] = useState(false);
 
+    // Historial y contador de no leídas desde la bandeja del servidor
+    useEffect(() => {
+        fetchNotifications(currentUserId)
+            .then(page => {
+                setNotifications(page.items);
+                setNextCursor(page.nextCursor);
+                setHasMore(page.hasMore);
+            })
+            .catch(error => console.error('Error al cargar notificaciones:', error));
+        fetchUnreadNotificationCount(currentUserId)
+            .then(setUnreadCount)
+            .catch(error => console.error('Error al cargar notificaciones sin leer:', error));
+    }, [currentUserId]);
+
     useEffect(() => {
         const client = new Client({
-            // *** CAMBIO CLAVE AQUÍ: Usamos WebSocket nativo y la URL ws:// ***
-            webSocketFactory: () => new WebSocket('ws://localhost:8080/ws'), // <-- URL de tu endpoint WebSocket en Spring Boot
+            webSocketFactory: () => new WebSocket('ws://localhost:8080/ws'),
+            // El servidor identifica al usuario con esta cabecera para enrutar /user/queue/notifications
+            connectHeaders: { userId: currentUserId },
             reconnectDelay: 5000,
             heartbeatIncoming: 4000,
             heartbeatOutgoing: 4000,
@@ -18,16 +59,11 @@ const NotificationFeed: React.FC = () => {
                 console.log('Conectado al WebSocket!');
                 setIsConnected(true);
 
-                // Suscribirse al tópico de nuevos comentarios
-                client.subscribe('/topic/comments/new', message => {
-                    console.log('Nueva notificación de comentario:', message.body);
-                    setCommentNotifications(prev => [message.body, ...prev]);
-                });
-
-                // Suscribirse al tópico de nuevas reacciones
-                client.subscribe('/topic/reactions/new', message => {
-                    console.log('Nueva notificación de reacción:', message.body);
-                    setReactionNotifications(prev => [message.body, ...prev]);
+                // Solo llegan las notificaciones dirigidas a este usuario
+                client.subscribe('/user/queue/notifications', message => {
+                    const notification: AppNotification = JSON.parse(message.body);
+                    setNotifications(prev => [notification, ...prev]);
+                    setUnreadCount(prev => prev + 1);
                 });
             },
 
@@ -39,9 +75,6 @@ const NotificationFeed: React.FC = () => {
                 console.log('Desconectado del WebSocket.');
                 setIsConnected(false);
             },
-            debug: (str) => {
-                // console.log('STOMP Debug:', str);
-            },
         });
 
         client.activate();
@@ -52,51 +85,79 @@ const NotificationFeed: React.FC = () => {
                 console.log('Desactivando conexión WebSocket.');
             }
         };
-    }, []);
+    }, [currentUserId]);
+
+    const loadMore = async () => {
+        if (!nextCursor) return;
+        try {
+            const page = await fetchNotifications(currentUserId, nextCursor);
+            setNotifications(prev => [...prev, ...page.items]);
+            setNextCursor(page.nextCursor);
+            setHasMore(page.hasMore);
+        } catch (error) {
+            console.error('Error al cargar más notificaciones:', error);
+        }
+    };
+
+    const markAllRead = async () => {
+        const latest = notifications[0];
+        if (!latest) return;
+        try {
+            await markNotificationsRead(currentUserId, latest.id);
+            setNotifications(prev => prev.map(n => ({ ...n, read: true })));
+            setUnreadCount(0);
+        } catch (error) {
+            console.error('Error al marcar notificaciones:', error);
+        }
+    };
 
     return (
         <div className="p-6 bg-gray-100 min-h-screen">
-            <h1 className="text-3xl font-bold text-blue-800 mb-6">
-                Notificaciones en Tiempo Real
-            </h1>
+            <div className="flex items-center justify-between mb-6">
+                <h1 className="text-3xl font-bold text-blue-800">
+                    Notificaciones {unreadCount > 0 && `(${unreadCount})`}
+                </h1>
+                <button
+                    onClick={markAllRead}
+                    disabled={unreadCount === 0}
+                    className="px-4 py-2 rounded-lg bg-blue-600 text-white disabled:opacity-50"
+                >
+                    Marcar todo como leído
+                </button>
+            </div>
 
             <div className={`p-3 mb-4 rounded-lg text-white ${isConnected ? 'bg-green-500' : 'bg-red-500'}`}>
                 Estado del WebSocket: {isConnected ? 'Conectado' : 'Desconectado'}
             </div>
 
-            <div className="grid grid-cols-1 md:grid-cols-2 gap-6">
-                <div className="bg-white p-5 rounded-lg shadow-md">
-                    <h2 className="text-xl font-semibold text-gray-700 mb-4">Nuevos Comentarios</h2>
-                    {commentNotifications.length === 0 ? (
-                        <p className="text-gray-500">Esperando nuevos comentarios...</p>
-                    ) : (
-                        <ul className="space-y-3">
-                            {commentNotifications.map((notification, index) => (
-                                <li key={index} className="bg-blue-50 p-3 rounded-md text-blue-800 border border-blue-200">
-                                    {notification}
-                                </li>
-                            ))}
-                        </ul>
-                    )}
-                </div>
-
-                <div className="bg-white p-5 rounded-lg shadow-md">
-                    <h2 className="text-xl font-semibold text-gray-700 mb-4">Nuevas Reacciones</h2>
-                    {reactionNotifications.length === 0 ? (
-                        <p className="text-gray-500">Esperando nuevas reacciones...</p>
-                    ) : (
-                        <ul className="space-y-3">
-                            {reactionNotifications.map((notification, index) => (
-                                <li key={index} className="bg-purple-50 p-3 rounded-md text-purple-800 border border-purple-200">
-                                    {notification}
-                                </li>
-                            ))}
-                        </ul>
-                    )}
-                </div>
+            <div className="bg-white p-5 rounded-lg shadow-md">
+                {notifications.length === 0 ? (
+                    <p className="text-gray-500">No tienes notificaciones.</p>
+                ) : (
+                    <ul className="space-y-3">
+                        {notifications.map(notification => (
+                            <li
+                                key={notification.id}
+                                className={`p-3 rounded-md border ${notification.read
+                                    ? 'bg-gray-50 text-gray-600 border-gray-200'
+                                    : 'bg-blue-50 text-blue-800 border-blue-200'}`}
+                            >
+                                {describe(notification)}
+                                <span className="block text-xs text-gray-400">
+                                    {new Date(notification.createdAt).toLocaleString()}
+                                </span>
+                            </li>
+                        ))}
+                    </ul>
+                )}
+                {hasMore && (
+                    <button onClick={loadMore} className="mt-4 text-blue-600 hover:underline">
+                        Cargar más
+                    </button>
+                )}
             </div>
         </div>
     );
 };
 
-export default NotificationFeed;
\ No newline at end of file
+export default NotificationFeed;
@@ -1,4 +1,4 @@
-import React from 'react';
+import React, { useState } from 'react';
 import type { Comment } from '../../types/post';
 import CommentCard from './CommentCard';
 import CommentForm from './CommentForm';
@@ -8,6 +8,8 @@ interface CommentSectionProps {
   postId: string;
   onCommentReaction?: (commentId: string, reactionType: string) => void;
   onNewComment?: (postId: string, content: string, parentCommentId?: string) => Promise<void>; // ✅ NUEVO
+  hasMoreComments?: boolean;
+  onLoadMoreComments?: (postId: string) => Promise<void>;
   forceRenderKey?: number;
 }
 
@@ -16,8 +18,23 @@ const CommentSection: React.FC<CommentSectionProps> = ({
   postId, 
   onCommentReaction,
   onNewComment, // ✅ NUEVO
+  hasMoreComments,
+  onLoadMoreComments,
   forceRenderKey
 }) => {
+  const [loadingMore, setLoadingMore] = useState(false);
+
+  const handleLoadMore = async () => {
+    if (!onLoadMoreComments || loadingMore) {
+      return;
+    }
+    setLoadingMore(true);
+    try {
+      await onLoadMoreComments(postId);
+    } finally {
+      setLoadingMore(false);
+    }
+  };
 
   const handleNewComment = async (content: string) => {
     if (onNewComment) {
@@ -55,6 +72,19 @@ const CommentSection: React.FC<CommentSectionProps> = ({
         </div>
       )}
 
+      {/* Load more comments */}
+      {hasMoreComments && onLoadMoreComments && (
+        <div className="px-6 pb-2">
+          <button
+            onClick={handleLoadMore}
+            disabled={loadingMore}
+            className="text-sm font-medium text-blue-600 hover:text-blue-700 disabled:text-slate-400 cursor-pointer"
+          >
+            {loadingMore ? 'Cargando comentarios...' : 'Ver más comentarios'}
+          </button>
+        </div>
+      )}
+
       {/* Comment Input */}
       <CommentForm 
         onSubmit={handleNewComment} 
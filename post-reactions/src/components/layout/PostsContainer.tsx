@@ -16,7 +16,8 @@ const PostsContainer: React.FC<PostsContainerProps> = ({ selectedTag, currentUse
     fetchPosts, 
     handleReaction, 
     handleCommentReaction,
-    handleNewComment // ✅ NUEVO: Obtener la función del hook
+    handleNewComment, // ✅ NUEVO: Obtener la función del hook
+    loadMoreComments
   } = usePosts({ currentUserId });
   
   const [filteredPosts, setFilteredPosts] = useState<Post[]>([]);
@@ -69,6 +70,7 @@ const PostsContainer: React.FC<PostsContainerProps> = ({ selectedTag, currentUse
             onReaction={handleReaction}
             onCommentReaction={handleCommentReaction}
             onNewComment={handleNewComment} // ✅ NUEVO: Pasar la función
+            onLoadMoreComments={loadMoreComments}
           />
         ))
       )}
@@ -5,22 +5,29 @@ import PostContent from './PostContent';
 import PostActions from './PostActions';
 import ReactionStats from '../reaction/ReactionStats';
 import CommentSection from '../comment/CommentSection';
+import { countLoadedComments } from '../../hooks/utils/postUtils';
 
 interface PostCardProps {
   post: Post;
   onReaction: (postId: string, reactionType: string) => void;
   onCommentReaction?: (commentId: string, reactionType: string) => void;
   onNewComment?: (postId: string, content: string, parentCommentId?: string) => Promise<void>; // ✅ NUEVO
+  onLoadMoreComments?: (postId: string) => Promise<void>;
 }
 
 const PostCard: React.FC<PostCardProps> = ({ 
   post, 
   onReaction, 
   onCommentReaction,
-  onNewComment // ✅ NUEVO
+  onNewComment, // ✅ NUEVO
+  onLoadMoreComments
 }) => {
   const [showComments, setShowComments] = useState(false);
 
+  // El feed trae solo una vista previa: commentCount es el total real
+  const totalComments = post.commentCount ?? countLoadedComments(post.comments);
+  const hasMoreComments = post.hasMoreComments ?? totalComments > countLoadedComments(post.comments);
+
   const handleReaction = (reactionType: string) => {
     onReaction(post.id, reactionType);
   };
@@ -44,7 +51,7 @@ const PostCard: React.FC<PostCardProps> = ({
 
       <ReactionStats
         reactions={post.reactions}
-        commentsCount={post.comments.length}
+        commentsCount={totalComments}
       />
 
       <PostActions
@@ -61,6 +68,8 @@ const PostCard: React.FC<PostCardProps> = ({
           postId={post.id}
           onCommentReaction={onCommentReaction}
           onNewComment={onNewComment} // ✅ PASAR FUNCIÓN
+          hasMoreComments={hasMoreComments}
+          onLoadMoreComments={onLoadMoreComments}
           forceRenderKey={post._lastUpdate}
         />
       )}
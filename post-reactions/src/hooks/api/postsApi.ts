@@ -1,5 +1,5 @@
 // src/hooks/api/postsApi.ts
-import type { Post } from '../../types/post';
+import type { Post, CommentPage, NotificationPage } from '../../types/post';
 
 const API_BASE_URL = 'http://localhost:8080/api';
 
@@ -41,6 +41,12 @@ export const sendReaction = async (
 
   console.log(`📡 Respuesta del servidor: ${response.status} ${response.statusText}`);
 
+  if (response.status === 429) {
+    // ✅ NUEVO: Límite de reacciones alcanzado; el servidor indica cuándo reintentar
+    console.warn(`⏳ Demasiadas reacciones seguidas. Reintenta en ${response.headers.get('Retry-After') ?? '1'} s`);
+    return;
+  }
+
   if (!response.ok && response.status !== 409) {
     const errorText = await response.text();
     throw new Error(`Fallo al enviar la reacción: ${response.status} ${response.statusText} - ${errorText}`);
@@ -120,4 +126,82 @@ export const createComment = async (
   const result = await response.json();
   console.log(`✅ Comentario creado exitosamente:`, result);
   return result;
-};
\ No newline at end of file
+};
+
+/**
+ * ✅ NUEVO: Obtiene una página de comentarios de un post (paginación por cursor)
+ */
+export const fetchCommentsPage = async (
+  postId: string,
+  currentUserId: string | null,
+  cursor?: string | null
+): Promise<CommentPage> => {
+  const url = new URL(`${API_BASE_URL}/comments/byPost/${postId}`);
+  if (currentUserId) {
+    url.searchParams.append('currentUserId', currentUserId);
+  }
+  if (cursor) {
+    url.searchParams.append('cursor', cursor);
+  }
+
+  const response = await fetch(url.toString());
+
+  if (!response.ok) {
+    throw new Error(`Error al cargar comentarios: ${response.status} ${response.statusText}`);
+  }
+
+  return response.json();
+};
+
+/**
+ * Obtiene una página del historial de notificaciones del usuario (de la más reciente a la más antigua)
+ */
+export const fetchNotifications = async (
+  userId: string,
+  cursor?: string | null
+): Promise<NotificationPage> => {
+  const url = new URL(`${API_BASE_URL}/notifications`);
+  url.searchParams.append('userId', userId);
+  if (cursor) {
+    url.searchParams.append('cursor', cursor);
+  }
+
+  const response = await fetch(url.toString());
+
+  if (!response.ok) {
+    throw new Error(`Error al cargar notificaciones: ${response.status} ${response.statusText}`);
+  }
+
+  return response.json();
+};
+
+/**
+ * Número de notificaciones sin leer del usuario
+ */
+export const fetchUnreadNotificationCount = async (userId: string): Promise<number> => {
+  const response = await fetch(`${API_BASE_URL}/notifications/unread-count?userId=${userId}`);
+
+  if (!response.ok) {
+    throw new Error(`Error al cargar notificaciones sin leer: ${response.status} ${response.statusText}`);
+  }
+
+  const result = await response.json();
+  return result.unread;
+};
+
+/**
+ * Marca como leídas las notificaciones del usuario hasta upToId (todas si no se indica)
+ */
+export const markNotificationsRead = async (userId: string, upToId?: string): Promise<void> => {
+  const url = new URL(`${API_BASE_URL}/notifications/read`);
+  url.searchParams.append('userId', userId);
+  if (upToId) {
+    url.searchParams.append('upToId', upToId);
+  }
+
+  const response = await fetch(url.toString(), { method: 'POST' });
+
+  if (!response.ok) {
+    throw new Error(`Error al marcar notificaciones: ${response.status} ${response.statusText}`);
+  }
+};
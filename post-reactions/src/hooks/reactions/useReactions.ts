@@ -14,9 +14,11 @@ const REACTION_TYPE_MAP: { [key: string]: number } = {
 
 interface UseReactionsOptions {
   currentUserId: string | null;
+  // ✅ NUEVO: Envío por STOMP; si devuelve false (sin conexión) se usa el endpoint REST
+  sendCommand?: (destination: string, payload: Record<string, unknown>) => boolean;
 }
 
-export const useReactions = ({ currentUserId }: UseReactionsOptions) => {
+export const useReactions = ({ currentUserId, sendCommand }: UseReactionsOptions) => {
   // Reacción a posts
   const handlePostReaction = useCallback(async (postId: string, reactionType: string) => {
     const reactionTypeId = REACTION_TYPE_MAP[reactionType];
@@ -32,12 +34,16 @@ export const useReactions = ({ currentUserId }: UseReactionsOptions) => {
       return;
     }
 
+    if (sendCommand?.('/app/reactions/toggle', { targetId: postId, targetType: 'POST', reactionTypeId })) {
+      return; // La confirmación llega por /user/queue/acks y el estado por /user/queue/reactions
+    }
+
     try {
       await sendReaction(currentUserId, postId, 'POST', reactionType, reactionTypeId);
     } catch (error) {
       console.error("Error al enviar la reacción al post:", error);
     }
-  }, [currentUserId]);
+  }, [currentUserId, sendCommand]);
 
   // ✅ NUEVA: Reacción a comentarios
   const handleCommentReaction = useCallback(async (commentId: string, reactionType: string) => {
@@ -54,12 +60,16 @@ export const useReactions = ({ currentUserId }: UseReactionsOptions) => {
       return;
     }
 
+    if (sendCommand?.('/app/reactions/toggle', { targetId: commentId, targetType: 'COMMENT', reactionTypeId })) {
+      return;
+    }
+
     try {
       await sendReaction(currentUserId, commentId, 'COMMENT', reactionType, reactionTypeId);
     } catch (error) {
       console.error("Error al enviar la reacción al comentario:", error);
     }
-  }, [currentUserId]);
+  }, [currentUserId, sendCommand]);
 
   // Mantener compatibilidad con el nombre anterior
   const handleReaction = handlePostReaction;
@@ -1,15 +1,17 @@
 // src/hooks/usePosts.ts - Versión ARREGLADA con comentarios
 import { useState, useEffect, useCallback } from 'react';
-import type { Post, Comment, NotificationReaction } from '../types/post';
+import type { Post, Comment, NotificationReaction, PostDeletedNotification } from '../types/post';
 
 // Importaciones de módulos especializados
-import { fetchPosts, fetchUserReaction, createComment } from './api/postsApi';
+import { fetchPosts, createComment, fetchCommentsPage } from './api/postsApi';
 import { useWebSocket } from './websocket/useWebSocket';
 import { useReactions } from './reactions/useReactions';
 import { 
   parsePostDates, 
+  parseCommentDates,
   updateCommentReactionsRecursive, 
-  addCommentToPosts 
+  addCommentToPosts,
+  mergeCommentPage
 } from './utils/postUtils';
 
 interface UsePostsOptions {
@@ -24,6 +26,7 @@ interface UsePostsReturn {
   handleReaction: (postId: string, reactionType: string) => Promise<void>;
   handleCommentReaction: (commentId: string, reactionType: string) => Promise<void>;
   handleNewComment: (postId: string, content: string, parentCommentId?: string) => Promise<void>; // ✅ NUEVO
+  loadMoreComments: (postId: string) => Promise<void>;
 }
 
 export const usePosts = ({ currentUserId }: UsePostsOptions): UsePostsReturn => {
@@ -31,8 +34,6 @@ export const usePosts = ({ currentUserId }: UsePostsOptions): UsePostsReturn =>
   const [loading, setLoading] = useState<boolean>(true);
   const [error, setError] = useState<string | null>(null);
 
-  // Hook para manejar reacciones
-  const { handlePostReaction, handleCommentReaction } = useReactions({ currentUserId });
 
   // Función para cargar posts
   const loadPosts = useCallback(async () => {
@@ -129,29 +130,46 @@ export const usePosts = ({ currentUserId }: UsePostsOptions): UsePostsReturn =>
     }
   }, [currentUserId]);
 
+  // ✅ NUEVO: El feed solo trae una vista previa; el resto de comentarios se pide página a página
+  const loadMoreComments = useCallback(async (postId: string) => {
+    const post = posts.find(p => p.id === postId);
+    if (!post) {
+      return;
+    }
+
+    try {
+      const page = await fetchCommentsPage(postId, currentUserId, post.commentsCursor);
+      const items = page.items.map(parseCommentDates);
+
+      setPosts(prevPosts => prevPosts.map(p => p.id === postId
+        ? {
+            ...p,
+            comments: mergeCommentPage(p.comments, items),
+            commentsCursor: page.nextCursor,
+            hasMoreComments: page.hasMore
+          }
+        : p
+      ));
+    } catch (error) {
+      console.error('❌ Error al cargar más comentarios:', error);
+    }
+  }, [posts, currentUserId]);
+
   // Manejador para nuevos comentarios desde WebSocket
   const handleNewCommentFromWS = useCallback((newComment: Comment) => {
     console.log('📡 Nuevo comentario recibido vía WebSocket:', newComment);
     setPosts(prevPosts => addCommentToPosts(prevPosts, newComment));
   }, []);
 
-  // Manejador para cambios de reacciones
-  const handleReactionChange = useCallback(async (reactionNotification: NotificationReaction) => {
-    console.log('🔄 Procesando notificación de reacción:', reactionNotification);
+  // ✅ NUEVO: Un post eliminado (con todo su hilo) desaparece del feed
+  const handlePostDeleted = useCallback((notification: PostDeletedNotification) => {
+    console.log('🗑️ Post eliminado vía WebSocket:', notification.postId);
+    setPosts(prevPosts => prevPosts.filter(post => post.id !== notification.postId));
+  }, []);
 
+  // Aplica una notificación de reacción. Con userReaction === undefined se conserva la reacción actual del usuario.
+  const applyReactionNotification = useCallback((reactionNotification: NotificationReaction, userReaction?: string | null) => {
     if (reactionNotification.targetType === 'POST') {
-      // Manejar reacciones de posts
-      let userReaction: string | null = null;
-      
-      if (currentUserId) {
-        try {
-          userReaction = await fetchUserReaction(currentUserId, reactionNotification.targetId, 'POST');
-          console.log('👤 UserReaction de POST consultada:', userReaction);
-        } catch (error) {
-          console.error('❌ Error consultando userReaction de POST:', error);
-        }
-      }
-
       setPosts((prevPosts: Post[]) => {
         return prevPosts.map((post: Post) => {
           if (post.id === reactionNotification.targetId) {
@@ -160,7 +178,7 @@ export const usePosts = ({ currentUserId }: UsePostsOptions): UsePostsReturn =>
             return {
               ...post,
               reactions: { ...reactionNotification.reactionCounts },
-              userReaction: userReaction
+              userReaction: userReaction !== undefined ? userReaction : post.userReaction
             };
           }
           return post;
@@ -168,18 +186,6 @@ export const usePosts = ({ currentUserId }: UsePostsOptions): UsePostsReturn =>
       });
 
     } else if (reactionNotification.targetType === 'COMMENT') {
-      // Manejar reacciones de comentarios
-      let userReaction: string | null = null;
-      
-      if (currentUserId) {
-        try {
-          userReaction = await fetchUserReaction(currentUserId, reactionNotification.targetId, 'COMMENT');
-          console.log('💬 UserReaction de COMMENT consultada:', userReaction);
-        } catch (error) {
-          console.error('❌ Error consultando userReaction del comentario:', error);
-        }
-      }
-
       setPosts((prevPosts: Post[]) => {
         const timestamp = Date.now();
         console.log(`🔄 Forzando actualización de comentarios - Timestamp: ${timestamp}`);
@@ -199,14 +205,34 @@ export const usePosts = ({ currentUserId }: UsePostsOptions): UsePostsReturn =>
         });
       });
     }
-  }, [currentUserId]);
+  }, []);
+
+  // Manejador para cambios de reacciones (tópico general): solo trae conteos.
+  // ✅ Ya no se consulta la reacción del usuario: si cambió, llega por /user/queue/reactions
+  const handleReactionChange = useCallback((reactionNotification: NotificationReaction) => {
+    console.log('🔄 Procesando notificación de reacción:', reactionNotification);
+    applyReactionNotification(reactionNotification);
+  }, [applyReactionNotification]);
+
+  // ✅ NUEVO: Nuestra propia reacción (enviada solo a nuestras sesiones)
+  const handleOwnReaction = useCallback((reactionNotification: NotificationReaction) => {
+    console.log('👤 Reacción propia recibida:', reactionNotification);
+    applyReactionNotification(reactionNotification, reactionNotification.userReaction);
+  }, [applyReactionNotification]);
 
   // Configurar WebSocket
-  useWebSocket({
+  const { sendCommand } = useWebSocket({
     onNewComment: handleNewCommentFromWS,
-    onReactionChange: handleReactionChange
+    onReactionChange: handleReactionChange,
+    onResync: loadPosts, // ✅ NUEVO: Solo se recarga el feed si los eventos perdidos ya no se pueden reenviar
+    currentUserId,
+    onOwnReaction: handleOwnReaction,
+    onPostDeleted: handlePostDeleted
   });
 
+  // Hook para manejar reacciones (por STOMP si hay conexión, si no por REST)
+  const { handlePostReaction, handleCommentReaction } = useReactions({ currentUserId, sendCommand });
+
   // Cargar posts al montar el componente
   useEffect(() => {
     loadPosts();
@@ -219,6 +245,7 @@ export const usePosts = ({ currentUserId }: UsePostsOptions): UsePostsReturn =>
     fetchPosts: loadPosts, 
     handleReaction: handlePostReaction,
     handleCommentReaction,
-    handleNewComment // ✅ NUEVO: Exportar la función
+    handleNewComment, // ✅ NUEVO: Exportar la función
+    loadMoreComments
   };
 };
\ No newline at end of file
@@ -14,6 +14,24 @@ export const parsePostDates = (post: any): Post => {
   };
 };
 
+/**
+ * Cuenta los comentarios cargados, incluidas las respuestas
+ */
+export const countLoadedComments = (comments: Comment[]): number => {
+  return comments.reduce((total, comment) => total + 1 + countLoadedComments(comment.replies || []), 0);
+};
+
+/**
+ * Fusiona una página de comentarios con los ya cargados (vista previa del feed o páginas anteriores).
+ * Los comentarios repetidos se sustituyen por la versión de la página, que trae todas sus respuestas.
+ */
+export const mergeCommentPage = (loaded: Comment[], page: Comment[]): Comment[] => {
+  const pageById = new Map(page.map(comment => [comment.id, comment]));
+  const merged = loaded.map(comment => pageById.get(comment.id) || comment);
+  const loadedIds = new Set(loaded.map(comment => comment.id));
+  return [...merged, ...page.filter(comment => !loadedIds.has(comment.id))];
+};
+
 /**
  * Parsea fechas en comentarios
  */
@@ -1,19 +1,90 @@
 // src/hooks/websocket/useWebSocket.ts
-import { useEffect, useRef } from 'react';
+import { useCallback, useEffect, useRef } from 'react';
 import { Client } from '@stomp/stompjs';
-import type { Comment, NotificationReaction } from '../../types/post';
+import type { IMessage } from '@stomp/stompjs';
+import type { Comment, NotificationReaction, PostDeletedNotification } from '../../types/post';
+
+const COMMENTS_DESTINATION = '/topic/comments/new';
+const REACTIONS_DESTINATION = '/topic/reactions/new';
+const POSTS_DELETED_DESTINATION = '/topic/posts/deleted';
 
 interface UseWebSocketOptions {
   onNewComment: (comment: Comment) => void;
   onReactionChange: (notification: NotificationReaction) => void;
+  onResync?: () => void; // ✅ NUEVO: Los eventos perdidos ya no están en el servidor, hay que recargar
+  currentUserId?: string | null; // ✅ NUEVO: Identifica la sesión para recibir /user/queue/reactions
+  onOwnReaction?: (notification: NotificationReaction) => void; // ✅ NUEVO: Estado propio tras reaccionar
+  onPostDeleted?: (notification: PostDeletedNotification) => void; // ✅ NUEVO: Un post se eliminó con todo su hilo
+}
+
+// Respuesta de /user/queue/replay
+interface ReplayResponse {
+  epoch: string;
+  resync: boolean;
+  events: { destination: string; seq: number; payload: unknown }[];
+  latestSeq: Record<string, number>;
 }
 
-export const useWebSocket = ({ onNewComment, onReactionChange }: UseWebSocketOptions) => {
+// Confirmación de un comando STOMP (/user/queue/acks)
+export interface CommandAck {
+  requestId: string;
+  status: 'OK' | 'INVALID' | 'CONFLICT' | 'RATE_LIMITED' | 'UNAUTHORIZED' | 'ERROR';
+  duplicate: boolean;
+  message?: string;
+  retryAfterSeconds?: number;
+  result?: unknown;
+}
+
+export const useWebSocket = ({ onNewComment, onReactionChange, onResync, currentUserId, onOwnReaction, onPostDeleted }: UseWebSocketOptions) => {
   const clientRef = useRef<Client | null>(null);
 
+  // ✅ NUEVO: Última secuencia vista por destino y epoch del servidor; sobreviven a las reconexiones
+  const lastSeqRef = useRef<Record<string, number>>({});
+  const epochRef = useRef<string | null>(null);
+
+  // ✅ NUEVO: Comandos enviados sin confirmar (requestId -> frame). Se reenvían al reconectar:
+  // el servidor los reconoce por requestId y no los aplica dos veces
+  const pendingCommandsRef = useRef<Map<string, { destination: string; body: string }>>(new Map());
+
   useEffect(() => {
+    // Entrega un evento una sola vez: descarta los que ya se recibieron (en vivo o en un reenvío)
+    const dispatch = (destination: string, seq: number | null, payload: unknown) => {
+      if (seq !== null) {
+        if (seq <= (lastSeqRef.current[destination] ?? 0)) {
+          return;
+        }
+        lastSeqRef.current[destination] = seq;
+      }
+
+      if (destination === COMMENTS_DESTINATION) {
+        onNewComment(payload as Comment);
+      } else if (destination === REACTIONS_DESTINATION) {
+        console.log('Notificación de reacción PARSEADA:', payload);
+        onReactionChange(payload as NotificationReaction);
+      } else if (destination === POSTS_DELETED_DESTINATION) {
+        onPostDeleted?.(payload as PostDeletedNotification);
+      }
+    };
+
+    const handleLiveMessage = (destination: string) => (message: IMessage) => {
+      console.log(`Nueva notificación RAW en ${destination}:`, message.body);
+      try {
+        const epoch = message.headers['epoch'];
+        if (epoch && epoch !== epochRef.current) {
+          // El servidor se reinició: sus secuencias empiezan de nuevo
+          epochRef.current = epoch;
+          lastSeqRef.current = {};
+        }
+        const seq = message.headers['seq'] ? Number(message.headers['seq']) : null;
+        dispatch(destination, seq, JSON.parse(message.body));
+      } catch (e) {
+        console.error('ERROR al procesar notificación del WebSocket:', e, 'Mensaje recibido:', message.body);
+      }
+    };
+
     const client = new Client({
       webSocketFactory: () => new WebSocket('ws://localhost:8080/ws'),
+      connectHeaders: currentUserId ? { userId: currentUserId } : {},
       reconnectDelay: 5000,
       heartbeatIncoming: 4000,
       heartbeatOutgoing: 4000,
@@ -21,27 +92,72 @@ export const useWebSocket = ({ onNewComment, onReactionChange }: UseWebSocketOpt
       onConnect: () => {
         console.log('WebSocket Conectado!');
 
-        // Suscripción a comentarios
-        client.subscribe('/topic/comments/new', message => {
-          console.log('Nueva notificación de comentario RAW:', message.body);
+        // Suscripción a comentarios y reacciones
+        client.subscribe(COMMENTS_DESTINATION, handleLiveMessage(COMMENTS_DESTINATION));
+        client.subscribe(REACTIONS_DESTINATION, handleLiveMessage(REACTIONS_DESTINATION));
+        client.subscribe(POSTS_DELETED_DESTINATION, handleLiveMessage(POSTS_DELETED_DESTINATION));
+
+        // ✅ NUEVO: Nuestra propia reacción llega solo a nuestras sesiones; los tópicos generales traen solo conteos
+        if (currentUserId && onOwnReaction) {
+          client.subscribe('/user/queue/reactions', message => {
+            try {
+              onOwnReaction(JSON.parse(message.body));
+            } catch (e) {
+              console.error('Error procesando la reacción propia:', e, message.body);
+            }
+          });
+        }
+
+        // ✅ NUEVO: Confirmaciones de comandos
+        if (currentUserId) {
+          client.subscribe('/user/queue/acks', message => {
+            try {
+              const ack: CommandAck = JSON.parse(message.body);
+              pendingCommandsRef.current.delete(ack.requestId);
+              if (ack.status !== 'OK') {
+                console.warn(`⚠️ Comando ${ack.requestId} no aplicado: ${ack.status}`, ack.message ?? '');
+              }
+            } catch (e) {
+              console.error('Error procesando la confirmación de comando:', e, message.body);
+            }
+          });
+
+          pendingCommandsRef.current.forEach(command => client.publish(command));
+        }
+
+        // ✅ NUEVO: Reenvío de los eventos perdidos mientras estábamos desconectados
+        client.subscribe('/user/queue/replay', message => {
           try {
-            const newComment: Comment = JSON.parse(message.body);
-            onNewComment(newComment);
+            const replay: ReplayResponse = JSON.parse(message.body);
+            if (replay.resync) {
+              // En la primera conexión solo se toma la posición actual; después, hay que recargar
+              const hadBaseline = epochRef.current !== null;
+              epochRef.current = replay.epoch;
+              lastSeqRef.current = { ...replay.latestSeq };
+              if (hadBaseline) {
+                console.log('🔁 Eventos perdidos fuera de la ventana de reenvío: resincronizando');
+                onResync?.();
+              }
+              return;
+            }
+            console.log(`🔁 Reenviando ${replay.events.length} eventos perdidos`);
+            replay.events.forEach(event => dispatch(event.destination, event.seq, event.payload));
           } catch (e) {
-            console.error('Error parseando notificación de comentario:', e, message.body);
+            console.error('Error procesando el reenvío de eventos:', e, message.body);
           }
         });
 
-        // Suscripción a reacciones
-        client.subscribe('/topic/reactions/new', message => {
-          console.log('Nueva notificación de reacción RAW:', message.body);
-          try {
-            const reactionNotification: NotificationReaction = JSON.parse(message.body);
-            console.log('Notificación de reacción PARSEADA:', reactionNotification);
-            onReactionChange(reactionNotification);
-          } catch (e) {
-            console.error('ERROR al procesar notificación de reacción del WebSocket:', e, 'Mensaje recibido:', message.body);
-          }
+        // En la primera conexión (sin epoch) el servidor responde resync y solo se toma la posición actual
+        client.publish({
+          destination: '/app/events/replay',
+          body: JSON.stringify({
+            epoch: epochRef.current,
+            lastSeq: {
+              [COMMENTS_DESTINATION]: lastSeqRef.current[COMMENTS_DESTINATION] ?? 0,
+              [REACTIONS_DESTINATION]: lastSeqRef.current[REACTIONS_DESTINATION] ?? 0,
+              [POSTS_DELETED_DESTINATION]: lastSeqRef.current[POSTS_DELETED_DESTINATION] ?? 0
+            }
+          })
         });
       },
 
@@ -65,7 +181,23 @@ export const useWebSocket = ({ onNewComment, onReactionChange }: UseWebSocketOpt
         console.log('Desactivando conexión WebSocket.');
       }
     };
-  }, [onNewComment, onReactionChange]);
+  }, [onNewComment, onReactionChange, onResync, currentUserId, onOwnReaction, onPostDeleted]);
+
+  /**
+   * ✅ NUEVO: Envía un comando por la conexión STOMP (SEND a /app/...). Devuelve false si no hay conexión
+   * o sesión de usuario, para que el llamador use el endpoint REST.
+   */
+  const sendCommand = useCallback((destination: string, payload: Record<string, unknown>): boolean => {
+    const client = clientRef.current;
+    if (!client || !client.connected || !currentUserId) {
+      return false;
+    }
+    const requestId = crypto.randomUUID();
+    const command = { destination, body: JSON.stringify({ ...payload, requestId }) };
+    pendingCommandsRef.current.set(requestId, command);
+    client.publish(command);
+    return true;
+  }, [currentUserId]);
 
-  return clientRef.current;
-};
\ No newline at end of file
+  return { client: clientRef.current, sendCommand };
+};
@@ -14,6 +14,7 @@ export interface Comment {
   reactions: Record<string, number>;
   userReaction?: string | null;
   replies?: Comment[];
+  replyCount?: number;
   postId?: string; // ✅ NUEVO: Para identificar a qué post pertenece
   parentCommentId?: string; // ✅ NUEVO: Para respuestas
 }
@@ -27,13 +28,47 @@ export interface Post {
   reactions: Record<string, number>;
   userReaction: string | null;
   comments: Comment[];
+  commentCount?: number;
+  commentsCursor?: string | null; // ✅ NUEVO: Cursor de la siguiente página de comentarios
+  hasMoreComments?: boolean;
   _lastUpdate?: number;
 }
 
+// Página de comentarios de GET /api/comments/byPost/{postId}
+export interface CommentPage {
+  items: Comment[];
+  nextCursor: string | null;
+  hasMore: boolean;
+}
+
 // Tipo para notificaciones de WebSocket
 export interface NotificationReaction {
   targetId: string;
   targetType: 'POST' | 'COMMENT';
   reactionCounts: Record<string, number>;
   userReaction: string | null;
-}
\ No newline at end of file
+}
+
+// Aviso de /topic/posts/deleted
+export interface PostDeletedNotification {
+  postId: string;
+  deletedComments: number;
+}
+
+// Notificación de la bandeja personal (/user/queue/notifications y GET /api/notifications)
+export interface AppNotification {
+  id: string;
+  type: 'COMMENT_ON_POST' | 'REPLY_TO_COMMENT' | 'REACTION_TO_POST' | 'REACTION_TO_COMMENT';
+  actor?: User;
+  postId?: string;
+  commentId?: string;
+  reaction?: string;
+  createdAt: string;
+  read: boolean;
+}
+
+export interface NotificationPage {
+  items: AppNotification[];
+  nextCursor: string | null;
+  hasMore: boolean;
+}